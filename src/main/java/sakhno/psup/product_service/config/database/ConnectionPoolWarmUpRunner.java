@@ -0,0 +1,54 @@
+package sakhno.psup.product_service.config.database;
+
+import io.r2dbc.pool.ConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Компонент создает минимальное число соединений пулов основной базы и реплики при старте экземпляра, до прогрева кэша и до публикации
+ * ApplicationReadyEvent. Ошибка или превышение времени не останавливают старт: соединения будут созданы
+ * при первых запросах.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ConnectionPoolWarmUpRunner implements ApplicationRunner {
+    private final Map<String, ConnectionPool> connectionPools;
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public ConnectionPoolWarmUpRunner(Map<String, ConnectionPool> connectionPools,
+                                      @Value("${database.pool.warm-up.enabled:true}") boolean enabled,
+                                      @Value("${database.pool.warm-up.timeout:10s}") Duration timeout) {
+        this.connectionPools = connectionPools;
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Flux.fromIterable(connectionPools.entrySet())
+                .flatMap(pool -> pool.getValue().warmup()
+                        .timeout(timeout)
+                        .doOnNext(created -> log.info("Пул соединений {} прогрет, создано соединений: {}",
+                                pool.getKey(), created))
+                        .onErrorResume(ex -> {
+                            log.warn("Прогрев пула соединений {} не выполнен: {}", pool.getKey(), ex.getMessage());
+                            return Mono.empty();
+                        }))
+                .blockLast();
+    }
+}
@@ -0,0 +1,97 @@
+package sakhno.psup.product_service.config.database;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Передает в Micrometer время получения соединения из пула R2DBC и время создания новых соединений.
+ * Показатели заполненности пула (занятые, свободные, ожидающие соединения) публикуются автоконфигурацией
+ * Spring Boot под именами {@code r2dbc.pool.*}; этот класс дополняет их гистограммами задержек, по которым
+ * видно, что запросы ждут соединения.
+ */
+public class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+    private final Timer allocationSuccess;
+    private final Timer allocationFailure;
+
+    /**
+     * @param meterRegistry - реестр метрик
+     * @param poolName - название пула, используется как тег метрик
+     */
+    public MicrometerPoolMetricsRecorder(MeterRegistry meterRegistry, String poolName) {
+        this.acquireSuccess = acquireTimer(meterRegistry, poolName, "success");
+        this.acquireFailure = acquireTimer(meterRegistry, poolName, "failure");
+        this.allocationSuccess = allocationTimer(meterRegistry, poolName, "success");
+        this.allocationFailure = allocationTimer(meterRegistry, poolName, "failure");
+    }
+
+    @Override
+    public void recordPendingSuccessAndLatency(long latencyMs) {
+        acquireSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordPendingFailureAndLatency(long latencyMs) {
+        acquireFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationSuccessAndLatency(long latencyMs) {
+        allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationFailureAndLatency(long latencyMs) {
+        allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordResetLatency(long latencyMs) {
+    }
+
+    @Override
+    public void recordDestroyLatency(long latencyMs) {
+    }
+
+    @Override
+    public void recordRecycled() {
+    }
+
+    @Override
+    public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+    }
+
+    @Override
+    public void recordIdleTime(long millisecondsIdle) {
+    }
+
+    @Override
+    public void recordSlowPath() {
+    }
+
+    @Override
+    public void recordFastPath() {
+    }
+
+    private static Timer acquireTimer(MeterRegistry meterRegistry, String poolName, String outcome) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Время ожидания соединения из пула")
+                .tag("name", poolName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer allocationTimer(MeterRegistry meterRegistry, String poolName, String outcome) {
+        return Timer.builder("r2dbc.pool.allocation")
+                .description("Время установления нового соединения с базой")
+                .tag("name", poolName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
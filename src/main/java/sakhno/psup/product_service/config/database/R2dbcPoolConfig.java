@@ -0,0 +1,153 @@
+package sakhno.psup.product_service.config.database;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Пулы соединений R2DBC. Заменяют пул автоконфигурации Spring Boot, чтобы размер пула зависел от числа ядер
+ * и ожидаемой конкурентности, а время получения соединения попадало в метрики.
+ * <p>
+ * Максимальный размер, если он не задан явно, равен большему из удвоенного числа ядер и
+ * {@code database.pool.expected-concurrency}; минимальное число свободных соединений по умолчанию равно числу ядер.
+ * Эти соединения создаются при старте ({@link ConnectionPoolWarmUpRunner}), поэтому первые запросы после
+ * развертывания не тратят время на подключение к базе.
+ * <p>
+ * При {@code database.replica.enabled=true} создается второй пул к реплике с теми же настройками, а репозитории
+ * получают {@link ReadReplicaRoutingConnectionFactory}, которая направляет на реплику отмеченное чтение.
+ */
+@Configuration
+@Slf4j
+public class R2dbcPoolConfig {
+    public static final String PRIMARY_POOL_NAME = "primaryConnectionFactory";
+    public static final String REPLICA_POOL_NAME = "replicaConnectionFactory";
+    private static final String REPLICA_CIRCUIT_BREAKER_NAME = "database-replica";
+    private final int maxSize;
+    private final int expectedConcurrency;
+    private final int minIdle;
+    private final Duration maxIdleTime;
+    private final Duration maxLifeTime;
+    private final Duration maxAcquireTime;
+    private final Duration maxCreateConnectionTime;
+    private final Duration evictionInterval;
+
+    public R2dbcPoolConfig(@Value("${database.pool.max-size:0}") int maxSize,
+                           @Value("${database.pool.expected-concurrency:0}") int expectedConcurrency,
+                           @Value("${database.pool.min-idle:0}") int minIdle,
+                           @Value("${database.pool.max-idle-time:10m}") Duration maxIdleTime,
+                           @Value("${database.pool.max-life-time:30m}") Duration maxLifeTime,
+                           @Value("${database.pool.max-acquire-time:1s}") Duration maxAcquireTime,
+                           @Value("${database.pool.max-create-connection-time:5s}") Duration maxCreateConnectionTime,
+                           @Value("${database.pool.eviction-interval:30s}") Duration evictionInterval) {
+        this.maxSize = maxSize;
+        this.expectedConcurrency = expectedConcurrency;
+        this.minIdle = minIdle;
+        this.maxIdleTime = maxIdleTime;
+        this.maxLifeTime = maxLifeTime;
+        this.maxAcquireTime = maxAcquireTime;
+        this.maxCreateConnectionTime = maxCreateConnectionTime;
+        this.evictionInterval = evictionInterval;
+    }
+
+    @Bean(name = PRIMARY_POOL_NAME, destroyMethod = "dispose")
+    public ConnectionPool primaryConnectionFactory(@Value("${spring.r2dbc.url}") String url,
+                                                   @Value("${spring.r2dbc.username:}") String username,
+                                                   @Value("${spring.r2dbc.password:}") String password,
+                                                   MeterRegistry meterRegistry) {
+        return createPool(PRIMARY_POOL_NAME, url, username, password, meterRegistry);
+    }
+
+    @Bean(name = REPLICA_POOL_NAME, destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "database.replica.enabled", havingValue = "true")
+    public ConnectionPool replicaConnectionFactory(@Value("${database.replica.url}") String url,
+                                                   @Value("${database.replica.username:${spring.r2dbc.username:}}") String username,
+                                                   @Value("${database.replica.password:${spring.r2dbc.password:}}") String password,
+                                                   MeterRegistry meterRegistry) {
+        return createPool(REPLICA_POOL_NAME, url, username, password, meterRegistry);
+    }
+
+    /**
+     * Фабрика соединений для репозиториев и транзакций. Без реплики все соединения берутся из пула основной базы
+     */
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(@Qualifier(PRIMARY_POOL_NAME) ConnectionPool primary,
+                                               @Qualifier(REPLICA_POOL_NAME) ObjectProvider<ConnectionPool> replica,
+                                               CircuitBreakerRegistry circuitBreakerRegistry,
+                                               MeterRegistry meterRegistry) {
+        ConnectionPool replicaPool = replica.getIfAvailable();
+        if (replicaPool != null) {
+            log.info("Отмеченное чтение направляется на реплику базы");
+        }
+        return new ReadReplicaRoutingConnectionFactory(primary, replicaPool,
+                circuitBreakerRegistry.circuitBreaker(REPLICA_CIRCUIT_BREAKER_NAME), meterRegistry);
+    }
+
+    /**
+     * Метод создает пул соединений
+     * @param name - название пула, используется как тег метрик
+     * @param url - адрес базы
+     * @param username - пользователь
+     * @param password - пароль
+     * @param meterRegistry - реестр метрик
+     * @return - пул соединений
+     */
+    private ConnectionPool createPool(String name, String url, String username, String password,
+                                      MeterRegistry meterRegistry) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        int cores = Runtime.getRuntime().availableProcessors();
+        int poolMaxSize = resolveMaxSize(maxSize, expectedConcurrency, cores);
+        int poolMinIdle = resolveMinIdle(minIdle, poolMaxSize, cores);
+        log.info("Пул соединений {}: ядер {}, минимум свободных {}, максимум {}", name, cores, poolMinIdle, poolMaxSize);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(name)
+                .initialSize(poolMinIdle)
+                .minIdle(poolMinIdle)
+                .maxSize(poolMaxSize)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .maxAcquireTime(maxAcquireTime)
+                .maxCreateConnectionTime(maxCreateConnectionTime)
+                .backgroundEvictionInterval(evictionInterval)
+                .metricsRecorder(new MicrometerPoolMetricsRecorder(meterRegistry, name))
+                .build());
+    }
+
+    /**
+     * Метод определяет максимальный размер пула
+     * @param configured - размер из настроек, 0 для расчета
+     * @param expectedConcurrency - ожидаемое число одновременных обращений к базе
+     * @param cores - число ядер
+     * @return - максимальный размер пула
+     */
+    static int resolveMaxSize(int configured, int expectedConcurrency, int cores) {
+        return configured > 0 ? configured : Math.max(cores * 2, expectedConcurrency);
+    }
+
+    /**
+     * Метод определяет минимальное число свободных соединений, которые создаются при старте
+     * @param configured - значение из настроек, 0 для расчета
+     * @param maxSize - максимальный размер пула
+     * @param cores - число ядер
+     * @return - минимальное число свободных соединений
+     */
+    static int resolveMinIdle(int configured, int maxSize, int cores) {
+        return Math.min(configured > 0 ? configured : cores, maxSize);
+    }
+}
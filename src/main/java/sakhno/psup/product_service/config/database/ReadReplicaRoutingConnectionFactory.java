@@ -0,0 +1,94 @@
+package sakhno.psup.product_service.config.database;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Фабрика соединений, направляющая чтение на реплику базы. Соединение с репликой выдается, только если в Reactor
+ * Context операции установлен признак {@link #READ_ONLY_KEY} (см. {@link #readOnly(Context)}); запись, транзакции
+ * и чтение без признака выполняются на основной базе. Без реплики все соединения берутся из основной базы.
+ * <p>
+ * Получение соединения с репликой проходит через выключатель resilience4j {@code database-replica}. Если реплика
+ * недоступна или выключатель открыт, соединение берется из основной базы, а в метрике
+ * {@code r2dbc.replica.fallback} учитывается переключение.
+ */
+@Slf4j
+public class ReadReplicaRoutingConnectionFactory implements ConnectionFactory {
+    public static final String READ_ONLY_KEY = "database.read-only";
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter fallbackCounter;
+
+    /**
+     * @param primary - фабрика соединений основной базы
+     * @param replica - фабрика соединений реплики, null если реплика не настроена
+     * @param circuitBreaker - выключатель реплики
+     * @param meterRegistry - реестр метрик
+     */
+    public ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica,
+                                               CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackCounter = Counter.builder("r2dbc.replica.fallback")
+                .description("Количество чтений, переключенных с недоступной реплики на основную базу")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Метод отмечает операцию как чтение, которое можно выполнить на реплике
+     * @param context - контекст операции
+     * @return - контекст с признаком чтения
+     */
+    public static Context readOnly(Context context) {
+        return context.put(READ_ONLY_KEY, true);
+    }
+
+    /**
+     * Метод проверяет, отмечена ли операция как чтение
+     * @param context - контекст операции
+     * @return - признак чтения
+     */
+    public static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY_KEY, false);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> replica != null && isReadOnly(context)
+                ? replicaConnection()
+                : Mono.<Connection>from(primary.create()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    /**
+     * Метод получает соединение с репликой, а при ее недоступности - с основной базой
+     * @return - соединение
+     */
+    private Mono<Connection> replicaConnection() {
+        return Mono.<Connection>from(replica.create())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(ex -> {
+                    if (!(ex instanceof CallNotPermittedException)) {
+                        log.warn("Реплика базы недоступна, чтение выполняется на основной базе: {}", ex.getMessage());
+                    }
+                    fallbackCounter.increment();
+                    return Mono.<Connection>from(primary.create());
+                });
+    }
+}
@@ -3,6 +3,7 @@ package sakhno.psup.product_service.config.exception;
 import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,9 +12,11 @@ import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.dto.ResponseDto;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
 import sakhno.psup.product_service.exceptions.all.DuplicateEntityException;
 import sakhno.psup.product_service.exceptions.all.EntitiesNotFoundException;
 import sakhno.psup.product_service.exceptions.all.EntityNotFoundException;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
 
 import java.util.stream.Collectors;
 
@@ -50,6 +53,17 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseDto.validation(errors)));
     }
 
+    /**
+     * Метод обрабатывает ошибки разбора курсора страницы
+     * @param ex - исключение некорректного курсора
+     * @return - ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(InvalidPageCursorException.class)
+    public Mono<ResponseEntity<ResponseDto<Object>>> handleInvalidPageCursorException(InvalidPageCursorException ex) {
+        log.warn("Передан некорректный курсор страницы: {}", ex.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseDto.validation(ex.getMessage())));
+    }
+
     /**
      * Метод обрабатывает ошибки валидации ограничений при записи в базу данных
      * @param ex - ошибка при записи в базу
@@ -62,6 +76,18 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(ResponseDto.error(message)));
     }
 
+    /**
+     * Метод обрабатывает нарушения ограничений целостности, преобразованные Spring из ошибок драйвера R2DBC
+     * @param ex - ошибка при записи в базу
+     * @return - ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public Mono<ResponseEntity<ResponseDto<Object>>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        log.error("Возникла ошибка при запросе в базу: {}", ex.getMessage());
+        String message = "Нарушение ограничения целостности данных: " + ex.getMostSpecificCause().getMessage();
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(ResponseDto.error(message)));
+    }
+
     /**
      * Метод обрабатывает исключения при дублировании записи
      * @param ex - исключение дублирования
@@ -94,4 +120,15 @@ public class GlobalExceptionHandler {
         log.warn("Записи не найдены в базе: {}", ex.getMessage());
         return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ResponseDto.fail(ex.getMessage())));
     }
+
+    /**
+     * Метод обрабатывает исключения при недоступности базы данных
+     * @param ex - исключение недоступности базы
+     * @return - ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public Mono<ResponseEntity<ResponseDto<Object>>> handleDatabaseUnavailableException(DatabaseUnavailableException ex) {
+        log.error("База данных недоступна: {}", ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ResponseDto.error(ex.getMessage())));
+    }
 }
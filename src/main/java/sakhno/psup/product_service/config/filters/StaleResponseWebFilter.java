@@ -0,0 +1,47 @@
+package sakhno.psup.product_service.config.filters;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.services.cache.StaleResponseMarker;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Фильтр помечает ответы, собранные из последних известных значений при недоступности базы. Для каждого запроса
+ * в контекст Reactor-а кладется {@link StaleResponseMarker}; если перед отправкой ответа он отмечен, добавляются
+ * заголовки {@link StaleResponseMarker#STALE_HEADER} и {@code Age}, а валидаторы условного запроса удаляются,
+ * чтобы клиент не закэшировал устаревшие данные под актуальной версией каталога.
+ */
+@Component
+public class StaleResponseWebFilter implements WebFilter {
+
+    /**
+     * Метод фильтрации, который вызывается для каждого HTTP-запроса.
+     *
+     * @param exchange - текущий HTTP-запрос/ответ.
+     * @param chain - цепочка фильтров, по которой должен пройти запрос.
+     * @return Mono<Void> - реактивный поток, сигнализирующий об окончании обработки запроса.
+     */
+    @Override
+    public @NonNull Mono<Void> filter(ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        StaleResponseMarker marker = new StaleResponseMarker();
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> marker.getOldestLoadedAt()
+                .ifPresent(loadedAt -> {
+                    HttpHeaders headers = exchange.getResponse().getHeaders();
+                    long age = Math.max(0, Duration.between(loadedAt, Instant.now()).toSeconds());
+                    headers.set(StaleResponseMarker.STALE_HEADER, "true");
+                    headers.set(HttpHeaders.AGE, String.valueOf(age));
+                    headers.remove(HttpHeaders.ETAG);
+                    headers.remove(HttpHeaders.LAST_MODIFIED);
+                    headers.setCacheControl("no-store");
+                })));
+        return chain.filter(exchange)
+                .contextWrite(ctx -> ctx.put(StaleResponseMarker.CONTEXT_KEY, marker));
+    }
+}
@@ -0,0 +1,151 @@
+package sakhno.psup.product_service.config.redis;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Сериализатор значений Redis с выбираемым форматом и необязательным сжатием LZ4.
+ * <p>
+ * Формат значения: байт-маркер {@link #MAGIC}, байт с идентификатором формата (старший бит — признак сжатия),
+ * для сжатых значений 4 байта исходной длины, далее данные. Значение в JSON без сжатия записывается без заголовка,
+ * чтобы его могли прочитать экземпляры предыдущих версий. Значения без маркера читаются как JSON.
+ * <p>
+ * Сжатие ({@code cache.redis.compression-threshold}) и формат, отличный от JSON ({@code cache.redis.codec}),
+ * по умолчанию выключены: экземпляры предыдущих версий не читают значения с заголовком. Включать их следует
+ * отдельным выкатыванием, после того как все экземпляры обновлены до версии с этим сериализатором.
+ *
+ * @param <T> - тип значения
+ */
+public class CodecRedisSerializer<T> implements RedisSerializer<T> {
+    private static final byte MAGIC = (byte) 0xC5;
+    private static final byte COMPRESSED_FLAG = (byte) 0x80;
+    private static final int HEADER_LENGTH = 2;
+    private static final int LENGTH_FIELD = Integer.BYTES;
+    private static final int MAX_COMPRESSION_RATIO = 255;
+    private static final int MAX_DECOMPRESSED_LENGTH = 64 * 1024 * 1024;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+    private final JavaType type;
+    private final Map<RedisValueCodec, ObjectMapper> objectMappers;
+    private final RedisValueCodec codec;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    /**
+     * @param type - тип значения
+     * @param objectMappers - ObjectMapper для каждого формата
+     * @param codec - формат записи
+     * @param compressionThreshold - минимальный размер данных в байтах для сжатия, 0 отключает сжатие
+     */
+    public CodecRedisSerializer(JavaType type, Map<RedisValueCodec, ObjectMapper> objectMappers,
+                                RedisValueCodec codec, int compressionThreshold) {
+        this.type = type;
+        this.objectMappers = objectMappers;
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] payload = write(value);
+        boolean compress = compressionThreshold > 0 && payload.length >= compressionThreshold;
+        if (!compress && codec == RedisValueCodec.JSON) {
+            return payload;
+        }
+        if (!compress) {
+            byte[] result = new byte[HEADER_LENGTH + payload.length];
+            result[0] = MAGIC;
+            result[1] = codec.getId();
+            System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+            return result;
+        }
+        int offset = HEADER_LENGTH + LENGTH_FIELD;
+        int maxLength = compressor.maxCompressedLength(payload.length);
+        byte[] result = new byte[offset + maxLength];
+        result[0] = MAGIC;
+        result[1] = (byte) (codec.getId() | COMPRESSED_FLAG);
+        ByteBuffer.wrap(result, HEADER_LENGTH, LENGTH_FIELD).putInt(payload.length);
+        int compressedLength = compressor.compress(payload, 0, payload.length, result, offset, maxLength);
+        return Arrays.copyOf(result, offset + compressedLength);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return read(RedisValueCodec.JSON, bytes, 0, bytes.length);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Значение в Redis короче заголовка: " + bytes.length + " байт");
+        }
+        RedisValueCodec valueCodec = RedisValueCodec.fromId((byte) (bytes[1] & ~COMPRESSED_FLAG));
+        if ((bytes[1] & COMPRESSED_FLAG) == 0) {
+            return read(valueCodec, bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        }
+        byte[] payload = decompress(bytes);
+        return read(valueCodec, payload, 0, payload.length);
+    }
+
+    /**
+     * Метод распаковывает сжатое значение декомпрессором с проверкой границ. Исходная длина из заголовка проверяется до выделения буфера: она
+     * не может превышать {@link #MAX_DECOMPRESSED_LENGTH} и предел сжатия LZ4 для оставшихся данных
+     * @param bytes - значение с заголовком
+     * @return - распакованные данные
+     * @throws SerializationException - если значение обрезано, повреждено или длина в заголовке недопустима
+     */
+    private byte[] decompress(byte[] bytes) {
+        int offset = HEADER_LENGTH + LENGTH_FIELD;
+        if (bytes.length <= offset) {
+            throw new SerializationException("Сжатое значение в Redis обрезано: " + bytes.length + " байт");
+        }
+        int compressedLength = bytes.length - offset;
+        int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, LENGTH_FIELD).getInt();
+        if (length <= 0 || length > MAX_DECOMPRESSED_LENGTH
+                || (long) compressedLength * MAX_COMPRESSION_RATIO < length) {
+            throw new SerializationException("Недопустимая длина сжатого значения в Redis: " + length);
+        }
+        byte[] payload = new byte[length];
+        try {
+            int decompressed = decompressor.decompress(bytes, offset, compressedLength, payload, 0, length);
+            if (decompressed != length) {
+                throw new SerializationException("Сжатое значение в Redis повреждено: распаковано " + decompressed
+                        + " из " + length + " байт");
+            }
+        } catch (LZ4Exception ex) {
+            throw new SerializationException("Не удалось распаковать значение в Redis", ex);
+        }
+        return payload;
+    }
+
+    private byte[] write(T value) {
+        try {
+            return objectMappers.get(codec).writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Не удалось сериализовать значение в формат " + codec, ex);
+        }
+    }
+
+    private T read(RedisValueCodec valueCodec, byte[] bytes, int offset, int length) {
+        try {
+            return objectMappers.get(valueCodec).readValue(bytes, offset, length, type);
+        } catch (IOException ex) {
+            throw new SerializationException("Не удалось десериализовать значение из формата " + valueCodec, ex);
+        }
+    }
+}
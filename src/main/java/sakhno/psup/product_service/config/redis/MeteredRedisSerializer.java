@@ -0,0 +1,50 @@
+package sakhno.psup.product_service.config.redis;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Сериализатор-обертка, публикующий размер значений Redis в метрику {@code cache.redis.payload.size}
+ * с тегами {@code cache} и {@code direction} (read, write)
+ *
+ * @param <T> - тип значения
+ */
+public class MeteredRedisSerializer<T> implements RedisSerializer<T> {
+    private final RedisSerializer<T> delegate;
+    private final DistributionSummary readSize;
+    private final DistributionSummary writeSize;
+
+    public MeteredRedisSerializer(RedisSerializer<T> delegate, MeterRegistry meterRegistry, String cacheName) {
+        this.delegate = delegate;
+        this.readSize = payloadSize(meterRegistry, cacheName, "read");
+        this.writeSize = payloadSize(meterRegistry, cacheName, "write");
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            writeSize.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            readSize.record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    private static DistributionSummary payloadSize(MeterRegistry meterRegistry, String cacheName, String direction) {
+        return DistributionSummary.builder("cache.redis.payload.size")
+                .description("Размер значений в Redis")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
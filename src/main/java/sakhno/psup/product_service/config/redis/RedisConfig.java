@@ -4,34 +4,69 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class RedisConfig {
+    private final RedisValueCodec codec;
+    private final int compressionThreshold;
+
+    public RedisConfig(@Value("${cache.redis.codec:json}") RedisValueCodec codec,
+                       @Value("${cache.redis.compression-threshold:0}") int compressionThreshold) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
 
     @Bean
     public ReactiveRedisTemplate<String, CategoryDto> categoryRedisTemplate(
-            ReactiveRedisConnectionFactory factory, @Qualifier("objectMapperForRedis") ObjectMapper objectMapperForRedis) {
+            ReactiveRedisConnectionFactory factory, @Qualifier("objectMapperForRedis") ObjectMapper objectMapperForRedis,
+            MeterRegistry meterRegistry) {
 
-        Jackson2JsonRedisSerializer<CategoryDto> serializer =
-                new Jackson2JsonRedisSerializer<>(objectMapperForRedis, CategoryDto.class);
+        RedisSerializer<CategoryDto> serializer =
+                codecSerializer(objectMapperForRedis, CategoryDto.class, meterRegistry, "category");
         RedisSerializationContext<String, CategoryDto> context =
                 RedisSerializationContext.<String, CategoryDto>newSerializationContext(new StringRedisSerializer())
                         .value(serializer)
+                        .hashKey(new StringRedisSerializer())
+                        .hashValue(serializer)
                         .build();
         return new ReactiveRedisTemplate<>(factory, context);
     }
 
+    @Bean
+    public ReactiveRedisTemplate<String, SubcategoryDto> subcategoryRedisTemplate(
+            ReactiveRedisConnectionFactory factory, @Qualifier("objectMapperForRedis") ObjectMapper objectMapperForRedis,
+            MeterRegistry meterRegistry) {
+
+        RedisSerializer<SubcategoryDto> serializer =
+                codecSerializer(objectMapperForRedis, SubcategoryDto.class, meterRegistry, "subcategory");
+        RedisSerializationContext<String, SubcategoryDto> context =
+                RedisSerializationContext.<String, SubcategoryDto>newSerializationContext(new StringRedisSerializer())
+                        .value(serializer)
+                        .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    /**
+     * Шаблон для устаревшего формата списка категорий (JSON-массив под одним ключом).
+     * Используется только для миграции в хэш категорий
+     */
     @Bean
     public ReactiveRedisTemplate<String, List<CategoryDto>> categoriesRedisTemplate(
             ReactiveRedisConnectionFactory factory, @Qualifier("objectMapperForRedis") ObjectMapper objectMapperForRedis) {
@@ -55,4 +90,26 @@ public class RedisConfig {
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
+    /**
+     * Метод создает сериализатор значений в формате из настройки {@code cache.redis.codec}. Для JSON используется
+     * общий ObjectMapper для Redis, для бинарных форматов - ObjectMapper с теми же настройками. Размер значений
+     * публикуется в метрики
+     * @param objectMapperForRedis - ObjectMapper для JSON
+     * @param type - класс значения
+     * @param meterRegistry - реестр метрик
+     * @param cacheName - название кэша для тега метрик
+     * @return - сериализатор значений
+     */
+    private <T> RedisSerializer<T> codecSerializer(ObjectMapper objectMapperForRedis, Class<T> type,
+                                                   MeterRegistry meterRegistry, String cacheName) {
+        Map<RedisValueCodec, ObjectMapper> objectMappers = new EnumMap<>(RedisValueCodec.class);
+        for (RedisValueCodec valueCodec : RedisValueCodec.values()) {
+            objectMappers.put(valueCodec, valueCodec == RedisValueCodec.JSON
+                    ? objectMapperForRedis
+                    : valueCodec.createObjectMapper());
+        }
+        CodecRedisSerializer<T> serializer = new CodecRedisSerializer<>(objectMapperForRedis.constructType(type),
+                objectMappers, codec, compressionThreshold);
+        return new MeteredRedisSerializer<>(serializer, meterRegistry, cacheName);
+    }
 }
@@ -0,0 +1,55 @@
+package sakhno.psup.product_service.config.redis;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.Getter;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Формат значений в Redis. Идентификатор формата записывается в заголовок значения, поэтому экземпляры
+ * с разными настройками формата могут одновременно читать данные друг друга.
+ */
+@Getter
+public enum RedisValueCodec {
+    JSON((byte) 1, JsonFactory::new),
+    SMILE((byte) 2, SmileFactory::new),
+    CBOR((byte) 3, CBORFactory::new);
+
+    private final byte id;
+    private final Supplier<JsonFactory> factorySupplier;
+
+    RedisValueCodec(byte id, Supplier<JsonFactory> factorySupplier) {
+        this.id = id;
+        this.factorySupplier = factorySupplier;
+    }
+
+    /**
+     * Метод создает ObjectMapper для формата с теми же настройками, что и JSON для Redis
+     * @return - ObjectMapper формата
+     */
+    public ObjectMapper createObjectMapper() {
+        return new ObjectMapper(factorySupplier.get())
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Метод позволяет найти формат по идентификатору из заголовка значения
+     * @param id - идентификатор формата
+     * @return - формат
+     * @throws SerializationException - если формат с таким идентификатором неизвестен
+     */
+    public static RedisValueCodec fromId(byte id) {
+        return Arrays.stream(values())
+                .filter(codec -> codec.id == id)
+                .findFirst()
+                .orElseThrow(() -> new SerializationException("Неизвестный формат значения в Redis: " + id));
+    }
+}
@@ -5,16 +5,30 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.dto.ResponseDto;
+import sakhno.psup.product_service.dto.bulk.BulkDeleteDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.category.CategoryBatchDto;
+import sakhno.psup.product_service.dto.category.CategoryBulkSaveDto;
+import sakhno.psup.product_service.dto.category.CategoryBulkUpdateDto;
 import sakhno.psup.product_service.dto.category.CategoryDto;
 import sakhno.psup.product_service.dto.category.CategorySaveDto;
 import sakhno.psup.product_service.dto.category.CategoryUpdateDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.services.cache.CatalogVersion;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.ResponseBodyCache;
 import sakhno.psup.product_service.services.category.CategoryService;
+import sakhno.psup.product_service.utils.ConditionalRequestUtils;
 
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
@@ -23,6 +37,8 @@ import java.util.List;
 @Slf4j
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseBodyCache responseBodyCache;
 
     @GetMapping("/category/{id}")
     private Mono<ResponseEntity<ResponseDto<CategoryDto>>> getCategoryBy(
@@ -36,10 +52,10 @@ public class CategoryController {
                         .body(ResponseDto.empty("Категория +" + id + " не найдена")));
     }
 
-    @GetMapping
-    private Mono<ResponseEntity<ResponseDto<List<CategoryDto>>>> getAllCategories() {
-        return categoryService.getAll()
-                .doFirst(() -> log.info("Запрос на получение всех категорий продукции"))
+    @PostMapping("/batch")
+    private Mono<ResponseEntity<ResponseDto<List<CategoryDto>>>> getCategoriesBy(@RequestBody @Valid CategoryBatchDto categoryBatchDto) {
+        return categoryService.getByIds(categoryBatchDto.getIds())
+                .doFirst(() -> log.info("Запрос на получение {} категорий по идентификаторам", categoryBatchDto.getIds().size()))
                 .collectList()
                 .filter(list -> !list.isEmpty())
                 .map(ResponseDto::ok)
@@ -49,6 +65,35 @@ public class CategoryController {
                         .body(ResponseDto.empty("Категории не найдены")));
     }
 
+    @GetMapping
+    private Mono<ResponseEntity<Object>> getAllCategories(ServerWebExchange exchange) {
+        Optional<CatalogVersion> catalogVersion = catalogVersionService.current();
+        return ConditionalRequestUtils.withCatalogVersion(catalogVersion, exchange, () -> responseBodyCache
+                .get("categories", catalogVersion, MediaType.APPLICATION_JSON, exchange.getResponse().bufferFactory(),
+                        () -> categoryService.getAll()
+                                .doFirst(() -> log.info("Запрос на получение всех категорий продукции"))
+                                .collectList()
+                                .filter(list -> !list.isEmpty())
+                                .map(ResponseDto::ok))
+                .map(body -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .<Object>body(body))
+                .defaultIfEmpty(ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(ResponseDto.empty("Категории не найдены"))));
+    }
+
+    @GetMapping("/page")
+    private Mono<ResponseEntity<ResponseDto<PageDto<CategoryDto>>>> getCategoriesPage(
+            @RequestParam(required = false) @Positive(message = "Размер страницы должен быть положительным") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "ID") PageSort sort) {
+        return categoryService.getPage(limit, cursor, sort)
+                .doFirst(() -> log.info("Запрос на получение страницы категорий, сортировка: {}", sort))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
     @PostMapping("/category")
     private Mono<ResponseEntity<ResponseDto<CategoryDto>>> saveCategory(@RequestBody @Valid CategorySaveDto categorySaveDto) {
         return categoryService.save(categorySaveDto)
@@ -60,6 +105,15 @@ public class CategoryController {
                         .body(ResponseDto.fail("Категорию не удалось сохранить")));
     }
 
+    @PostMapping("/bulk")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> saveCategories(
+            @RequestBody @Valid CategoryBulkSaveDto categoryBulkSaveDto) {
+        return categoryService.saveAll(categoryBulkSaveDto.getCategories())
+                .doFirst(() -> log.info("Запрос на пакетное сохранение {} категорий", categoryBulkSaveDto.getCategories().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
     @PutMapping("/category")
     private Mono<ResponseEntity<ResponseDto<CategoryDto>>> updateCategory(@RequestBody @Valid CategoryUpdateDto categoryUpdateDto) {
         return categoryService.update(categoryUpdateDto)
@@ -71,6 +125,15 @@ public class CategoryController {
                         .body(ResponseDto.fail("Категорию не удалось обновить")));
     }
 
+    @PutMapping("/bulk")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> updateCategories(
+            @RequestBody @Valid CategoryBulkUpdateDto categoryBulkUpdateDto) {
+        return categoryService.updateAll(categoryBulkUpdateDto.getCategories())
+                .doFirst(() -> log.info("Запрос на пакетное обновление {} категорий", categoryBulkUpdateDto.getCategories().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
     @DeleteMapping("/category/{id}")
     private Mono<ResponseEntity<ResponseDto<Boolean>>> deleteCategory(
             @PathVariable @Positive(message = "Идентификатор категории должен быть положительным") Long id) {
@@ -80,4 +143,13 @@ public class CategoryController {
                 .map(ResponseEntity::ok);
     }
 
+    @PostMapping("/bulk/delete")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> deleteCategories(
+            @RequestBody @Valid BulkDeleteDto bulkDeleteDto) {
+        return categoryService.deleteAll(bulkDeleteDto.getIds())
+                .doFirst(() -> log.info("Запрос на пакетное удаление {} категорий", bulkDeleteDto.getIds().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
 }
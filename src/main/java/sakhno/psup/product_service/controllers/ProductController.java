@@ -1,21 +1,58 @@
 package sakhno.psup.product_service.controllers;
 
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.ResponseDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
 import sakhno.psup.product_service.models.ProductEntity;
 import sakhno.psup.product_service.services.product.ProductService;
+import sakhno.psup.product_service.utils.StreamingBodyEncoder;
 
 @RestController
 @RequestMapping("api/v1/product-service/products")
 @RequiredArgsConstructor
+@Slf4j
 public class ProductController {
     private final ProductService productService;
+    private final StreamingBodyEncoder streamingBodyEncoder;
 
     @GetMapping
     public Flux<ProductEntity> getAllProducts(){
         return productService.getAllProducts();
     }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> streamAllProductsAsNdjson(ServerWebExchange exchange) {
+        return streamingBodyEncoder.encode(productService.streamAllProducts(), MediaType.APPLICATION_NDJSON,
+                exchange.getResponse().bufferFactory());
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<DataBuffer> streamAllProductsAsEvents(ServerWebExchange exchange) {
+        return streamingBodyEncoder.encode(productService.streamAllProducts(), MediaType.TEXT_EVENT_STREAM,
+                exchange.getResponse().bufferFactory());
+    }
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<ResponseDto<PageDto<ProductEntity>>>> getProductsPage(
+            @RequestParam(required = false) @Positive(message = "Размер страницы должен быть положительным") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "ID") PageSort sort) {
+        return productService.getPage(limit, cursor, sort)
+                .doFirst(() -> log.info("Запрос на получение страницы продуктов, сортировка: {}", sort))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
 }
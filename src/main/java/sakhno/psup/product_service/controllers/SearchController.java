@@ -0,0 +1,41 @@
+package sakhno.psup.product_service.controllers;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.ResponseDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+import sakhno.psup.product_service.services.search.SearchService;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("api/v1/product-service/search")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchController {
+    private final SearchService searchService;
+
+    @GetMapping
+    public Mono<ResponseEntity<ResponseDto<PageDto<SearchResultDto>>>> search(
+            @RequestParam @NotBlank(message = "Поисковый запрос не может быть пустым")
+            @Size(max = 200, message = "Поисковый запрос не может быть длиннее 200 символов") String q,
+            @RequestParam(required = false) Set<SearchItemType> types,
+            @RequestParam(required = false) @Positive(message = "Размер страницы должен быть положительным") Integer limit,
+            @RequestParam(required = false) String cursor) {
+        return searchService.search(q, types, limit, cursor)
+                .doFirst(() -> log.info("Запрос на поиск по каталогу, типы: {}", types))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+}
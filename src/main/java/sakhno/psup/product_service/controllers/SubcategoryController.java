@@ -4,18 +4,32 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.dto.ResponseDto;
+import sakhno.psup.product_service.dto.bulk.BulkDeleteDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
 import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryBulkSaveDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryBulkUpdateDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategorySaveDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryUpdateDto;
+import sakhno.psup.product_service.services.cache.CatalogVersion;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.ResponseBodyCache;
 import sakhno.psup.product_service.services.subcategory.SubcategoryService;
+import sakhno.psup.product_service.utils.ConditionalRequestUtils;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/v1/product-service/subcategories")
@@ -23,6 +37,8 @@ import java.util.List;
 @Slf4j
 public class SubcategoryController {
     private final SubcategoryService subcategoryService;
+    private final CatalogVersionService catalogVersionService;
+    private final ResponseBodyCache responseBodyCache;
 
     @GetMapping("/subcategory/{id}")
     private Mono<ResponseEntity<ResponseDto<SubcategoryDto>>> getSubcategoryBy(
@@ -34,22 +50,44 @@ public class SubcategoryController {
     }
 
     @GetMapping
-    private Mono<ResponseEntity<ResponseDto<List<SubcategoryDto>>>> getAllSubcategories() {
-        return subcategoryService.getAll()
-                .doFirst(() -> log.info("Запрос на получение всех подкатегорий продукции"))
-                .collectList()
+    private Mono<ResponseEntity<DataBuffer>> getAllSubcategories(ServerWebExchange exchange) {
+        Optional<CatalogVersion> catalogVersion = catalogVersionService.current();
+        return ConditionalRequestUtils.withCatalogVersion(catalogVersion, exchange, () -> responseBodyCache
+                .get("subcategories", catalogVersion, MediaType.APPLICATION_JSON, exchange.getResponse().bufferFactory(),
+                        () -> subcategoryService.getAll()
+                                .doFirst(() -> log.info("Запрос на получение всех подкатегорий продукции"))
+                                .collectList()
+                                .map(ResponseDto::ok))
+                .map(body -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body)));
+    }
+
+    @GetMapping("/page")
+    private Mono<ResponseEntity<ResponseDto<PageDto<SubcategoryDto>>>> getSubcategoriesPage(
+            @RequestParam(required = false) @Positive(message = "Размер страницы должен быть положительным") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "ID") PageSort sort) {
+        return subcategoryService.getPage(limit, cursor, sort)
+                .doFirst(() -> log.info("Запрос на получение страницы подкатегорий, сортировка: {}", sort))
                 .map(ResponseDto::ok)
                 .map(ResponseEntity::ok);
     }
 
     @GetMapping("/category/{id}")
-    private Mono<ResponseEntity<ResponseDto<List<SubcategoryDto>>>> getSubcategoriesByCategory(
-            @PathVariable @Positive(message = "Идентификатор категории должен быть положительным") Long id) {
-        return subcategoryService.getByCategoryId(id)
-                .doFirst(() -> log.info("Запрос на получение подкатегорий по идентификатору категории: {}", id))
-                .collectList()
-                .map(ResponseDto::ok)
-                .map(ResponseEntity::ok);
+    private Mono<ResponseEntity<DataBuffer>> getSubcategoriesByCategory(
+            @PathVariable @Positive(message = "Идентификатор категории должен быть положительным") Long id,
+            ServerWebExchange exchange) {
+        Optional<CatalogVersion> catalogVersion = catalogVersionService.current();
+        return ConditionalRequestUtils.withCatalogVersion(catalogVersion, exchange, () -> responseBodyCache
+                .get("subcategories:category:" + id, catalogVersion, MediaType.APPLICATION_JSON, exchange.getResponse().bufferFactory(),
+                        () -> subcategoryService.getByCategoryId(id)
+                                .doFirst(() -> log.info("Запрос на получение подкатегорий по идентификатору категории: {}", id))
+                                .collectList()
+                                .map(ResponseDto::ok))
+                .map(body -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body)));
     }
 
     @PostMapping("/subcategory")
@@ -61,6 +99,15 @@ public class SubcategoryController {
                 .map(ResponseEntity::ok);
     }
 
+    @PostMapping("/bulk")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> saveSubcategories(
+            @RequestBody @Valid SubcategoryBulkSaveDto subcategoryBulkSaveDto) {
+        return subcategoryService.saveAll(subcategoryBulkSaveDto.getSubcategories())
+                .doFirst(() -> log.info("Запрос на пакетное сохранение {} подкатегорий", subcategoryBulkSaveDto.getSubcategories().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
     @PutMapping("/subcategory")
     private Mono<ResponseEntity<ResponseDto<SubcategoryDto>>> updateSubcategory(
             @RequestBody @Valid SubcategoryUpdateDto subcategoryUpdateDto) {
@@ -70,6 +117,15 @@ public class SubcategoryController {
                 .map(ResponseEntity::ok);
     }
 
+    @PutMapping("/bulk")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> updateSubcategories(
+            @RequestBody @Valid SubcategoryBulkUpdateDto subcategoryBulkUpdateDto) {
+        return subcategoryService.updateAll(subcategoryBulkUpdateDto.getSubcategories())
+                .doFirst(() -> log.info("Запрос на пакетное обновление {} подкатегорий", subcategoryBulkUpdateDto.getSubcategories().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
+
     @DeleteMapping("/subcategory/{id}")
     private Mono<ResponseEntity<ResponseDto<Boolean>>> deleteSubcategory(
             @PathVariable @Positive(message = "Идентификатор подкатегории должен быть положительным") Long id) {
@@ -78,4 +134,13 @@ public class SubcategoryController {
                 .map(ResponseDto::ok)
                 .map(ResponseEntity::ok);
     }
+
+    @PostMapping("/bulk/delete")
+    private Mono<ResponseEntity<ResponseDto<List<BulkItemResultDto>>>> deleteSubcategories(
+            @RequestBody @Valid BulkDeleteDto bulkDeleteDto) {
+        return subcategoryService.deleteAll(bulkDeleteDto.getIds())
+                .doFirst(() -> log.info("Запрос на пакетное удаление {} подкатегорий", bulkDeleteDto.getIds().size()))
+                .map(ResponseDto::ok)
+                .map(ResponseEntity::ok);
+    }
 }
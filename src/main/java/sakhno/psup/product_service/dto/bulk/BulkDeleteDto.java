@@ -0,0 +1,26 @@
+package sakhno.psup.product_service.dto.bulk;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Объект необходим для удаления нескольких записей за один запрос
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkDeleteDto {
+    @NotEmpty(message = "Список идентификаторов не может быть пустым")
+    @Size(max = 1000, message = "Список идентификаторов должен содержать не более 1000 элементов")
+    private List<@NotNull(message = "Идентификатор не может быть пустым")
+            @Positive(message = "Идентификатор должен быть положительным") Long> ids;
+}
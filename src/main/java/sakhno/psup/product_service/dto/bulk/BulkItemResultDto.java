@@ -0,0 +1,78 @@
+package sakhno.psup.product_service.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат обработки одного элемента пакетной операции. Элементы ответа идут в том же порядке, что и в запросе
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkItemResultDto {
+    private Integer index;
+    private String name;
+    private Long id;
+    private BulkItemStatus status;
+    private String message;
+
+    /**
+     * Метод создает результат для созданной записи
+     * @param index - позиция элемента в запросе
+     * @param name - название записи
+     * @param id - идентификатор созданной записи
+     * @return - результат элемента
+     */
+    public static BulkItemResultDto created(int index, String name, Long id) {
+        return new BulkItemResultDto(index, name, id, BulkItemStatus.CREATED, null);
+    }
+
+    /**
+     * Метод создает результат для измененной записи
+     * @param index - позиция элемента в запросе
+     * @param name - название записи после изменения
+     * @param id - идентификатор записи
+     * @return - результат элемента
+     */
+    public static BulkItemResultDto updated(int index, String name, Long id) {
+        return new BulkItemResultDto(index, name, id, BulkItemStatus.UPDATED, null);
+    }
+
+    /**
+     * Метод создает результат для удаленной записи
+     * @param index - позиция элемента в запросе
+     * @param id - идентификатор записи
+     * @return - результат элемента
+     */
+    public static BulkItemResultDto deleted(int index, Long id) {
+        return new BulkItemResultDto(index, null, id, BulkItemStatus.DELETED, null);
+    }
+
+    /**
+     * Метод создает результат для отклоненного элемента
+     * @param index - позиция элемента в запросе
+     * @param name - название записи
+     * @param status - причина отказа
+     * @param message - сообщение об ошибке
+     * @return - результат элемента
+     */
+    public static BulkItemResultDto rejected(int index, String name, BulkItemStatus status, String message) {
+        return rejected(index, name, null, status, message);
+    }
+
+    /**
+     * Метод создает результат для отклоненного элемента, который ссылается на запись по идентификатору
+     * @param index - позиция элемента в запросе
+     * @param name - название записи
+     * @param id - идентификатор записи из запроса
+     * @param status - причина отказа
+     * @param message - сообщение об ошибке
+     * @return - результат элемента
+     */
+    public static BulkItemResultDto rejected(int index, String name, Long id, BulkItemStatus status, String message) {
+        return new BulkItemResultDto(index, name, id, status, message);
+    }
+}
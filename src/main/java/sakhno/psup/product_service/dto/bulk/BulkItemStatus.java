@@ -0,0 +1,35 @@
+package sakhno.psup.product_service.dto.bulk;
+
+/**
+ * Результат обработки элемента пакетной операции
+ */
+public enum BulkItemStatus {
+    /**
+     * Запись создана
+     */
+    CREATED,
+    /**
+     * Запись изменена
+     */
+    UPDATED,
+    /**
+     * Запись удалена
+     */
+    DELETED,
+    /**
+     * Запись с таким именем уже существует в базе, либо имя или идентификатор повторяется в запросе
+     */
+    DUPLICATE,
+    /**
+     * Категория, указанная для подкатегории, не найдена
+     */
+    CATEGORY_NOT_FOUND,
+    /**
+     * Запись с указанным идентификатором не найдена
+     */
+    NOT_FOUND,
+    /**
+     * Категорию нельзя удалить, пока у нее есть подкатегории
+     */
+    HAS_SUBCATEGORIES
+}
@@ -0,0 +1,26 @@
+package sakhno.psup.product_service.dto.category;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Объект необходим для получения нескольких категорий за один запрос
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryBatchDto {
+    @NotEmpty(message = "Список идентификаторов категорий не может быть пустым")
+    @Size(max = 500, message = "Список идентификаторов категорий должен содержать не более 500 элементов")
+    private List<@NotNull(message = "Идентификатор категории не может быть пустым")
+            @Positive(message = "Идентификатор категории должен быть положительным") Long> ids;
+}
@@ -0,0 +1,25 @@
+package sakhno.psup.product_service.dto.category;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Объект необходим для сохранения нескольких категорий за один запрос
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryBulkSaveDto {
+    @NotEmpty(message = "Список категорий не может быть пустым")
+    @Size(max = 1000, message = "Список категорий должен содержать не более 1000 элементов")
+    private List<@NotNull(message = "Категория не может быть пустой") @Valid CategorySaveDto> categories;
+}
@@ -0,0 +1,24 @@
+package sakhno.psup.product_service.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница записей. Для получения следующей страницы нужно передать {@code nextCursor} в параметре {@code cursor}
+ * с тем же порядком сортировки; на последней странице {@code nextCursor} отсутствует
+ *
+ * @param <T> - тип записи
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDto<T> {
+    private List<T> items;
+    private Integer limit;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package sakhno.psup.product_service.dto.page;
+
+import lombok.Getter;
+
+/**
+ * Порядок записей при постраничном чтении
+ */
+@Getter
+public enum PageSort {
+    ID("По идентификатору"),
+    NAME("По названию");
+
+    private final String description;
+
+    PageSort(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,19 @@
+package sakhno.psup.product_service.dto.search;
+
+import lombok.Getter;
+
+/**
+ * Тип записи в результатах поиска по каталогу
+ */
+@Getter
+public enum SearchItemType {
+    CATEGORY("Категория"),
+    SUBCATEGORY("Подкатегория"),
+    PRODUCT("Продукт");
+
+    private final String description;
+
+    SearchItemType(String description) {
+        this.description = description;
+    }
+}
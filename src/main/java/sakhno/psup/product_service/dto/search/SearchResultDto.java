@@ -0,0 +1,21 @@
+package sakhno.psup.product_service.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Запись результата поиска по каталогу. Чем больше {@code rank}, тем лучше запись соответствует запросу
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchResultDto {
+    private SearchItemType type;
+    private Long id;
+    private String name;
+    private String description;
+    private Float rank;
+}
@@ -0,0 +1,25 @@
+package sakhno.psup.product_service.dto.subcategory;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Объект содержит данные для сохранения нескольких подкатегорий за один запрос
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubcategoryBulkSaveDto {
+    @NotEmpty(message = "Список подкатегорий не может быть пустым")
+    @Size(max = 1000, message = "Список подкатегорий должен содержать не более 1000 элементов")
+    private List<@NotNull(message = "Подкатегория не может быть пустой") @Valid SubcategorySaveDto> subcategories;
+}
@@ -0,0 +1,13 @@
+package sakhno.psup.product_service.exceptions.all;
+
+import lombok.Getter;
+
+@Getter
+public class DatabaseUnavailableException extends RuntimeException {
+    private final String message;
+
+    public DatabaseUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+        this.message = message;
+    }
+}
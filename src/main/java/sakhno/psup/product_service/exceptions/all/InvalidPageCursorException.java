@@ -0,0 +1,13 @@
+package sakhno.psup.product_service.exceptions.all;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidPageCursorException extends RuntimeException {
+    private final String message;
+
+    public InvalidPageCursorException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
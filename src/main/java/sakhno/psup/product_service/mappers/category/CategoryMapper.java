@@ -53,6 +53,13 @@ public interface CategoryMapper {
      */
     CategorySimpleDto mapToCategorySimpleDto(CategoryEntity category);
 
+    /**
+     * Метод преобразует DTO категории в облегченную DTO
+     * @param category - DTO категории
+     * @return - облегченная DTO категории
+     */
+    CategorySimpleDto mapCategoryDtoToSimpleDto(CategoryDto category);
+
     //TODO: удалить после интеграции с пользовательским сервисом
     @Named("getStaticUserId")
     default Long getStaticUserId() {
@@ -0,0 +1,74 @@
+package sakhno.psup.product_service.repositories;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Общая часть реализаций поиска по каталогу. Запросы по каждому типу записей объединяются через UNION ALL,
+ * результат упорядочивается по {@code (search_rank DESC, item_type, id)} и читается после позиции последней записи
+ * предыдущей страницы. Каждый запрос по типу возвращает столбцы {@code item_type, id, name, description, search_rank}
+ */
+@RequiredArgsConstructor
+abstract class AbstractCatalogSearchRepository implements CatalogSearchRepository {
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<SearchResultDto> search(String query, Set<SearchItemType> types, Float afterRank,
+                                        SearchItemType afterType, long afterId, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String matches = types.stream()
+                .sorted()
+                .map(type -> matchSql(type, query, params))
+                .collect(Collectors.joining(" UNION ALL "));
+        StringBuilder sql = new StringBuilder("SELECT item_type, id, name, description, search_rank FROM (")
+                .append(matches)
+                .append(") r");
+        if (afterRank != null) {
+            sql.append(" WHERE r.search_rank < :afterRank" +
+                    " OR (r.search_rank = :afterRank AND (r.item_type, r.id) > (:afterType, :afterId))");
+            params.put("afterRank", afterRank);
+            params.put("afterType", afterType.name());
+            params.put("afterId", afterId);
+        }
+        sql.append(" ORDER BY r.search_rank DESC, r.item_type, r.id LIMIT :limit");
+        params.put("limit", limit);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(AbstractCatalogSearchRepository::mapRow).all();
+    }
+
+    /**
+     * Метод строит запрос поиска по одному типу записей и добавляет его параметры
+     * @param type - тип записей
+     * @param query - поисковый запрос
+     * @param params - параметры запроса, общие для всех типов
+     * @return - SQL запроса по типу записей
+     */
+    protected abstract String matchSql(SearchItemType type, String query, Map<String, Object> params);
+
+    /**
+     * Метод преобразует строку результата поиска в DTO
+     * @param row - строка результата
+     * @return - DTO результата поиска
+     */
+    private static SearchResultDto mapRow(Readable row) {
+        return SearchResultDto.builder()
+                .type(SearchItemType.valueOf(row.get("item_type", String.class)))
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .rank(row.get("search_rank", Float.class))
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package sakhno.psup.product_service.repositories;
+
+import reactor.core.publisher.Flux;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+
+import java.util.Set;
+
+/**
+ * Поиск по названиям и описаниям категорий, подкатегорий и продуктов. Реализация выбирается настройкой
+ * {@code search.engine}: полнотекстовый поиск Postgres ({@code postgres}) или поиск по подстроке для H2 ({@code like})
+ */
+public interface CatalogSearchRepository {
+
+    /**
+     * Метод позволяет найти записи каталога в порядке убывания релевантности
+     * @param query - поисковый запрос
+     * @param types - типы записей для поиска
+     * @param afterRank - релевантность последней записи предыдущей страницы, null для первой страницы
+     * @param afterType - тип последней записи предыдущей страницы
+     * @param afterId - идентификатор последней записи предыдущей страницы
+     * @param limit - количество записей
+     * @return - найденные записи после переданной позиции
+     */
+    Flux<SearchResultDto> search(String query, Set<SearchItemType> types, Float afterRank, SearchItemType afterType,
+                                 long afterId, int limit);
+}
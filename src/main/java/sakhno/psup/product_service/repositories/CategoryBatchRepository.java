@@ -0,0 +1,39 @@
+package sakhno.psup.product_service.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.models.CategoryEntity;
+
+import java.util.List;
+
+/**
+ * Запись категорий через DatabaseClient: пакетные вставка и изменение, изменение одной категории одним запросом
+ */
+public interface CategoryBatchRepository {
+
+    /**
+     * Метод позволяет вставить категории одним пакетным запросом. Для каждой категории передается свой набор
+     * параметров, все наборы отправляются в базу вместе. Если база вернула не по одному идентификатору на строку,
+     * выбрасывается {@link org.springframework.dao.IncorrectResultSizeDataAccessException}, и транзакция откатывается
+     * @param categories - категории для вставки
+     * @return - вставленные категории с идентификаторами в порядке передачи
+     */
+    Flux<CategoryEntity> insertAll(List<CategoryEntity> categories);
+
+    /**
+     * Метод позволяет изменить категории одним запросом UPDATE ... FROM (VALUES ...). Изменяются название, описание
+     * и сведения о последнем изменении. Если изменено другое количество строк, чем передано категорий, выбрасывается
+     * {@link org.springframework.dao.IncorrectResultSizeDataAccessException}, и транзакция откатывается
+     * @param categories - категории с новыми значениями
+     * @return - измененные категории в порядке передачи
+     */
+    Flux<CategoryEntity> updateAll(List<CategoryEntity> categories);
+
+    /**
+     * Метод позволяет изменить категорию одним запросом UPDATE по идентификатору. Дата и автор создания возвращаются
+     * тем же запросом, поэтому предварительное чтение записи не требуется
+     * @param category - категория с новыми значениями
+     * @return - измененная категория или пустой результат, если записи с таким идентификатором нет
+     */
+    Mono<CategoryEntity> updateById(CategoryEntity category);
+}
@@ -0,0 +1,116 @@
+package sakhno.psup.product_service.repositories;
+
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.models.CategoryEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class CategoryBatchRepositoryImpl implements CategoryBatchRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO categories (name, description, created_date, created_user_id)
+            VALUES ($1, $2, $3, $4)""";
+    private static final String UPDATE_SQL = """
+            UPDATE categories AS c
+            SET name = v.name, description = v.description, updated_date = v.updated_date,
+                updated_user_id = v.updated_user_id
+            FROM (VALUES %s) AS v(id, name, description, updated_date, updated_user_id)
+            WHERE c.id = v.id""";
+    private static final String UPDATE_ROW = "(CAST($%d AS BIGINT), CAST($%d AS VARCHAR), CAST($%d AS VARCHAR), "
+            + "CAST($%d AS TIMESTAMP), CAST($%d AS BIGINT))";
+    private static final int UPDATE_COLUMNS = 5;
+    private static final String UPDATE_BY_ID_SQL = """
+            UPDATE categories
+            SET name = :name, description = :description, updated_date = :updatedDate,
+                updated_user_id = :updatedUserId
+            WHERE id = :id""";
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<CategoryEntity> insertAll(List<CategoryEntity> categories) {
+        if (categories.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("id");
+            for (int i = 0; i < categories.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                CategoryEntity category = categories.get(i);
+                statement.bind(0, category.getName())
+                        .bind(1, category.getDescription())
+                        .bind(2, category.getCreatedDate())
+                        .bind(3, category.getCreatedUserId());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                    .collectList()
+                    .flatMapMany(ids -> {
+                        if (ids.size() != categories.size()) {
+                            return Flux.error(new IncorrectResultSizeDataAccessException(
+                                    "Количество сгенерированных идентификаторов не совпадает с количеством вставленных строк",
+                                    categories.size(), ids.size()));
+                        }
+                        for (int i = 0; i < ids.size(); i++) {
+                            categories.get(i).setId(ids.get(i));
+                        }
+                        return Flux.fromIterable(categories);
+                    });
+        });
+    }
+
+    @Override
+    public Flux<CategoryEntity> updateAll(List<CategoryEntity> categories) {
+        if (categories.isEmpty()) {
+            return Flux.empty();
+        }
+        String rows = IntStream.range(0, categories.size())
+                .mapToObj(i -> UPDATE_ROW.formatted(IntStream.rangeClosed(1, UPDATE_COLUMNS)
+                        .mapToObj(column -> i * UPDATE_COLUMNS + column)
+                        .toArray()))
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_SQL.formatted(rows));
+        for (int i = 0; i < categories.size(); i++) {
+            CategoryEntity category = categories.get(i);
+            int offset = i * UPDATE_COLUMNS;
+            spec = spec.bind(offset, category.getId())
+                    .bind(offset + 1, category.getName())
+                    .bind(offset + 2, category.getDescription())
+                    .bind(offset + 3, category.getUpdatedDate())
+                    .bind(offset + 4, category.getUpdatedUserId());
+        }
+        return spec.fetch()
+                .rowsUpdated()
+                .flatMapMany(updated -> updated == categories.size()
+                        ? Flux.fromIterable(categories)
+                        : Flux.error(new IncorrectResultSizeDataAccessException(
+                                "Количество измененных строк не совпадает с количеством категорий",
+                                categories.size(), updated.intValue())));
+    }
+
+    @Override
+    public Mono<CategoryEntity> updateById(CategoryEntity category) {
+        return databaseClient.sql(UPDATE_BY_ID_SQL)
+                .bind("id", category.getId())
+                .bind("name", category.getName())
+                .bind("description", category.getDescription())
+                .bind("updatedDate", category.getUpdatedDate())
+                .bind("updatedUserId", category.getUpdatedUserId())
+                .filter(statement -> statement.returnGeneratedValues("created_date", "created_user_id"))
+                .map(row -> {
+                    category.setCreatedDate(row.get("created_date", LocalDateTime.class));
+                    category.setCreatedUserId(row.get("created_user_id", Long.class));
+                    return category;
+                })
+                .one();
+    }
+}
@@ -1,24 +1,90 @@
 package sakhno.psup.product_service.repositories;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.models.CategoryEntity;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 @Repository
-public interface CategoryRepository extends ReactiveCrudRepository<CategoryEntity, Long> {
+public interface CategoryRepository extends ReactiveCrudRepository<CategoryEntity, Long>, CategoryBatchRepository {
+    /**
+     * Метод позволяет одним запросом найти, какие из переданных названий уже заняты
+     * @param names - названия категорий
+     * @return - существующие названия
+     */
+    @Query("SELECT name FROM categories WHERE name IN (:names)")
+    Flux<String> findExistingNames(Collection<String> names);
+
+    /**
+     * Метод позволяет одним запросом найти категории с переданными названиями
+     * @param names - названия категорий
+     * @return - найденные категории
+     */
+    Flux<CategoryEntity> findByNameIn(Collection<String> names);
+
+    /**
+     * Метод позволяет найти существующие идентификаторы и заблокировать эти строки до конца транзакции
+     * @param ids - идентификаторы категорий
+     * @return - идентификаторы существующих категорий
+     */
+    @Query("SELECT id FROM categories WHERE id IN (:ids) FOR UPDATE")
+    Flux<Long> lockExistingIds(Collection<Long> ids);
+
+    /**
+     * Метод позволяет одним запросом найти, у каких из переданных категорий есть подкатегории
+     * @param ids - идентификаторы категорий
+     * @return - идентификаторы категорий, у которых есть подкатегории
+     */
+    @Query("SELECT DISTINCT category_id FROM subcategories WHERE category_id IN (:ids)")
+    Flux<Long> findIdsWithSubcategories(Collection<Long> ids);
+
+    /**
+     * Метод позволяет удалить категорию по идентификатору одним запросом
+     * @param id - идентификатор
+     * @return - количество удаленных строк, 0 если записи не было
+     */
+    @Modifying
+    @Query("DELETE FROM categories WHERE id = :id")
+    Mono<Integer> removeById(Long id);
+
+    /**
+     * Метод позволяет удалить категории по идентификаторам одним запросом
+     * @param ids - идентификаторы
+     * @return - количество удаленных строк
+     */
+    @Modifying
+    @Query("DELETE FROM categories WHERE id IN (:ids)")
+    Mono<Integer> removeAllById(Collection<Long> ids);
+
+    /**
+     * Метод позволяет получить дату последнего изменения среди всех категорий
+     * @return - максимальная дата изменения или создания
+     */
+    @Query("SELECT MAX(COALESCE(updated_date, created_date)) FROM categories")
+    Mono<LocalDateTime> findLastModifiedDate();
+
     /**
-     * Метод позволяет найти категорию по названию
-     * @param name - название категории
-     * @return - сущность категории
+     * Метод позволяет получить страницу категорий в порядке идентификаторов
+     * @param afterId - идентификатор последней категории предыдущей страницы
+     * @param limit - количество категорий
+     * @return - категории с идентификатором больше переданного
      */
-    Mono<CategoryEntity> findByName(String name);
+    @Query("SELECT * FROM categories WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<CategoryEntity> findPageOrderById(long afterId, int limit);
 
     /**
-     * Метод позволяет найти категорию по названию не учитывая переданный идентификатору
-     * @param name - название категории
-     * @param id - идентификатор категории
-     * @return - сущность категории
+     * Метод позволяет получить страницу категорий в порядке названий. Название категории уникально,
+     * поэтому выборка идет по уникальному индексу названия без идентификатора
+     * @param afterName - название последней категории предыдущей страницы
+     * @param limit - количество категорий
+     * @return - категории с названием больше переданного
      */
-    Mono<CategoryEntity> findByNameAndIdNot(String name, Long id);
+    @Query("SELECT * FROM categories WHERE name > :afterName ORDER BY name LIMIT :limit")
+    Flux<CategoryEntity> findPageOrderByName(String afterName, int limit);
 }
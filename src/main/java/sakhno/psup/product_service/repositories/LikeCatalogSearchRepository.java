@@ -0,0 +1,90 @@
+package sakhno.psup.product_service.repositories;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Поиск по подстроке для баз без полнотекстового поиска (H2). Каждое слово запроса должно встречаться в названии
+ * или описании записи без учета регистра; релевантность - доля слов, найденных в названии (слово из описания
+ * учитывается с половинным весом). Индексы не используются, реализация предназначена для тестов и локального запуска
+ */
+@Repository
+@ConditionalOnProperty(name = "search.engine", havingValue = "like")
+public class LikeCatalogSearchRepository extends AbstractCatalogSearchRepository {
+    private static final int MAX_TERMS = 8;
+    private static final String LIKE = " LIKE :%s ESCAPE '\\'";
+
+    public LikeCatalogSearchRepository(DatabaseClient databaseClient) {
+        super(databaseClient);
+    }
+
+    @Override
+    protected String matchSql(SearchItemType type, String query, Map<String, Object> params) {
+        List<String> terms = bindTerms(query, params);
+        return switch (type) {
+            case CATEGORY -> matchSql(type, "categories", "description", "LOWER(description)", terms);
+            case SUBCATEGORY -> matchSql(type, "subcategories", "description", "LOWER(description)", terms);
+            case PRODUCT -> matchSql(type, "products", "CAST(NULL AS VARCHAR)", null, terms);
+        };
+    }
+
+    /**
+     * Метод строит запрос поиска по таблице
+     * @param type - тип записей
+     * @param table - таблица
+     * @param description - выражение описания в результате
+     * @param searchableDescription - выражение описания для поиска, null если описания нет
+     * @param terms - названия параметров со словами запроса
+     * @return - SQL запроса по таблице
+     */
+    private static String matchSql(SearchItemType type, String table, String description, String searchableDescription,
+                                   List<String> terms) {
+        List<String> rank = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (String term : terms) {
+            String inName = "LOWER(COALESCE(name, ''))" + LIKE.formatted(term);
+            rank.add("CASE WHEN " + inName + " THEN 1.0 ELSE 0.5 END");
+            conditions.add(searchableDescription == null
+                    ? inName
+                    : "(" + inName + " OR " + searchableDescription + LIKE.formatted(term) + ")");
+        }
+        return "SELECT '" + type.name() + "' AS item_type, id, name, " + description + " AS description, " +
+                "CAST((" + String.join(" + ", rank) + ") / " + terms.size() + " AS REAL) AS search_rank " +
+                "FROM " + table + " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Метод разбивает запрос на слова и добавляет их шаблоны LIKE в параметры запроса
+     * @param query - поисковый запрос
+     * @param params - параметры запроса
+     * @return - названия параметров со словами запроса
+     */
+    private static List<String> bindTerms(String query, Map<String, Object> params) {
+        List<String> words = Arrays.stream(query.toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .toList();
+        List<String> terms = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            String term = "term" + i;
+            params.put(term, "%" + escape(words.get(i)) + "%");
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    private static String escape(String word) {
+        return word.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
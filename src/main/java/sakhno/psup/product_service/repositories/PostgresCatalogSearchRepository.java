@@ -0,0 +1,37 @@
+package sakhno.psup.product_service.repositories;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+
+import java.util.Map;
+
+/**
+ * Полнотекстовый поиск Postgres. Запрос разбирается функцией {@code websearch_to_tsquery} со словарем
+ * {@code russian} и сравнивается со столбцами {@code search_vector} (название с весом A, описание с весом B),
+ * по которым построены GIN-индексы. Релевантность вычисляется функцией {@code ts_rank}
+ */
+@Repository
+@ConditionalOnProperty(name = "search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresCatalogSearchRepository extends AbstractCatalogSearchRepository {
+    private static final String MATCH_SQL = """
+            SELECT '%s' AS item_type, id, name, %s AS description,
+                   ts_rank(search_vector, websearch_to_tsquery('russian', :query)) AS search_rank
+            FROM %s
+            WHERE search_vector @@ websearch_to_tsquery('russian', :query)""";
+
+    public PostgresCatalogSearchRepository(DatabaseClient databaseClient) {
+        super(databaseClient);
+    }
+
+    @Override
+    protected String matchSql(SearchItemType type, String query, Map<String, Object> params) {
+        params.put("query", query);
+        return switch (type) {
+            case CATEGORY -> MATCH_SQL.formatted(type.name(), "description", "categories");
+            case SUBCATEGORY -> MATCH_SQL.formatted(type.name(), "description", "subcategories");
+            case PRODUCT -> MATCH_SQL.formatted(type.name(), "CAST(NULL AS VARCHAR)", "products");
+        };
+    }
+}
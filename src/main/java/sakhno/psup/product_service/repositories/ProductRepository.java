@@ -1,7 +1,29 @@
 package sakhno.psup.product_service.repositories;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import sakhno.psup.product_service.models.ProductEntity;
 
-public interface ProductRepository extends ReactiveCrudRepository<ProductEntity, Long> {
+public interface ProductRepository extends ReactiveCrudRepository<ProductEntity, Long>, ProductStreamRepository {
+
+    /**
+     * Метод позволяет получить страницу продуктов в порядке идентификаторов
+     * @param afterId - идентификатор последнего продукта предыдущей страницы
+     * @param limit - количество продуктов
+     * @return - продукты с идентификатором больше переданного
+     */
+    @Query("SELECT * FROM products WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<ProductEntity> findPageOrderById(long afterId, int limit);
+
+    /**
+     * Метод позволяет получить страницу продуктов в порядке названий. Продукты без названия идут первыми
+     * @param afterName - название последнего продукта предыдущей страницы
+     * @param afterId - идентификатор последнего продукта предыдущей страницы
+     * @param limit - количество продуктов
+     * @return - продукты после переданной позиции
+     */
+    @Query("SELECT * FROM products WHERE (COALESCE(name, ''), id) > (:afterName, :afterId) " +
+            "ORDER BY COALESCE(name, ''), id LIMIT :limit")
+    Flux<ProductEntity> findPageOrderByName(String afterName, long afterId, int limit);
 }
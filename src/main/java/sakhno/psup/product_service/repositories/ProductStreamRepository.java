@@ -0,0 +1,18 @@
+package sakhno.psup.product_service.repositories;
+
+import reactor.core.publisher.Flux;
+import sakhno.psup.product_service.models.ProductEntity;
+
+/**
+ * Потоковое чтение продуктов без загрузки всей таблицы в память
+ */
+public interface ProductStreamRepository {
+
+    /**
+     * Метод позволяет прочитать все продукты потоком в порядке идентификаторов. Строки запрашиваются у базы
+     * порциями по {@code fetchSize}; отмена подписки закрывает курсор и возвращает соединение в пул
+     * @param fetchSize - количество строк, запрашиваемых у базы за один раз
+     * @return - поток продуктов
+     */
+    Flux<ProductEntity> streamAll(int fetchSize);
+}
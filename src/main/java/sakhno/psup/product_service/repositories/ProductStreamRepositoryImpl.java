@@ -0,0 +1,22 @@
+package sakhno.psup.product_service.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import sakhno.psup.product_service.models.ProductEntity;
+
+@RequiredArgsConstructor
+public class ProductStreamRepositoryImpl implements ProductStreamRepository {
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<ProductEntity> streamAll(int fetchSize) {
+        return databaseClient.sql("SELECT id, name FROM products ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> ProductEntity.builder()
+                        .id(row.get("id", Long.class))
+                        .name(row.get("name", String.class))
+                        .build())
+                .all();
+    }
+}
@@ -0,0 +1,40 @@
+package sakhno.psup.product_service.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.models.SubcategoryEntity;
+
+import java.util.List;
+
+/**
+ * Запись подкатегорий через DatabaseClient: пакетные вставка и изменение, изменение одной подкатегории одним запросом
+ */
+public interface SubcategoryBatchRepository {
+
+    /**
+     * Метод позволяет вставить подкатегории одним пакетным запросом. Для каждой подкатегории передается свой набор
+     * параметров, все наборы отправляются в базу вместе. Если база вернула не по одному идентификатору на строку,
+     * выбрасывается {@link org.springframework.dao.IncorrectResultSizeDataAccessException}, и транзакция откатывается
+     * @param subcategories - подкатегории для вставки
+     * @return - вставленные подкатегории с идентификаторами в порядке передачи
+     */
+    Flux<SubcategoryEntity> insertAll(List<SubcategoryEntity> subcategories);
+
+    /**
+     * Метод позволяет изменить подкатегории одним запросом UPDATE ... FROM (VALUES ...). Изменяются название,
+     * описание, категория и сведения о последнем изменении. Если изменено другое количество строк, чем передано
+     * подкатегорий, выбрасывается {@link org.springframework.dao.IncorrectResultSizeDataAccessException},
+     * и транзакция откатывается
+     * @param subcategories - подкатегории с новыми значениями
+     * @return - измененные подкатегории в порядке передачи
+     */
+    Flux<SubcategoryEntity> updateAll(List<SubcategoryEntity> subcategories);
+
+    /**
+     * Метод позволяет изменить подкатегорию одним запросом UPDATE по идентификатору. Дата и автор создания возвращаются
+     * тем же запросом, поэтому предварительное чтение записи не требуется
+     * @param subcategory - подкатегория с новыми значениями
+     * @return - измененная подкатегория или пустой результат, если записи с таким идентификатором нет
+     */
+    Mono<SubcategoryEntity> updateById(SubcategoryEntity subcategory);
+}
@@ -0,0 +1,119 @@
+package sakhno.psup.product_service.repositories;
+
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.models.SubcategoryEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class SubcategoryBatchRepositoryImpl implements SubcategoryBatchRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO subcategories (name, description, category_id, created_date, created_user_id)
+            VALUES ($1, $2, $3, $4, $5)""";
+    private static final String UPDATE_SQL = """
+            UPDATE subcategories AS s
+            SET name = v.name, description = v.description, category_id = v.category_id,
+                updated_date = v.updated_date, updated_user_id = v.updated_user_id
+            FROM (VALUES %s) AS v(id, name, description, category_id, updated_date, updated_user_id)
+            WHERE s.id = v.id""";
+    private static final String UPDATE_ROW = "(CAST($%d AS BIGINT), CAST($%d AS VARCHAR), CAST($%d AS VARCHAR), "
+            + "CAST($%d AS BIGINT), CAST($%d AS TIMESTAMP), CAST($%d AS BIGINT))";
+    private static final int UPDATE_COLUMNS = 6;
+    private static final String UPDATE_BY_ID_SQL = """
+            UPDATE subcategories
+            SET name = :name, description = :description, category_id = :categoryId, updated_date = :updatedDate,
+                updated_user_id = :updatedUserId
+            WHERE id = :id""";
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<SubcategoryEntity> insertAll(List<SubcategoryEntity> subcategories) {
+        if (subcategories.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("id");
+            for (int i = 0; i < subcategories.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                SubcategoryEntity subcategory = subcategories.get(i);
+                statement.bind(0, subcategory.getName())
+                        .bind(1, subcategory.getDescription())
+                        .bind(2, subcategory.getCategoryId())
+                        .bind(3, subcategory.getCreatedDate())
+                        .bind(4, subcategory.getCreatedUserId());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                    .collectList()
+                    .flatMapMany(ids -> {
+                        if (ids.size() != subcategories.size()) {
+                            return Flux.error(new IncorrectResultSizeDataAccessException(
+                                    "Количество сгенерированных идентификаторов не совпадает с количеством вставленных строк",
+                                    subcategories.size(), ids.size()));
+                        }
+                        for (int i = 0; i < ids.size(); i++) {
+                            subcategories.get(i).setId(ids.get(i));
+                        }
+                        return Flux.fromIterable(subcategories);
+                    });
+        });
+    }
+
+    @Override
+    public Flux<SubcategoryEntity> updateAll(List<SubcategoryEntity> subcategories) {
+        if (subcategories.isEmpty()) {
+            return Flux.empty();
+        }
+        String rows = IntStream.range(0, subcategories.size())
+                .mapToObj(i -> UPDATE_ROW.formatted(IntStream.rangeClosed(1, UPDATE_COLUMNS)
+                        .mapToObj(column -> i * UPDATE_COLUMNS + column)
+                        .toArray()))
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_SQL.formatted(rows));
+        for (int i = 0; i < subcategories.size(); i++) {
+            SubcategoryEntity subcategory = subcategories.get(i);
+            int offset = i * UPDATE_COLUMNS;
+            spec = spec.bind(offset, subcategory.getId())
+                    .bind(offset + 1, subcategory.getName())
+                    .bind(offset + 2, subcategory.getDescription())
+                    .bind(offset + 3, subcategory.getCategoryId())
+                    .bind(offset + 4, subcategory.getUpdatedDate())
+                    .bind(offset + 5, subcategory.getUpdatedUserId());
+        }
+        return spec.fetch()
+                .rowsUpdated()
+                .flatMapMany(updated -> updated == subcategories.size()
+                        ? Flux.fromIterable(subcategories)
+                        : Flux.error(new IncorrectResultSizeDataAccessException(
+                                "Количество измененных строк не совпадает с количеством подкатегорий",
+                                subcategories.size(), updated.intValue())));
+    }
+
+    @Override
+    public Mono<SubcategoryEntity> updateById(SubcategoryEntity subcategory) {
+        return databaseClient.sql(UPDATE_BY_ID_SQL)
+                .bind("id", subcategory.getId())
+                .bind("name", subcategory.getName())
+                .bind("description", subcategory.getDescription())
+                .bind("categoryId", subcategory.getCategoryId())
+                .bind("updatedDate", subcategory.getUpdatedDate())
+                .bind("updatedUserId", subcategory.getUpdatedUserId())
+                .filter(statement -> statement.returnGeneratedValues("created_date", "created_user_id"))
+                .map(row -> {
+                    subcategory.setCreatedDate(row.get("created_date", LocalDateTime.class));
+                    subcategory.setCreatedUserId(row.get("created_user_id", Long.class));
+                    return subcategory;
+                })
+                .one();
+    }
+}
@@ -0,0 +1,50 @@
+package sakhno.psup.product_service.repositories;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+/**
+ * Чтение подкатегорий вместе с категорией одним запросом. Строки результата соединения подкатегорий
+ * с категориями преобразуются сразу в DTO, без промежуточных сущностей и повторного запроса категорий
+ */
+public interface SubcategoryDtoRepository {
+
+    /**
+     * Метод позволяет получить подкатегорию с категорией по идентификатору
+     * @param id - идентификатор подкатегории
+     * @return - DTO подкатегории
+     */
+    Mono<SubcategoryDto> findDtoById(Long id);
+
+    /**
+     * Метод позволяет получить все подкатегории с категориями в порядке идентификаторов
+     * @return - поток DTO подкатегорий
+     */
+    Flux<SubcategoryDto> findAllDtos();
+
+    /**
+     * Метод позволяет получить подкатегории категории в порядке идентификаторов
+     * @param categoryId - идентификатор категории
+     * @return - поток DTO подкатегорий
+     */
+    Flux<SubcategoryDto> findDtosByCategoryId(Long categoryId);
+
+    /**
+     * Метод позволяет получить страницу подкатегорий с категориями в порядке идентификаторов
+     * @param afterId - идентификатор последней подкатегории предыдущей страницы
+     * @param limit - количество подкатегорий
+     * @return - поток DTO подкатегорий с идентификатором больше переданного
+     */
+    Flux<SubcategoryDto> findPageDtosOrderById(long afterId, int limit);
+
+    /**
+     * Метод позволяет получить страницу подкатегорий с категориями в порядке названий. Названия подкатегорий разных
+     * категорий могут совпадать, поэтому порядок уточняется идентификатором
+     * @param afterName - название последней подкатегории предыдущей страницы
+     * @param afterId - идентификатор последней подкатегории предыдущей страницы
+     * @param limit - количество подкатегорий
+     * @return - поток DTO подкатегорий после переданной позиции
+     */
+    Flux<SubcategoryDto> findPageDtosOrderByName(String afterName, long afterId, int limit);
+}
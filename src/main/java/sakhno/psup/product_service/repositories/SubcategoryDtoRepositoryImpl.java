@@ -0,0 +1,83 @@
+package sakhno.psup.product_service.repositories;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategorySimpleDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class SubcategoryDtoRepositoryImpl implements SubcategoryDtoRepository {
+    private static final String SELECT_WITH_CATEGORY = """
+            SELECT s.id, s.name, s.description, s.created_date, s.updated_date, s.created_user_id, s.updated_user_id,
+                   c.id AS category_id, c.name AS category_name
+            FROM subcategories s
+            JOIN categories c ON c.id = s.category_id
+            """;
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<SubcategoryDto> findDtoById(Long id) {
+        return databaseClient.sql(SELECT_WITH_CATEGORY + "WHERE s.id = :id")
+                .bind("id", id)
+                .map(SubcategoryDtoRepositoryImpl::mapRow)
+                .one();
+    }
+
+    @Override
+    public Flux<SubcategoryDto> findAllDtos() {
+        return databaseClient.sql(SELECT_WITH_CATEGORY + "ORDER BY s.id")
+                .map(SubcategoryDtoRepositoryImpl::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<SubcategoryDto> findDtosByCategoryId(Long categoryId) {
+        return databaseClient.sql(SELECT_WITH_CATEGORY + "WHERE s.category_id = :categoryId ORDER BY s.id")
+                .bind("categoryId", categoryId)
+                .map(SubcategoryDtoRepositoryImpl::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<SubcategoryDto> findPageDtosOrderById(long afterId, int limit) {
+        return databaseClient.sql(SELECT_WITH_CATEGORY + "WHERE s.id > :afterId ORDER BY s.id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(SubcategoryDtoRepositoryImpl::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<SubcategoryDto> findPageDtosOrderByName(String afterName, long afterId, int limit) {
+        return databaseClient.sql(SELECT_WITH_CATEGORY
+                        + "WHERE (s.name, s.id) > (:afterName, :afterId) ORDER BY s.name, s.id LIMIT :limit")
+                .bind("afterName", afterName)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(SubcategoryDtoRepositoryImpl::mapRow)
+                .all();
+    }
+
+    /**
+     * Метод преобразует строку соединения подкатегории с категорией в DTO
+     * @param row - строка результата
+     * @return - DTO подкатегории
+     */
+    private static SubcategoryDto mapRow(Readable row) {
+        return SubcategoryDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .category(new CategorySimpleDto(row.get("category_id", Long.class), row.get("category_name", String.class)))
+                .createdDate(row.get("created_date", LocalDateTime.class))
+                .updatedDate(row.get("updated_date", LocalDateTime.class))
+                .createdUserId(row.get("created_user_id", Long.class))
+                .updatedUserId(row.get("updated_user_id", Long.class))
+                .build();
+    }
+}
@@ -1,13 +1,19 @@
 package sakhno.psup.product_service.repositories;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.models.SubcategoryEntity;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 @Repository
-public interface SubcategoryRepository extends ReactiveCrudRepository<SubcategoryEntity, Long> {
+public interface SubcategoryRepository extends ReactiveCrudRepository<SubcategoryEntity, Long>, SubcategoryDtoRepository,
+        SubcategoryBatchRepository {
 
     /**
      * Метод позволяет получить все подкатегории по id категории
@@ -17,16 +23,44 @@ public interface SubcategoryRepository extends ReactiveCrudRepository<Subcategor
     Flux<SubcategoryEntity> findByCategoryId(Long categoryId);
 
     /**
-     * Метод позволяет найти подкатегорию по названию и id категории
-     * @param name - название подкатегории
-     * @return - сущность подкатегории
+     * Метод позволяет одним запросом найти подкатегории с переданными названиями в переданных категориях.
+     * Результат содержит все сочетания категорий и названий, точные пары сверяются на стороне сервиса
+     * @param categoryIds - идентификаторы категорий
+     * @param names - названия подкатегорий
+     * @return - найденные подкатегории
+     */
+    Flux<SubcategoryEntity> findByCategoryIdInAndNameIn(Collection<Long> categoryIds, Collection<String> names);
+
+    /**
+     * Метод позволяет удалить подкатегорию по идентификатору одним запросом
+     * @param id - идентификатор
+     * @return - количество удаленных строк, 0 если записи не было
+     */
+    @Modifying
+    @Query("DELETE FROM subcategories WHERE id = :id")
+    Mono<Integer> removeById(Long id);
+
+    /**
+     * Метод позволяет удалить подкатегории по идентификаторам одним запросом
+     * @param ids - идентификаторы
+     * @return - количество удаленных строк
+     */
+    @Modifying
+    @Query("DELETE FROM subcategories WHERE id IN (:ids)")
+    Mono<Integer> removeAllById(Collection<Long> ids);
+
+    /**
+     * Метод позволяет найти существующие идентификаторы и заблокировать эти строки до конца транзакции
+     * @param ids - идентификаторы подкатегорий
+     * @return - идентификаторы существующих подкатегорий
      */
-    Mono<SubcategoryEntity> findByNameAndCategoryId(String name, Long categoryId);
+    @Query("SELECT id FROM subcategories WHERE id IN (:ids) FOR UPDATE")
+    Flux<Long> lockExistingIds(Collection<Long> ids);
 
     /**
-     * Метод позволяет найти подкатегорию по названию с указанной категории, исключая подкатегорию с указанным id.
-     * @param name - название подкатегории
-     * @return - сущность подкатегории
+     * Метод позволяет получить дату последнего изменения среди всех подкатегорий
+     * @return - максимальная дата изменения или создания
      */
-    Mono<SubcategoryEntity> findByNameAndIdNotAndCategoryId(String name, Long id, Long categoryId);
+    @Query("SELECT MAX(COALESCE(updated_date, created_date)) FROM subcategories")
+    Mono<LocalDateTime> findLastModifiedDate();
 }
@@ -0,0 +1,133 @@
+package sakhno.psup.product_service.services.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Компонент рассылает и принимает сообщения об инвалидации локального кэша (L1) через Redis pub/sub.
+ * Каждый экземпляр сервиса подписывается на общий канал и сбрасывает у себя записи, измененные на других узлах.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationService {
+    public static final String ALL_KEYS = "*";
+    private static final String INVALIDATION_CHANNEL = "product-service:cache-invalidation";
+    private static final String MESSAGE_SEPARATOR = "|";
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<String>> invalidators = new ConcurrentHashMap<>();
+    private final AtomicLong resubscribeAttempts = new AtomicLong();
+    private volatile Disposable subscription;
+
+    /**
+     * Метод позволяет зарегистрировать обработчик инвалидации для кэша
+     * @param cacheName - название кэша
+     * @param invalidator - обработчик, получающий ключ записи (или {@link #ALL_KEYS})
+     */
+    public void register(String cacheName, Consumer<String> invalidator) {
+        invalidators.put(cacheName, invalidator);
+    }
+
+    /**
+     * Метод позволяет оповестить остальные экземпляры сервиса об изменении записи в кэше.
+     * Ошибка публикации не прерывает операцию записи, так как локальный кэш ограничен по времени жизни
+     * @param cacheName - название кэша
+     * @param key - ключ записи
+     * @return - количество получателей сообщения
+     */
+    public Mono<Long> publish(String cacheName, String key) {
+        String message = String.join(MESSAGE_SEPARATOR, nodeId, cacheName, key);
+        return reactiveStringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message)
+                .doOnSubscribe(subscription -> log.info("Публикация инвалидации кэша {}: {}", cacheName, key))
+                .onErrorResume(ex -> {
+                    log.warn("Не удалось опубликовать инвалидацию кэша {}: {}", cacheName, ex.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * Метод подписывается на канал инвалидации после старта приложения. При потере соединения с Redis
+     * или завершении подписки без ошибки подписка восстанавливается с экспоненциальной задержкой. Задержка
+     * сбрасывается, как только восстановленная подписка получает сообщение
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        subscription = Flux.defer(() -> reactiveStringRedisTemplate.listenToChannel(INVALIDATION_CHANNEL))
+                .doOnSubscribe(s -> log.info("Подписка на канал инвалидации кэша: {}", INVALIDATION_CHANNEL))
+                .doOnNext(message -> resubscribeAttempts.set(0))
+                .repeatWhen(completions -> completions
+                        .concatMap(completion -> {
+                            log.warn("Подписка на канал инвалидации кэша завершилась, переподключение");
+                            return Mono.delay(backoff(resubscribeAttempts.getAndIncrement()));
+                        }))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_BACKOFF)
+                        .maxBackoff(MAX_BACKOFF)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Переподключение к каналу инвалидации кэша: {}",
+                                signal.failure().getMessage())))
+                .subscribe(message -> handle(message.getMessage()),
+                        ex -> log.error("Подписка на канал инвалидации кэша прекращена", ex));
+    }
+
+    /**
+     * Метод вычисляет задержку повторной подписки так же, как {@link Retry#backoff}: задержка удваивается
+     * с каждой попыткой от {@link #MIN_BACKOFF} до {@link #MAX_BACKOFF}
+     * @param attempt - номер попытки, начиная с нуля
+     * @return - задержка перед подпиской
+     */
+    private static Duration backoff(long attempt) {
+        long millis = MIN_BACKOFF.toMillis() << Math.min(attempt, 30);
+        return Duration.ofMillis(Math.min(millis, MAX_BACKOFF.toMillis()));
+    }
+
+    /**
+     * Метод отменяет подписку на канал инвалидации при остановке приложения
+     */
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Метод разбирает сообщение и передает ключ зарегистрированному обработчику.
+     * Сообщения, опубликованные текущим экземпляром, пропускаются. Ошибка обработчика записывается в лог
+     * и не прерывает подписку на канал
+     * @param message - сообщение в формате nodeId|cacheName|key
+     */
+    private void handle(String message) {
+        String[] parts = message.split("\\" + MESSAGE_SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        Consumer<String> invalidator = invalidators.get(parts[1]);
+        if (invalidator != null) {
+            log.info("Получена инвалидация кэша {}: {}", parts[1], parts[2]);
+            try {
+                invalidator.accept(parts[2]);
+            } catch (RuntimeException ex) {
+                log.warn("Не удалось обработать инвалидацию кэша {}: {}", parts[1], ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Метрики работы кэшей. Все метрики помечены тегом {@code cache} с названием кэша (совпадает с префиксом ключей
+ * в Redis) и доступны через actuator:
+ * <ul>
+ *     <li>{@code cache.lookups} - обращения к кэшу с тегами {@code source} (local, redis) и {@code result}
+ *     (hit, miss, error);</li>
+ *     <li>{@code cache.redis.latency} - время выполнения команд Redis с тегом {@code operation} (read, write);</li>
+ *     <li>{@code cache.load.duration} - время загрузки данных из базы при промахе с тегом {@code outcome}.</li>
+ * </ul>
+ * Размер значений в Redis публикуется сериализатором как {@code cache.redis.payload.size}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+    private static final String SOURCE_LOCAL = "local";
+    private static final String SOURCE_REDIS = "redis";
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Метод учитывает попадание в локальный кэш экземпляра
+     * @param cacheName - название кэша
+     */
+    public void localHit(String cacheName) {
+        lookupCounter(cacheName, SOURCE_LOCAL, "hit").increment();
+    }
+
+    /**
+     * Метод учитывает результат пакетного чтения из кэша
+     * @param cacheName - название кэша
+     * @param source - уровень кэша (local, redis)
+     * @param hits - количество найденных значений
+     * @param misses - количество ненайденных значений
+     */
+    public void recordLookups(String cacheName, String source, int hits, int misses) {
+        lookupCounter(cacheName, source, "hit").increment(hits);
+        lookupCounter(cacheName, source, "miss").increment(misses);
+    }
+
+    /**
+     * Метод измеряет пакетное чтение из Redis. Попадания и промахи учитываются вызывающим кодом
+     * через {@link #recordLookups(String, String, int, int)}
+     * @param cacheName - название кэша
+     * @param read - чтение из Redis
+     * @return - чтение из Redis с учетом метрик
+     * @param <T> - тип значения
+     */
+    public <T> Mono<T> recordRedisBatchRead(String cacheName, Mono<T> read) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return read.doFinally(signal -> sample.stop(redisTimer(cacheName, "read")));
+        });
+    }
+
+    /**
+     * Метод измеряет чтение из Redis и учитывает его результат: непустое значение - попадание, пустое - промах
+     * @param cacheName - название кэша
+     * @param read - чтение из Redis
+     * @return - чтение из Redis с учетом метрик
+     * @param <T> - тип значения
+     */
+    public <T> Mono<T> recordRedisRead(String cacheName, Mono<T> read) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return read
+                    .doOnSuccess(value -> {
+                        sample.stop(redisTimer(cacheName, "read"));
+                        lookupCounter(cacheName, SOURCE_REDIS, value != null ? "hit" : "miss").increment();
+                    })
+                    .doOnError(ex -> {
+                        sample.stop(redisTimer(cacheName, "read"));
+                        lookupCounter(cacheName, SOURCE_REDIS, "error").increment();
+                    });
+        });
+    }
+
+    /**
+     * Метод измеряет запись в Redis
+     * @param cacheName - название кэша
+     * @param write - запись в Redis
+     * @return - запись в Redis с учетом метрик
+     * @param <T> - тип результата записи
+     */
+    public <T> Mono<T> recordRedisWrite(String cacheName, Mono<T> write) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return write.doFinally(signal -> sample.stop(redisTimer(cacheName, "write")));
+        });
+    }
+
+    /**
+     * Метод измеряет загрузку данных из базы при промахе кэша
+     * @param cacheName - название кэша
+     * @param load - загрузка из базы
+     * @return - загрузка из базы с учетом метрик
+     * @param <T> - тип значения
+     */
+    public <T> Mono<T> recordLoad(String cacheName, Mono<T> load) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return load
+                    .doOnSuccess(value -> sample.stop(loadTimer(cacheName, value != null ? "success" : "empty")))
+                    .doOnError(ex -> sample.stop(loadTimer(cacheName, "error")));
+        });
+    }
+
+    private Counter lookupCounter(String cacheName, String source, String result) {
+        return Counter.builder("cache.lookups")
+                .description("Количество обращений к кэшу")
+                .tag("cache", cacheName)
+                .tag("source", source)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer redisTimer(String cacheName, String operation) {
+        return Timer.builder("cache.redis.latency")
+                .description("Время выполнения команд Redis")
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer loadTimer(String cacheName, String outcome) {
+        return Timer.builder("cache.load.duration")
+                .description("Время загрузки данных из базы при промахе кэша")
+                .tag("cache", cacheName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
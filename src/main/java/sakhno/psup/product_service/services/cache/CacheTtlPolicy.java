@@ -0,0 +1,50 @@
+package sakhno.psup.product_service.services.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Политика сроков жизни записей кэша в Redis. Жесткий срок жизни выставляется ключу через TTL и случайно
+ * смещается в пределах {@code cache.redis.ttl-jitter}, чтобы записи, загруженные одновременно, не истекали
+ * одновременно. Мягкий срок наступает за {@code cache.redis.refresh-ahead} до жесткого: после него запись
+ * еще отдается клиентам, но обновляется из базы в фоне.
+ */
+@Component
+public class CacheTtlPolicy {
+    private final Duration ttl;
+    private final double jitter;
+    private final Duration refreshAhead;
+
+    public CacheTtlPolicy(@Value("${cache.redis.ttl:1h}") Duration ttl,
+                          @Value("${cache.redis.ttl-jitter:0.1}") double jitter,
+                          @Value("${cache.redis.refresh-ahead:10m}") Duration refreshAhead) {
+        this.ttl = ttl;
+        this.jitter = jitter;
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * Метод возвращает жесткий срок жизни для новой записи со случайным смещением
+     * @return - срок жизни ключа
+     */
+    public Duration nextTtl() {
+        if (jitter <= 0) {
+            return ttl;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Duration.ofMillis((long) (ttl.toMillis() * factor));
+    }
+
+    /**
+     * Метод проверяет, истек ли мягкий срок жизни записи. Ключ без TTL (записанный предыдущей версией сервиса)
+     * считается устаревшим, чтобы фоновое обновление выставило ему срок жизни
+     * @param remaining - оставшийся срок жизни ключа, {@link Duration#ZERO} для ключа без TTL
+     * @return - признак устаревания
+     */
+    public boolean isStale(Duration remaining) {
+        return remaining.isZero() || remaining.compareTo(refreshAhead) < 0;
+    }
+}
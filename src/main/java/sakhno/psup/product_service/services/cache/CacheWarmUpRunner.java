@@ -0,0 +1,193 @@
+package sakhno.psup.product_service.services.cache;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+import sakhno.psup.product_service.mappers.category.CategoryMapper;
+import sakhno.psup.product_service.mappers.subcategory.SubcategoryMapper;
+import sakhno.psup.product_service.models.CategoryEntity;
+import sakhno.psup.product_service.models.SubcategoryEntity;
+import sakhno.psup.product_service.repositories.CategoryRepository;
+import sakhno.psup.product_service.repositories.SubcategoryRepository;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
+import sakhno.psup.product_service.services.category.CategoryCacheService;
+import sakhno.psup.product_service.services.subcategory.SubcategoryCacheService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Компонент прогревает кэш категорий и подкатегорий при старте экземпляра. Выполняется после инициализации
+ * контекста (и миграций Liquibase), но до публикации ApplicationReadyEvent, поэтому проба готовности actuator
+ * остается в состоянии REFUSING_TRAFFIC до окончания прогрева. Экземпляр регистрируется в Eureka со статусом
+ * из {@code eureka.instance.initial-status} и переводится в UP после прогрева.
+ * <p>
+ * Ошибка или превышение времени прогрева не останавливают старт: данные будут загружены из базы при первых запросах.
+ */
+@Component
+@Slf4j
+public class CacheWarmUpRunner implements ApplicationRunner {
+    private static final String CATEGORY_CACHE_NAME = "category";
+    private static final String SUBCATEGORY_CACHE_NAME = "subcategory";
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final SubcategoryMapper subcategoryMapper;
+    private final CategoryCacheService categoryCacheService;
+    private final SubcategoryCacheService subcategoryCacheService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final Map<String, AtomicLong> loadedEntries = new ConcurrentHashMap<>();
+
+    public CacheWarmUpRunner(CategoryRepository categoryRepository,
+                             SubcategoryRepository subcategoryRepository,
+                             CategoryMapper categoryMapper,
+                             SubcategoryMapper subcategoryMapper,
+                             CategoryCacheService categoryCacheService,
+                             SubcategoryCacheService subcategoryCacheService,
+                             CatalogSnapshotService catalogSnapshotService,
+                             ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${cache.warm-up.enabled:true}") boolean enabled,
+                             @Value("${cache.warm-up.timeout:30s}") Duration timeout) {
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.subcategoryMapper = subcategoryMapper;
+        this.categoryCacheService = categoryCacheService;
+        this.subcategoryCacheService = subcategoryCacheService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.applicationInfoManager = applicationInfoManager;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+        applicationInfoManager.ifAvailable(manager -> {
+            log.info("Регистрация экземпляра в Eureka со статусом UP");
+            manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+        });
+    }
+
+    /**
+     * Метод загружает все категории и подкатегории из базы и записывает их в кэш. Блокирует поток запуска
+     * приложения не дольше {@code cache.warm-up.timeout}
+     */
+    private void warmUp() {
+        log.info("Прогрев кэша категорий и подкатегорий");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Tuple2<Integer, Integer> loaded = categoryCacheService.listEpoch()
+                    .flatMap(epoch -> Mono.zip(categoryRepository.findAll().collectList(),
+                                    subcategoryRepository.findAll().collectList())
+                            .flatMap(tuple -> {
+                                List<CategoryDto> categories = mapCategories(tuple.getT1());
+                                List<SubcategoryDto> subcategories = mapSubcategories(tuple.getT1(), tuple.getT2());
+                                catalogSnapshotService.replace(categories, subcategories);
+                                return Mono.zip(categoryCacheService.warmUp(categories, epoch),
+                                        warmUpSubcategories(tuple.getT1(), tuple.getT2(), subcategories));
+                            }))
+                    .block(timeout);
+            if (loaded != null) {
+                entriesGauge(CATEGORY_CACHE_NAME).set(loaded.getT1());
+                entriesGauge(SUBCATEGORY_CACHE_NAME).set(loaded.getT2());
+                log.info("Прогрев кэша завершен: категорий {}, подкатегорий {}", loaded.getT1(), loaded.getT2());
+            }
+        } catch (RuntimeException ex) {
+            outcome = "failure";
+            log.warn("Прогрев кэша не выполнен, данные будут загружены при первых запросах: {}", ex.getMessage());
+        } finally {
+            sample.stop(Timer.builder("cache.warmup.duration")
+                    .description("Время прогрева кэша при старте экземпляра")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Метод преобразует сущности категорий в DTO
+     * @param entities - сущности категорий
+     * @return - DTO категорий
+     */
+    private List<CategoryDto> mapCategories(List<CategoryEntity> entities) {
+        return entities.stream()
+                .map(categoryMapper::mapCategoryEntityToDto)
+                .toList();
+    }
+
+    /**
+     * Метод преобразует сущности подкатегорий в DTO. Подкатегории без существующей категории пропускаются
+     * @param categories - сущности категорий
+     * @param entities - сущности подкатегорий
+     * @return - DTO подкатегорий
+     */
+    private List<SubcategoryDto> mapSubcategories(List<CategoryEntity> categories, List<SubcategoryEntity> entities) {
+        Map<Long, CategoryEntity> categoryMap = categories.stream()
+                .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+        return entities.stream()
+                .filter(subcategory -> categoryMap.containsKey(subcategory.getCategoryId()))
+                .map(subcategory -> subcategoryMapper.mapToSubCategoryDto(subcategory,
+                        categoryMap.get(subcategory.getCategoryId())))
+                .toList();
+    }
+
+    /**
+     * Метод записывает подкатегории и индексы подкатегорий всех категорий в кэш. Для категорий без подкатегорий
+     * записывается пустой индекс
+     * @param categories - сущности категорий
+     * @param entities - сущности подкатегорий
+     * @param subcategories - DTO подкатегорий
+     * @return - количество записанных подкатегорий
+     */
+    private Mono<Integer> warmUpSubcategories(List<CategoryEntity> categories, List<SubcategoryEntity> entities,
+                                              List<SubcategoryDto> subcategories) {
+        Set<Long> nonEmptyCategories = entities.stream()
+                .map(SubcategoryEntity::getCategoryId)
+                .collect(Collectors.toSet());
+        Mono<Void> emptyIndexes = Mono.when(categories.stream()
+                .filter(category -> !nonEmptyCategories.contains(category.getId()))
+                .map(category -> subcategoryCacheService.putByCategoryId(category.getId(), List.of()))
+                .toList());
+        return subcategoryCacheService.putAll(subcategories)
+                .then(emptyIndexes)
+                .thenReturn(subcategories.size());
+    }
+
+    private AtomicLong entriesGauge(String cacheName) {
+        return loadedEntries.computeIfAbsent(cacheName, name -> {
+            AtomicLong entries = new AtomicLong();
+            Gauge.builder("cache.warmup.entries", entries, AtomicLong::get)
+                    .description("Количество записей, загруженных в кэш при прогреве")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            return entries;
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package sakhno.psup.product_service.services.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Значение, прочитанное из кэша, с признаком истечения мягкого срока жизни. Устаревшее значение можно вернуть
+ * клиенту, но его нужно обновить в фоне
+ *
+ * @param <T> - тип значения
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedValue<T> {
+    private final T value;
+    private final boolean stale;
+
+    /**
+     * Метод создает значение, свежесть которого не проверяется (например, из локального кэша)
+     * @param value - значение
+     * @return - свежее значение кэша
+     * @param <T> - тип значения
+     */
+    public static <T> CachedValue<T> fresh(T value) {
+        return new CachedValue<>(value, false);
+    }
+}
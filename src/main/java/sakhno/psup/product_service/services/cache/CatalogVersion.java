@@ -0,0 +1,47 @@
+package sakhno.psup.product_service.services.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Версия каталога категорий и подкатегорий. Увеличивается при каждом изменении каталога и используется
+ * как ETag ответов со списками; время последнего изменения используется как Last-Modified
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogVersion {
+    private static final String SEPARATOR = ":";
+    private final long version;
+    private final Instant lastModified;
+
+    /**
+     * Метод возвращает значение ETag для версии каталога
+     * @return - ETag в кавычках
+     */
+    public String getETag() {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Метод преобразует версию в строку формата {@code version:lastModifiedMillis}
+     * @return - строковое представление версии
+     */
+    public String format() {
+        return version + SEPARATOR + (lastModified != null ? lastModified.toEpochMilli() : "");
+    }
+
+    /**
+     * Метод разбирает строку формата {@code version:lastModifiedMillis}
+     * @param value - строковое представление версии
+     * @return - версия каталога
+     */
+    public static CatalogVersion parse(String value) {
+        String[] parts = value.split(SEPARATOR, 2);
+        Instant lastModified = parts.length > 1 && !parts[1].isEmpty()
+                ? Instant.ofEpochMilli(Long.parseLong(parts[1]))
+                : null;
+        return new CatalogVersion(Long.parseLong(parts[0]), lastModified);
+    }
+}
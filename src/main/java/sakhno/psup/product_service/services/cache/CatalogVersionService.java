@@ -0,0 +1,223 @@
+package sakhno.psup.product_service.services.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.repositories.CategoryRepository;
+import sakhno.psup.product_service.repositories.SubcategoryRepository;
+import sakhno.psup.product_service.services.database.ReplicaReadPolicy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Компонент хранит версию каталога для условных GET-запросов. Версия хранится в Redis и увеличивается при каждом
+ * изменении категорий и подкатегорий; экземпляры сервиса узнают о новой версии через канал инвалидации кэша и
+ * дополнительно перечитывают ее из Redis с интервалом {@code cache.catalog-version.refresh-interval}.
+ * <p>
+ * Текущая версия хранится в памяти, поэтому проверка ETag не обращается ни к Redis, ни к базе. Пока Redis недоступен,
+ * версия считается неизвестной и ответы отдаются без ETag, чтобы клиенты не получили 304 для устаревших данных.
+ */
+@Component
+@Slf4j
+public class CatalogVersionService {
+    private static final String CACHE_NAME = "catalog";
+    private static final String VERSION_KEY = "catalog:version";
+    private static final String LAST_MODIFIED_KEY = "catalog:last-modified";
+    private static final RedisScript<String> BUMP_VERSION_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/bump_catalog_version.lua"), String.class);
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final RedisCacheGuard redisCacheGuard;
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final ReplicaReadPolicy replicaReadPolicy;
+    private final Duration refreshInterval;
+    private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+    private final AtomicReference<CatalogVersion> current = new AtomicReference<>();
+    private final AtomicLong observedVersion = new AtomicLong(UNKNOWN_VERSION);
+    private final List<Consumer<CatalogVersion>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Disposable refreshing;
+
+    public CatalogVersionService(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                 CacheInvalidationService cacheInvalidationService,
+                                 RedisCacheGuard redisCacheGuard,
+                                 CategoryRepository categoryRepository,
+                                 SubcategoryRepository subcategoryRepository,
+                                 ReplicaReadPolicy replicaReadPolicy,
+                                 @Value("${cache.catalog-version.refresh-interval:5s}") Duration refreshInterval) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.redisCacheGuard = redisCacheGuard;
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.replicaReadPolicy = replicaReadPolicy;
+        this.refreshInterval = refreshInterval;
+        cacheInvalidationService.register(CACHE_NAME, this::onRemoteChange);
+    }
+
+    /**
+     * Метод возвращает текущую версию каталога без обращения к Redis
+     * @return - версия каталога или пустой результат, если версия неизвестна
+     */
+    public Optional<CatalogVersion> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * Метод регистрирует обработчик изменений каталога, выполненных другими экземплярами сервиса. Обработчик
+     * вызывается при получении оповещения или при обнаружении новой версии во время периодического чтения,
+     * в том числе после восстановления связи с Redis. Обработчики вызываются до того, как новая версия становится
+     * текущей: кэши, очищенные обработчиком, не попадут в ответы и кэш тел ответов под новой версией.
+     * Изменения этого экземпляра обработчику не передаются
+     * @param listener - обработчик новой версии каталога
+     */
+    public void addRemoteChangeListener(Consumer<CatalogVersion> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Метод увеличивает версию каталога после изменения категории или подкатегории и оповещает остальные экземпляры.
+     * Чтение каталога на время окна {@link ReplicaReadPolicy} переводится на основную базу.
+     * При недоступности Redis версия на этом экземпляре сбрасывается до следующего успешного чтения; если недоступность
+     * началась после увеличения версии, оповещение откладывается до восстановления Redis
+     * @param modified - дата изменения записи, null для удаления
+     * @return - новая версия каталога
+     */
+    public Mono<CatalogVersion> bump(LocalDateTime modified) {
+        replicaReadPolicy.onCatalogChange();
+        long modifiedMillis = (modified != null ? modified : LocalDateTime.now())
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<String> args = List.of(String.valueOf(modifiedMillis), String.valueOf(System.currentTimeMillis()));
+        return redisCacheGuard.write(CACHE_NAME, reactiveStringRedisTemplate
+                        .execute(BUMP_VERSION_SCRIPT, List.of(VERSION_KEY, LAST_MODIFIED_KEY), args)
+                        .next())
+                .switchIfEmpty(Mono.fromRunnable(() -> current.set(null)))
+                .map(CatalogVersion::parse)
+                .doOnNext(this::advance)
+                .doOnNext(version -> observedVersion.compareAndSet(version.getVersion() - 1, version.getVersion()))
+                .flatMap(version -> redisCacheGuard.writeOrDefer(CACHE_NAME,
+                                () -> cacheInvalidationService.publish(CACHE_NAME, version.format()))
+                        .thenReturn(version))
+                .doOnNext(version -> log.info("Версия каталога увеличена: {}", version.getVersion()))
+                .onErrorResume(ex -> {
+                    log.warn("Не удалось увеличить версию каталога: {}", ex.getMessage());
+                    current.set(null);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Метод запускает периодическое чтение версии каталога из Redis после старта приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        refreshing = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load()
+                        .doOnNext(version -> {
+                            observe(version);
+                            current.set(version);
+                        })
+                        .onErrorResume(ex -> {
+                            if (current.getAndSet(null) != null) {
+                                log.warn("Версия каталога неизвестна, условные запросы отключены: {}", ex.getMessage());
+                            }
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Метод останавливает периодическое чтение версии каталога при остановке приложения
+     */
+    @PreDestroy
+    public void stopRefreshing() {
+        Disposable current = refreshing;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Метод читает версию каталога из Redis. Если версии еще нет, она начинается с текущего времени; если нет
+     * времени последнего изменения, оно вычисляется по датам изменения категорий и подкатегорий в базе
+     * @return - версия каталога
+     */
+    private Mono<CatalogVersion> load() {
+        Mono<String> version = reactiveStringRedisTemplate.opsForValue()
+                .setIfAbsent(VERSION_KEY, String.valueOf(System.currentTimeMillis()))
+                .then(reactiveStringRedisTemplate.opsForValue().get(VERSION_KEY));
+        Mono<String> lastModified = reactiveStringRedisTemplate.opsForValue().get(LAST_MODIFIED_KEY)
+                .switchIfEmpty(Mono.defer(this::initLastModified))
+                .defaultIfEmpty("");
+        return Mono.zip(version, lastModified)
+                .map(tuple -> CatalogVersion.parse(tuple.getT1() + ":" + tuple.getT2()));
+    }
+
+    /**
+     * Метод вычисляет время последнего изменения каталога по базе и сохраняет его в Redis
+     * @return - время последнего изменения, мс, или пустой результат для пустого каталога
+     */
+    private Mono<String> initLastModified() {
+        return Flux.merge(categoryRepository.findLastModifiedDate(), subcategoryRepository.findLastModifiedDate())
+                .reduce((first, second) -> first.isAfter(second) ? first : second)
+                .map(date -> String.valueOf(date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()))
+                .flatMap(millis -> reactiveStringRedisTemplate.opsForValue().setIfAbsent(LAST_MODIFIED_KEY, millis)
+                        .then(reactiveStringRedisTemplate.opsForValue().get(LAST_MODIFIED_KEY)));
+    }
+
+    /**
+     * Метод принимает новую версию каталога от другого экземпляра сервиса
+     * @param key - версия в формате {@code version:lastModifiedMillis} или {@link CacheInvalidationService#ALL_KEYS}
+     */
+    private void onRemoteChange(String key) {
+        replicaReadPolicy.onCatalogChange();
+        if (CacheInvalidationService.ALL_KEYS.equals(key)) {
+            current.set(null);
+            return;
+        }
+        CatalogVersion version = CatalogVersion.parse(key);
+        observe(version);
+        advance(version);
+    }
+
+    /**
+     * Метод оповещает обработчики, если версия каталога изменилась с момента последнего наблюдения.
+     * Первая прочитанная версия только запоминается. Собственное изменение экземпляра учитывается в
+     * {@link #bump(LocalDateTime)}, только если между ним и предыдущей наблюдаемой версией не было чужих изменений
+     * @param version - прочитанная или полученная версия
+     */
+    private void observe(CatalogVersion version) {
+        long previous = observedVersion.getAndAccumulate(version.getVersion(), Math::max);
+        if (previous != UNKNOWN_VERSION && version.getVersion() > previous) {
+            replicaReadPolicy.onCatalogChange();
+            listeners.forEach(listener -> listener.accept(version));
+        }
+    }
+
+    /**
+     * Метод заменяет текущую версию, если новая версия больше
+     * @param version - новая версия
+     */
+    private void advance(CatalogVersion version) {
+        current.accumulateAndGet(version, (previous, next) ->
+                previous == null || next.getVersion() > previous.getVersion() ? next : previous);
+    }
+}
@@ -0,0 +1,39 @@
+package sakhno.psup.product_service.services.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Значение, полученное через {@link StaleIfErrorCache}, с временем загрузки последнего известного значения,
+ * если база была недоступна. Признак передается вместе со значением, потому что загрузку разделяют несколько
+ * запросов, и каждый из них должен отметить устаревшим свой ответ
+ *
+ * @param <T> - тип значения
+ */
+@Getter
+@RequiredArgsConstructor
+public class LoadedValue<T> {
+    private final T value;
+    private final Instant staleLoadedAt;
+
+    /**
+     * Метод создает значение, загруженное из базы
+     * @param value - значение
+     * @return - актуальное значение
+     * @param <T> - тип значения
+     */
+    public static <T> LoadedValue<T> fresh(T value) {
+        return new LoadedValue<>(value, null);
+    }
+
+    /**
+     * Метод позволяет получить время загрузки последнего известного значения
+     * @return - время загрузки или пустой результат, если значение загружено из базы
+     */
+    public Optional<Instant> getStaleLoadedAt() {
+        return Optional.ofNullable(staleLoadedAt);
+    }
+}
@@ -0,0 +1,233 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Компонент ограничивает время обращений к Redis и отключает кэш при его недоступности. Каждая операция получает
+ * таймаут {@code cache.redis.operation-timeout} и выполняется через автоматический выключатель resilience4j
+ * {@code redis}. При ошибке, таймауте или открытом выключателе:
+ * <ul>
+ *     <li>чтение считается промахом, и данные загружаются из базы;</li>
+ *     <li>заполнение кэша после чтения из базы пропускается;</li>
+ *     <li>изменение кэша после записи в базу откладывается и повторяется после восстановления Redis, чтобы
+ *     в кэше не осталось устаревших значений. Пока очередь не пуста, новые изменения выполняются после нее.
+ *     Очередь отложенных записей ограничена
+ *     {@code cache.redis.deferred-writes.max-size}, при переполнении отбрасываются самые старые записи.</li>
+ * </ul>
+ * Метрики: {@code cache.redis.fallback} с тегами {@code cache}, {@code operation} и {@code reason}
+ * (circuit_open, timeout, error), {@code cache.redis.deferred.writes} с тегами {@code cache} и {@code event}
+ * (queued, replayed, dropped) и {@code cache.redis.deferred.pending}.
+ */
+@Component
+@Slf4j
+public class RedisCacheGuard {
+    private static final String CIRCUIT_BREAKER_NAME = "redis";
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int maxDeferredWrites;
+    private final Deque<DeferredWrite> deferredWrites = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    public RedisCacheGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${cache.redis.operation-timeout:200ms}") Duration timeout,
+                           @Value("${cache.redis.deferred-writes.max-size:1000}") int maxDeferredWrites) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.maxDeferredWrites = maxDeferredWrites;
+        Gauge.builder("cache.redis.deferred.pending", pendingWrites, AtomicInteger::get)
+                .description("Количество отложенных изменений кэша, ожидающих восстановления Redis")
+                .register(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Выключатель Redis: {}", event.getStateTransition()));
+    }
+
+    /**
+     * Метод выполняет чтение из Redis. При недоступности Redis чтение считается промахом
+     * @param cacheName - название кэша
+     * @param read - чтение из Redis
+     * @return - результат чтения или пустой результат
+     * @param <T> - тип значения
+     */
+    public <T> Mono<T> read(String cacheName, Mono<T> read) {
+        return protect(read)
+                .doOnSuccess(value -> replayDeferred())
+                .onErrorResume(ex -> fallback(cacheName, "read", ex));
+    }
+
+    /**
+     * Метод выполняет заполнение кэша. При недоступности Redis запись пропускается
+     * @param cacheName - название кэша
+     * @param write - запись в Redis
+     * @return - результат записи или пустой результат
+     * @param <T> - тип результата записи
+     */
+    public <T> Mono<T> write(String cacheName, Mono<T> write) {
+        return protect(write)
+                .doOnSuccess(value -> replayDeferred())
+                .onErrorResume(ex -> fallback(cacheName, "write", ex));
+    }
+
+    /**
+     * Метод выполняет изменение кэша после записи в базу. При недоступности Redis изменение откладывается
+     * и выполняется после восстановления в порядке поступления. Если в очереди уже есть отложенные изменения,
+     * новое изменение ставится за ними и выполняется после них, чтобы старое значение не перезаписало новое
+     * @param cacheName - название кэша
+     * @param write - запись в Redis, вызывается при каждой попытке
+     * @return - сигнал завершения записи или постановки в очередь
+     */
+    public Mono<Void> writeOrDefer(String cacheName, Supplier<Mono<?>> write) {
+        return Mono.defer(() -> {
+            if (pendingWrites.get() > 0) {
+                defer(new DeferredWrite(cacheName, write));
+                return replay();
+            }
+            return protect(Mono.defer(write))
+                    .doOnSuccess(value -> replayDeferred())
+                    .onErrorResume(ex -> {
+                        defer(new DeferredWrite(cacheName, write));
+                        return fallback(cacheName, "write", ex);
+                    })
+                    .then();
+        });
+    }
+
+    /**
+     * Метод ограничивает время операции и выполняет ее через выключатель
+     * @param operation - операция Redis
+     * @return - защищенная операция
+     * @param <T> - тип результата
+     */
+    private <T> Mono<T> protect(Mono<T> operation) {
+        return operation
+                .timeout(timeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private <T> Mono<T> fallback(String cacheName, String operation, Throwable ex) {
+        String reason = ex instanceof CallNotPermittedException ? "circuit_open"
+                : ex instanceof TimeoutException ? "timeout"
+                : "error";
+        if (!(ex instanceof CallNotPermittedException)) {
+            log.warn("Обращение к кэшу {} ({}) не выполнено: {}", cacheName, operation, ex.getMessage());
+        }
+        Counter.builder("cache.redis.fallback")
+                .description("Количество обращений к Redis, замененных резервным поведением")
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return Mono.empty();
+    }
+
+    /**
+     * Метод ставит изменение кэша в очередь. При переполнении очереди отбрасывается самое старое изменение
+     * @param write - отложенное изменение
+     */
+    private void defer(DeferredWrite write) {
+        deferredWrites.offerLast(write);
+        deferredCounter(write.getCacheName(), "queued").increment();
+        if (pendingWrites.incrementAndGet() > maxDeferredWrites) {
+            DeferredWrite dropped = deferredWrites.pollFirst();
+            if (dropped != null) {
+                pendingWrites.decrementAndGet();
+                log.warn("Очередь отложенных изменений кэша переполнена, изменение кэша {} отброшено", dropped.getCacheName());
+                deferredCounter(dropped.getCacheName(), "dropped").increment();
+            }
+        }
+    }
+
+    /**
+     * Метод запускает повтор отложенных изменений после успешного обращения к Redis
+     */
+    private void replayDeferred() {
+        replay().subscribe();
+    }
+
+    /**
+     * Метод повторяет отложенные изменения. Повтор выполняется последовательно и останавливается на первой ошибке,
+     * сохраняя порядок оставшихся изменений. Если повтор уже выполняется, изменения, поставленные в очередь,
+     * выполнит он
+     * @return - сигнал завершения повтора
+     */
+    private Mono<Void> replay() {
+        return Mono.defer(() -> {
+            if (pendingWrites.get() == 0 || !replaying.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            log.info("Повтор {} отложенных изменений кэша", pendingWrites.get());
+            return replayNext()
+                    .doFinally(signal -> {
+                        replaying.set(false);
+                        if (signal == SignalType.ON_COMPLETE && pendingWrites.get() > 0) {
+                            replayDeferred();
+                        }
+                    })
+                    .onErrorResume(ex -> {
+                        log.warn("Повтор отложенных изменений кэша остановлен: {}", ex.getMessage());
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    private Mono<Void> replayNext() {
+        return Mono.defer(() -> {
+            DeferredWrite write = deferredWrites.pollFirst();
+            if (write == null) {
+                return Mono.empty();
+            }
+            pendingWrites.decrementAndGet();
+            return protect(Mono.defer(write.getWrite()))
+                    .doOnSuccess(value -> deferredCounter(write.getCacheName(), "replayed").increment())
+                    .onErrorResume(ex -> {
+                        deferredWrites.offerFirst(write);
+                        pendingWrites.incrementAndGet();
+                        return Mono.error(ex);
+                    })
+                    .then(replayNext());
+        });
+    }
+
+    private Counter deferredCounter(String cacheName, String event) {
+        return Counter.builder("cache.redis.deferred.writes")
+                .description("Отложенные изменения кэша при недоступности Redis")
+                .tag("cache", cacheName)
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Изменение кэша, отложенное до восстановления Redis
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class DeferredWrite {
+        private final String cacheName;
+        private final Supplier<Mono<?>> write;
+    }
+}
@@ -0,0 +1,127 @@
+package sakhno.psup.product_service.services.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Компонент хранит готовые к отправке тела ответов списочных запросов каталога. Тело кодируется в JSON один раз
+ * для версии каталога и затем отдается клиентам без построения DTO и повторной сериализации.
+ * <p>
+ * Ключ записи содержит версию каталога, поэтому после изменения категории или подкатегории запись становится
+ * недостижимой; при переходе на новую версию кэш очищается целиком, чтобы не занимать память. Изменение каталога
+ * другим экземпляром очищает этот кэш и локальный кэш категорий еще до того, как новая версия становится текущей:
+ * иначе при пропущенном оповещении тело из устаревшего локального кэша сохранилось бы под новой версией.
+ * Пока версия каталога неизвестна или кэш отключен настройкой {@code cache.response-body.enabled}, тело кодируется
+ * при каждом запросе.
+ * Тело, собранное из последних известных значений при недоступности базы или во время перезагрузки снимка каталога,
+ * в кэш не сохраняется.
+ */
+@Component
+@Slf4j
+public class ResponseBodyCache {
+    private static final String CACHE_NAME = "response-body";
+    private final ObjectMapper objectMapper;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final boolean enabled;
+    private final Cache<String, byte[]> cache;
+    private final AtomicLong cachedVersion = new AtomicLong(Long.MIN_VALUE);
+
+    public ResponseBodyCache(ObjectMapper objectMapper,
+                             CatalogSnapshotService catalogSnapshotService,
+                             CatalogVersionService catalogVersionService,
+                             MeterRegistry meterRegistry,
+                             @Value("${cache.response-body.enabled:false}") boolean enabled,
+                             @Value("${cache.response-body.maximum-weight:64MB}") DataSize maximumWeight,
+                             @Value("${cache.response-body.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .<String, byte[]>weigher((key, bytes) -> bytes.length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        catalogVersionService.addRemoteChangeListener(version -> cache.invalidateAll());
+    }
+
+    /**
+     * Метод возвращает закодированное тело ответа из кэша либо формирует и кодирует его
+     * @param key - ключ ответа, например путь запроса
+     * @param catalogVersion - версия каталога, полученная до загрузки данных
+     * @param mediaType - формат тела ответа
+     * @param bufferFactory - фабрика буферов ответа
+     * @param body - формирование тела ответа, пустой результат не кэшируется
+     * @return - буфер с телом ответа или пустой результат
+     */
+    public Mono<DataBuffer> get(String key, Optional<CatalogVersion> catalogVersion, MediaType mediaType,
+                                DataBufferFactory bufferFactory, Supplier<Mono<?>> body) {
+        if (!enabled || catalogVersion.isEmpty()) {
+            return body.get()
+                    .map(this::encode)
+                    .map(bufferFactory::wrap);
+        }
+        long version = catalogVersion.get().getVersion();
+        invalidateOlderThan(version);
+        String cacheKey = String.join("|", key, String.valueOf(version), mediaType.toString());
+        byte[] cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return Mono.just(bufferFactory.wrap(cached));
+        }
+        boolean reloadPendingOnStart = catalogSnapshotService.isReloadPending();
+        return Mono.deferContextual(context -> body.get()
+                .map(this::encode)
+                .doOnNext(bytes -> {
+                    if (StaleResponseMarker.from(context).filter(StaleResponseMarker::isStale).isPresent()) {
+                        log.info("Тело ответа {} собрано из устаревших данных и не сохранено в кэш", key);
+                        return;
+                    }
+                    if (reloadPendingOnStart || catalogSnapshotService.isReloadPending()) {
+                        log.info("Тело ответа {} собрано во время перезагрузки снимка каталога и не сохранено в кэш", key);
+                        return;
+                    }
+                    log.info("Тело ответа {} версии каталога {} сохранено в кэш, байт: {}", key, version, bytes.length);
+                    cache.put(cacheKey, bytes);
+                })
+                .map(bufferFactory::wrap));
+    }
+
+    /**
+     * Метод очищает кэш при переходе на новую версию каталога
+     * @param version - текущая версия каталога
+     */
+    private void invalidateOlderThan(long version) {
+        long previous = cachedVersion.getAndAccumulate(version, Math::max);
+        if (version > previous && previous != Long.MIN_VALUE) {
+            log.info("Версия каталога изменилась с {} на {}, кэш тел ответов очищен", previous, version);
+            cache.invalidateAll();
+        }
+    }
+
+    private byte[] encode(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Не удалось сериализовать тело ответа", ex);
+        }
+    }
+}
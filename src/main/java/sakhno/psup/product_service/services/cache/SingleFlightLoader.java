@@ -0,0 +1,109 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Компонент объединяет одновременные загрузки по одному ключу кэша. Первый запрос выполняет загрузку из базы
+ * и запись в кэш, остальные подписываются на ее результат. Защищает базу от лавины запросов при истечении
+ * или вытеснении ключа.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SingleFlightLoader {
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Метод выполняет загрузку по ключу либо присоединяется к уже выполняющейся загрузке
+     * @param cacheName - название кэша, используется как тег метрик
+     * @param key - ключ кэша
+     * @param loader - загрузка из источника данных с записью в кэш
+     * @return - результат загрузки
+     * @param <T> - тип загружаемого значения
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> load(String cacheName, String key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            AtomicBoolean leader = new AtomicBoolean();
+            Mono<T> flight = (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+                leader.set(true);
+                return createFlight(k, loader);
+            });
+            if (leader.get()) {
+                loadsCounter(cacheName).increment();
+            } else {
+                log.info("Запрос присоединен к выполняющейся загрузке ключа: {}", key);
+                coalescedCounter(cacheName).increment();
+            }
+            return flight;
+        });
+    }
+
+    /**
+     * Метод запускает фоновое обновление устаревшей записи кэша. Если по ключу уже выполняется загрузка,
+     * повторная не запускается. Ошибки обновления только логируются: клиент уже получил значение из кэша
+     * @param cacheName - название кэша, используется как тег метрик
+     * @param key - ключ кэша
+     * @param loader - загрузка из источника данных с записью в кэш
+     * @param <T> - тип загружаемого значения
+     */
+    public <T> void refresh(String cacheName, String key, Supplier<Mono<T>> loader) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        log.info("Фоновое обновление устаревшего ключа кэша: {}", key);
+        refreshCounter(cacheName).increment();
+        load(cacheName, key, loader)
+                .subscribe(value -> { }, ex -> log.warn("Фоновое обновление ключа {} не выполнено: {}", key, ex.getMessage()));
+    }
+
+    /**
+     * Метод создает разделяемую загрузку, которая удаляет себя из реестра после завершения.
+     * Загрузка отменяется, только если от нее отписались все ожидающие запросы
+     * @param key - ключ кэша
+     * @param loader - загрузка из источника данных
+     * @return - разделяемая загрузка
+     * @param <T> - тип загружаемого значения
+     */
+    private <T> Mono<T> createFlight(String key, Supplier<Mono<T>> loader) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> flight = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .share();
+        self.set(flight);
+        return flight;
+    }
+
+    private Counter loadsCounter(String cacheName) {
+        return Counter.builder("cache.single.flight.loads")
+                .description("Количество загрузок из источника данных при промахе кэша")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    private Counter refreshCounter(String cacheName) {
+        return Counter.builder("cache.refresh.ahead")
+                .description("Количество фоновых обновлений записей кэша после истечения мягкого срока жизни")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    private Counter coalescedCounter(String cacheName) {
+        return Counter.builder("cache.single.flight.coalesced")
+                .description("Количество запросов, присоединенных к уже выполняющейся загрузке")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+}
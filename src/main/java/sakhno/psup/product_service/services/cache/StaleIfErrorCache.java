@@ -0,0 +1,165 @@
+package sakhno.psup.product_service.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Компонент хранит последние значения, успешно загруженные из базы, и отдает их, когда база недоступна.
+ * Значение хранится в памяти экземпляра не дольше {@code cache.stale-if-error.max-staleness}, поэтому клиент
+ * никогда не получит данные старше этого срока. Ответ из последнего известного значения отмечается
+ * в {@link StaleResponseMarker} того запроса, который его получил, и веб-фильтр добавляет к нему заголовок
+ * {@link StaleResponseMarker#STALE_HEADER}.
+ * <p>
+ * Метрика {@code cache.stale.if.error} с тегами {@code cache} и {@code result} (served, missing) показывает,
+ * сколько запросов при недоступности базы удалось обслужить.
+ */
+@Component
+@Slf4j
+public class StaleIfErrorCache {
+    private static final String CACHE_NAME = "stale-if-error";
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Cache<String, StaleEntry> cache;
+
+    public StaleIfErrorCache(MeterRegistry meterRegistry,
+                             @Value("${cache.stale-if-error.enabled:true}") boolean enabled,
+                             @Value("${cache.stale-if-error.maximum-size:10000}") long maximumSize,
+                             @Value("${cache.stale-if-error.max-staleness:10m}") Duration maxStaleness) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Метод выполняет загрузку из базы и запоминает результат. При недоступности базы возвращает последнее
+     * известное значение, если оно не старше допустимого срока. Ответ не отмечается устаревшим: загрузку могут
+     * разделять несколько запросов, поэтому каждый из них отмечает свой ответ через {@link #unwrap(Mono)}
+     * @param cacheName - название кэша, используется как тег метрик
+     * @param key - ключ значения
+     * @param loader - загрузка из базы
+     * @return - загруженное либо последнее известное значение с временем его загрузки
+     * @param <T> - тип значения
+     */
+    public <T> Mono<LoadedValue<T>> load(String cacheName, String key, Mono<T> loader) {
+        if (!enabled) {
+            return loader.map(LoadedValue::fresh);
+        }
+        return loader
+                .doOnNext(value -> put(key, value))
+                .map(LoadedValue::fresh)
+                .onErrorResume(DatabaseUnavailableException.class, ex -> this.<T>lookup(cacheName, List.of(key), ex)
+                        .map(entries -> entries.get(0)));
+    }
+
+    /**
+     * Метод возвращает значение и отмечает устаревшим ответ текущего запроса, если значение взято
+     * из последних известных. Вызывается каждым запросом после разделяемой загрузки
+     * @param loaded - результат {@link #load(String, String, Mono)}
+     * @return - значение
+     * @param <T> - тип значения
+     */
+    public static <T> Mono<T> unwrap(Mono<LoadedValue<T>> loaded) {
+        return loaded.flatMap(value -> Mono.deferContextual(context -> {
+            value.getStaleLoadedAt()
+                    .ifPresent(loadedAt -> StaleResponseMarker.from(context)
+                            .ifPresent(marker -> marker.markStale(loadedAt)));
+            return Mono.justOrEmpty(value.getValue());
+        }));
+    }
+
+    /**
+     * Метод запоминает значение, загруженное из базы
+     * @param key - ключ значения
+     * @param value - значение
+     */
+    public void put(String key, Object value) {
+        if (enabled) {
+            cache.put(key, new StaleEntry(value, Instant.now()));
+        }
+    }
+
+    /**
+     * Метод возвращает последние известные значения по ключам и отмечает ответ устаревшим. Если значение
+     * отсутствует хотя бы для одного ключа, возвращается исходная ошибка
+     * @param cacheName - название кэша, используется как тег метрик
+     * @param keys - ключи значений
+     * @param error - ошибка обращения к базе
+     * @return - значения в порядке ключей
+     * @param <T> - тип значения
+     */
+    public <T> Mono<List<T>> staleValues(String cacheName, List<String> keys, Throwable error) {
+        return this.<T>lookup(cacheName, keys, error)
+                .flatMap(entries -> Mono.deferContextual(context -> {
+                    StaleResponseMarker.from(context).ifPresent(marker -> entries.forEach(entry ->
+                            entry.getStaleLoadedAt().ifPresent(marker::markStale)));
+                    return Mono.just(entries.stream()
+                            .map(LoadedValue::getValue)
+                            .toList());
+                }));
+    }
+
+    /**
+     * Метод ищет последние известные значения по ключам. Если значение отсутствует хотя бы для одного ключа,
+     * возвращается исходная ошибка
+     * @param cacheName - название кэша, используется как тег метрик
+     * @param keys - ключи значений
+     * @param error - ошибка обращения к базе
+     * @return - значения с временем загрузки в порядке ключей
+     * @param <T> - тип значения
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<List<LoadedValue<T>>> lookup(String cacheName, List<String> keys, Throwable error) {
+        return Mono.defer(() -> {
+            List<LoadedValue<T>> entries = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                StaleEntry entry = enabled ? cache.getIfPresent(key) : null;
+                if (entry == null) {
+                    resultCounter(cacheName, "missing").increment();
+                    return Mono.error(error);
+                }
+                entries.add(new LoadedValue<>((T) entry.getValue(), entry.getLoadedAt()));
+            }
+            log.warn("База недоступна, кэш {} отвечает последними известными значениями", cacheName);
+            resultCounter(cacheName, "served").increment();
+            return Mono.just(entries);
+        });
+    }
+
+    private Counter resultCounter(String cacheName, String result) {
+        return Counter.builder("cache.stale.if.error")
+                .description("Запросы, обслуженные последним известным значением при недоступности базы")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Последнее известное значение и время его загрузки из базы
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class StaleEntry {
+        private final Object value;
+        private final Instant loadedAt;
+    }
+}
@@ -0,0 +1,52 @@
+package sakhno.psup.product_service.services.cache;
+
+import reactor.util.context.ContextView;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Отметка запроса, ответ на который содержит устаревшие данные. Создается веб-фильтром для каждого запроса
+ * и передается через контекст Reactor; при ответе из последнего известного значения в нее записывается время
+ * загрузки этого значения. Если ответ собран из нескольких значений, хранится время самого старого
+ */
+public class StaleResponseMarker {
+    public static final String CONTEXT_KEY = StaleResponseMarker.class.getName();
+    public static final String STALE_HEADER = "X-Cache-Stale";
+    private final AtomicReference<Instant> oldestLoadedAt = new AtomicReference<>();
+
+    /**
+     * Метод отмечает ответ устаревшим
+     * @param loadedAt - время загрузки значения из базы
+     */
+    public void markStale(Instant loadedAt) {
+        oldestLoadedAt.accumulateAndGet(loadedAt,
+                (current, candidate) -> current == null || candidate.isBefore(current) ? candidate : current);
+    }
+
+    /**
+     * Метод возвращает время загрузки самого старого значения в ответе
+     * @return - время загрузки или пустой результат, если ответ не устарел
+     */
+    public Optional<Instant> getOldestLoadedAt() {
+        return Optional.ofNullable(oldestLoadedAt.get());
+    }
+
+    /**
+     * Метод позволяет узнать, содержит ли ответ устаревшие данные
+     * @return - признак устаревшего ответа
+     */
+    public boolean isStale() {
+        return oldestLoadedAt.get() != null;
+    }
+
+    /**
+     * Метод позволяет получить отметку текущего запроса из контекста Reactor
+     * @param context - контекст Reactor
+     * @return - отметка или пустой результат вне обработки HTTP-запроса
+     */
+    public static Optional<StaleResponseMarker> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+}
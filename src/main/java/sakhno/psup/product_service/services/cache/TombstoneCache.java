@@ -0,0 +1,122 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кэш отсутствующих записей. Для идентификатора, не найденного в базе, в Redis записывается метка
+ * {@code tombstone:{cache}:{id}} с коротким сроком жизни {@code cache.tombstone.ttl}, чтобы повторные запросы
+ * несуществующих записей не доходили до базы. Метка удаляется при сохранении записи с этим идентификатором.
+ * Метка записывается, только если в кэше нет значения записи {@code {cache}:{id}}: так чтение, не нашедшее
+ * запись в базе до ее параллельного сохранения, не скроет сохраненную запись меткой, записанной после очистки.
+ * <p>
+ * Метрика {@code cache.tombstones} с тегами {@code cache} и {@code event} (hit, created, skipped, cleared).
+ */
+@Component
+@Slf4j
+public class TombstoneCache {
+    private static final String TOMBSTONE_PREFIX = "tombstone:";
+    private static final RedisScript<Long> PUT_TOMBSTONE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/put_tombstone.lua"), Long.class);
+    private static final String TOMBSTONE_CACHE_NAME = "tombstone";
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final RedisCacheGuard redisCacheGuard;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+
+    public TombstoneCache(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                          RedisCacheGuard redisCacheGuard,
+                          MeterRegistry meterRegistry,
+                          @Value("${cache.tombstone.ttl:30s}") Duration ttl) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.redisCacheGuard = redisCacheGuard;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Метод проверяет наличие метки отсутствия записи. Ошибка Redis не мешает запросу: запись будет искаться в базе
+     * @param cacheName - название кэша
+     * @param id - идентификатор записи
+     * @return - true, если запись известна как отсутствующая
+     */
+    public Mono<Boolean> exists(String cacheName, Long id) {
+        return redisCacheGuard.read(TOMBSTONE_CACHE_NAME, reactiveStringRedisTemplate.hasKey(key(cacheName, id)))
+                .doOnNext(exists -> {
+                    if (exists) {
+                        log.info("Запись {} кэша {} отмечена как отсутствующая", id, cacheName);
+                        counter(cacheName, "hit").increment();
+                    }
+                })
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Метод записывает метку отсутствия записи, если значение записи не появилось в кэше после чтения из базы
+     * @param cacheName - название кэша
+     * @param id - идентификатор записи
+     * @return - флаг записи
+     */
+    public Mono<Boolean> put(String cacheName, Long id) {
+        List<String> keys = List.of(key(cacheName, id), cacheName + ":" + id);
+        return redisCacheGuard.write(TOMBSTONE_CACHE_NAME, reactiveStringRedisTemplate
+                        .execute(PUT_TOMBSTONE_SCRIPT, keys, List.of(String.valueOf(ttl.toMillis())))
+                        .next())
+                .map(created -> created > 0)
+                .doOnNext(created -> {
+                    if (created) {
+                        counter(cacheName, "created").increment();
+                    } else {
+                        log.info("Запись {} кэша {} сохранена во время чтения, метка отсутствия не записана", id, cacheName);
+                        counter(cacheName, "skipped").increment();
+                    }
+                })
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Метод удаляет метку отсутствия записи после ее сохранения. При недоступности Redis удаление пропускается:
+     * метка истечет через {@code cache.tombstone.ttl}
+     * @param cacheName - название кэша
+     * @param id - идентификатор записи
+     * @return - флаг удаления
+     */
+    public Mono<Boolean> clear(String cacheName, Long id) {
+        return redisCacheGuard.write(TOMBSTONE_CACHE_NAME, reactiveStringRedisTemplate.delete(key(cacheName, id)))
+                .map(deleted -> deleted > 0)
+                .doOnNext(cleared -> {
+                    if (cleared) {
+                        counter(cacheName, "cleared").increment();
+                    }
+                })
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Метод возвращает ключ метки отсутствия записи
+     * @param cacheName - название кэша
+     * @param id - идентификатор записи
+     * @return - ключ метки
+     */
+    public String key(String cacheName, Long id) {
+        return TOMBSTONE_PREFIX + cacheName + ":" + id;
+    }
+
+    private Counter counter(String cacheName, String event) {
+        return Counter.builder("cache.tombstones")
+                .description("Операции с метками отсутствующих записей")
+                .tag("cache", cacheName)
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package sakhno.psup.product_service.services.catalog;
+
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Набор изменений снимка каталога, применяемых одним слиянием. Изменения записываются по идентификатору: более
+ * позднее изменение записи заменяет более раннее, удаление хранится как значение null. Результат слияния совпадает
+ * с последовательным применением изменений: удаление категории удаляет и подкатегории, записанные в нее раньше.
+ */
+final class CatalogChanges {
+    private final Map<Long, CategoryDto> categories = new HashMap<>();
+    private final Map<Long, SubcategoryDto> subcategories = new HashMap<>();
+    private final Set<Long> removedCategories = new HashSet<>();
+
+    void putCategory(CategoryDto category) {
+        categories.put(category.getId(), category);
+    }
+
+    void removeCategory(long id) {
+        categories.put(id, null);
+        removedCategories.add(id);
+        subcategories.replaceAll((subcategoryId, subcategory) -> subcategory != null
+                && subcategory.getCategory() != null && subcategory.getCategory().getId() == id ? null : subcategory);
+    }
+
+    void putSubcategory(SubcategoryDto subcategory) {
+        subcategories.put(subcategory.getId(), subcategory);
+    }
+
+    void removeSubcategory(long id) {
+        subcategories.put(id, null);
+    }
+
+    boolean isEmpty() {
+        return categories.isEmpty() && subcategories.isEmpty();
+    }
+
+    /**
+     * Метод возвращает изменения категорий
+     * @return - категории по идентификатору, null для удаленной категории
+     */
+    Map<Long, CategoryDto> categories() {
+        return categories;
+    }
+
+    /**
+     * Метод проверяет, удалялась ли категория. Подкатегории удаленной категории не переходят в новый снимок,
+     * даже если категория затем сохранена снова
+     * @param id - идентификатор категории
+     * @return - true, если категория удалялась
+     */
+    boolean isCategoryRemoved(long id) {
+        return removedCategories.contains(id);
+    }
+
+    /**
+     * Метод возвращает изменения подкатегорий
+     * @return - подкатегории по идентификатору, null для удаленной подкатегории
+     */
+    Map<Long, SubcategoryDto> subcategories() {
+        return subcategories;
+    }
+}
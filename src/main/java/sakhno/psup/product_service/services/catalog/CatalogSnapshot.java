@@ -0,0 +1,345 @@
+package sakhno.psup.product_service.services.catalog;
+
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.category.CategorySimpleDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Неизменяемый снимок каталога категорий и подкатегорий. Содержит индексы по идентификаторам и заранее собранные
+ * списки подкатегорий каждой категории; все подкатегории одной категории ссылаются на общий
+ * {@link CategorySimpleDto}. Чтение из снимка не выполняет ввод-вывод и не требует блокировок.
+ * <p>
+ * Изменение каталога создает новый снимок методами {@code with...}/{@code without...}, исходный снимок
+ * не меняется. Изменения сливаются с уже отсортированными списками без повторной сортировки, а списки подкатегорий
+ * и таблицы, которых изменения не касаются, переходят в новый снимок без копирования.
+ * DTO снимка разделяются между запросами и не должны изменяться вызывающим кодом.
+ */
+public final class CatalogSnapshot {
+    private static final Comparator<CategoryDto> CATEGORY_ORDER = Comparator.comparing(CategoryDto::getId);
+    private static final Comparator<SubcategoryDto> SUBCATEGORY_ORDER = Comparator.comparing(SubcategoryDto::getId);
+    private final List<CategoryDto> categories;
+    private final List<SubcategoryDto> subcategories;
+    private final LongKeyMap<CategoryDto> categoryById;
+    private final LongKeyMap<SubcategoryDto> subcategoryById;
+    private final LongKeyMap<List<SubcategoryDto>> subcategoriesByCategoryId;
+
+    private CatalogSnapshot(List<CategoryDto> categories, List<SubcategoryDto> subcategories) {
+        Map<Long, List<SubcategoryDto>> children = new HashMap<>();
+        subcategories.forEach(subcategory -> children
+                .computeIfAbsent(subcategory.getCategory().getId(), id -> new ArrayList<>())
+                .add(subcategory));
+        this.categories = categories;
+        this.subcategories = subcategories;
+        this.categoryById = LongKeyMap.of(categories, CategoryDto::getId, category -> category);
+        this.subcategoryById = LongKeyMap.of(subcategories, SubcategoryDto::getId, subcategory -> subcategory);
+        this.subcategoriesByCategoryId = LongKeyMap.of(categories, CategoryDto::getId, category ->
+                Collections.unmodifiableList(children.getOrDefault(category.getId(), List.of())));
+    }
+
+    private CatalogSnapshot(List<CategoryDto> categories,
+                            List<SubcategoryDto> subcategories,
+                            LongKeyMap<CategoryDto> categoryById,
+                            LongKeyMap<SubcategoryDto> subcategoryById,
+                            LongKeyMap<List<SubcategoryDto>> subcategoriesByCategoryId) {
+        this.categories = categories;
+        this.subcategories = subcategories;
+        this.categoryById = categoryById;
+        this.subcategoryById = subcategoryById;
+        this.subcategoriesByCategoryId = subcategoriesByCategoryId;
+    }
+
+    /**
+     * Метод создает снимок каталога. Подкатегории без категории в снимке отбрасываются
+     * @param categories - категории
+     * @param subcategories - подкатегории
+     * @return - снимок каталога
+     */
+    public static CatalogSnapshot of(List<CategoryDto> categories, List<SubcategoryDto> subcategories) {
+        List<CategoryDto> sortedCategories = categories.stream()
+                .sorted(CATEGORY_ORDER)
+                .toList();
+        Map<Long, CategorySimpleDto> simpleCategories = new HashMap<>();
+        sortedCategories.forEach(category -> simpleCategories.put(category.getId(),
+                new CategorySimpleDto(category.getId(), category.getName())));
+        List<SubcategoryDto> sortedSubcategories = subcategories.stream()
+                .filter(subcategory -> subcategory.getCategory() != null
+                        && simpleCategories.containsKey(subcategory.getCategory().getId()))
+                .sorted(SUBCATEGORY_ORDER)
+                .map(subcategory -> withCategory(subcategory, simpleCategories.get(subcategory.getCategory().getId())))
+                .toList();
+        return new CatalogSnapshot(sortedCategories, sortedSubcategories);
+    }
+
+    /**
+     * Метод позволяет получить категорию по идентификатору
+     * @param id - идентификатор категории
+     * @return - категория или пустой результат
+     */
+    public Optional<CategoryDto> getCategory(long id) {
+        return Optional.ofNullable(categoryById.get(id));
+    }
+
+    /**
+     * Метод позволяет получить все категории в порядке идентификаторов
+     * @return - список категорий
+     */
+    public List<CategoryDto> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Метод позволяет получить подкатегорию по идентификатору
+     * @param id - идентификатор подкатегории
+     * @return - подкатегория или пустой результат
+     */
+    public Optional<SubcategoryDto> getSubcategory(long id) {
+        return Optional.ofNullable(subcategoryById.get(id));
+    }
+
+    /**
+     * Метод позволяет получить все подкатегории в порядке идентификаторов
+     * @return - список подкатегорий
+     */
+    public List<SubcategoryDto> getSubcategories() {
+        return subcategories;
+    }
+
+    /**
+     * Метод позволяет получить подкатегории категории
+     * @param categoryId - идентификатор категории
+     * @return - список подкатегорий или пустой результат, если категории нет
+     */
+    public Optional<List<SubcategoryDto>> getSubcategoriesByCategoryId(long categoryId) {
+        return Optional.ofNullable(subcategoriesByCategoryId.get(categoryId));
+    }
+
+    /**
+     * Метод создает снимок с добавленной или измененной категорией. Подкатегории получают новое название категории
+     * @param category - категория
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withCategory(CategoryDto category) {
+        CatalogChanges changes = new CatalogChanges();
+        changes.putCategory(category);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок с добавленными или измененными категориями. Снимок перестраивается один раз
+     * для всего списка
+     * @param changedCategories - категории
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withCategories(List<CategoryDto> changedCategories) {
+        CatalogChanges changes = new CatalogChanges();
+        changedCategories.forEach(changes::putCategory);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок без категории и ее подкатегорий
+     * @param id - идентификатор категории
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withoutCategory(long id) {
+        CatalogChanges changes = new CatalogChanges();
+        changes.removeCategory(id);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок с добавленной или измененной подкатегорией, в том числе перенесенной в другую категорию
+     * @param subcategory - подкатегория
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withSubcategory(SubcategoryDto subcategory) {
+        CatalogChanges changes = new CatalogChanges();
+        changes.putSubcategory(subcategory);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок с добавленными или измененными подкатегориями. Снимок перестраивается один раз
+     * для всего списка
+     * @param changedSubcategories - подкатегории
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withSubcategories(List<SubcategoryDto> changedSubcategories) {
+        CatalogChanges changes = new CatalogChanges();
+        changedSubcategories.forEach(changes::putSubcategory);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок без подкатегории
+     * @param id - идентификатор подкатегории
+     * @return - новый снимок
+     */
+    public CatalogSnapshot withoutSubcategory(long id) {
+        CatalogChanges changes = new CatalogChanges();
+        changes.removeSubcategory(id);
+        return apply(changes);
+    }
+
+    /**
+     * Метод создает снимок с набором изменений. Измененные категории и подкатегории сливаются с отсортированными
+     * списками снимка за один проход. Подкатегории измененной категории получают ее новое название, подкатегории
+     * удаленной категории удаляются, подкатегории без категории в снимке отбрасываются. Списки подкатегорий
+     * перестраиваются только для затронутых категорий
+     * @param changes - изменения
+     * @return - новый снимок или этот снимок, если изменений нет
+     */
+    CatalogSnapshot apply(CatalogChanges changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        Map<Long, CategoryDto> categoryChanges = changes.categories();
+        List<CategoryDto> changedCategories = merge(categories, categoryChanges, CategoryDto::getId);
+        LongKeyMap<CategoryDto> changedCategoryById = categoryById.with(categoryChanges);
+
+        Map<Long, CategorySimpleDto> simpleCategories = new HashMap<>();
+        Map<Long, SubcategoryDto> subcategoryChanges = new HashMap<>();
+        categoryChanges.forEach((categoryId, category) -> {
+            if (category != null) {
+                simpleCategories.put(categoryId, new CategorySimpleDto(categoryId, category.getName()));
+            }
+            List<SubcategoryDto> children = subcategoriesByCategoryId.get(categoryId);
+            if (children != null) {
+                children.forEach(child -> subcategoryChanges.put(child.getId(),
+                        category != null && !changes.isCategoryRemoved(categoryId)
+                                ? withCategory(child, simpleCategories.get(categoryId))
+                                : null));
+            }
+        });
+        changes.subcategories().forEach((id, subcategory) -> {
+            Long categoryId = subcategory != null && subcategory.getCategory() != null
+                    ? subcategory.getCategory().getId()
+                    : null;
+            if (categoryId == null || changedCategoryById.get(categoryId) == null) {
+                subcategoryChanges.put(id, null);
+            } else {
+                subcategoryChanges.put(id, withCategory(subcategory, simpleCategory(categoryId, changedCategoryById, simpleCategories)));
+            }
+        });
+        subcategoryChanges.entrySet().removeIf(change -> change.getValue() == null && subcategoryById.get(change.getKey()) == null);
+
+        Map<Long, Map<Long, SubcategoryDto>> childChanges = new HashMap<>();
+        subcategoryChanges.forEach((id, subcategory) -> {
+            SubcategoryDto previous = subcategoryById.get(id);
+            if (previous != null) {
+                childChanges.computeIfAbsent(previous.getCategory().getId(), categoryId -> new HashMap<>()).put(id, null);
+            }
+            if (subcategory != null) {
+                childChanges.computeIfAbsent(subcategory.getCategory().getId(), categoryId -> new HashMap<>()).put(id, subcategory);
+            }
+        });
+        Map<Long, List<SubcategoryDto>> changedChildren = new HashMap<>();
+        categoryChanges.forEach((categoryId, category) -> changedChildren.put(categoryId, category != null
+                ? merge(children(categoryId), childChanges.getOrDefault(categoryId, Map.of()), SubcategoryDto::getId)
+                : null));
+        childChanges.forEach((categoryId, children) -> {
+            if (!categoryChanges.containsKey(categoryId)) {
+                changedChildren.put(categoryId, merge(children(categoryId), children, SubcategoryDto::getId));
+            }
+        });
+
+        return new CatalogSnapshot(changedCategories,
+                merge(subcategories, subcategoryChanges, SubcategoryDto::getId),
+                changedCategoryById,
+                subcategoryById.with(subcategoryChanges),
+                subcategoriesByCategoryId.with(changedChildren));
+    }
+
+    /**
+     * Метод сливает изменения с отсортированным по идентификатору списком за один проход. Измененные элементы
+     * заменяются, удаленные пропускаются, новые вставляются на место по идентификатору
+     * @param elements - список, отсортированный по идентификатору
+     * @param changes - новые значения по идентификатору, null для удаления
+     * @param idFunction - получение идентификатора элемента
+     * @return - новый список или исходный, если изменений нет
+     * @param <T> - тип элемента
+     */
+    private static <T> List<T> merge(List<T> elements, Map<Long, T> changes, ToLongFunction<T> idFunction) {
+        if (changes.isEmpty()) {
+            return elements;
+        }
+        long[] changedIds = changes.keySet().stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        List<T> merged = new ArrayList<>(elements.size() + changedIds.length);
+        int next = 0;
+        for (T element : elements) {
+            long id = idFunction.applyAsLong(element);
+            while (next < changedIds.length && changedIds[next] < id) {
+                addIfPresent(merged, changes.get(changedIds[next++]));
+            }
+            if (next < changedIds.length && changedIds[next] == id) {
+                addIfPresent(merged, changes.get(changedIds[next++]));
+            } else {
+                merged.add(element);
+            }
+        }
+        while (next < changedIds.length) {
+            addIfPresent(merged, changes.get(changedIds[next++]));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    private List<SubcategoryDto> children(long categoryId) {
+        List<SubcategoryDto> children = subcategoriesByCategoryId.get(categoryId);
+        return children != null ? children : List.of();
+    }
+
+    private static <T> void addIfPresent(List<T> elements, T element) {
+        if (element != null) {
+            elements.add(element);
+        }
+    }
+
+    /**
+     * Метод возвращает общий объект категории для подкатегорий категории: объект измененной категории, объект
+     * существующих подкатегорий или новый объект, если у категории еще нет подкатегорий
+     * @param categoryId - идентификатор категории
+     * @param categoryById - категории нового снимка
+     * @param simpleCategories - объекты измененных категорий, дополняются новыми объектами
+     * @return - объект категории
+     */
+    private CategorySimpleDto simpleCategory(long categoryId, LongKeyMap<CategoryDto> categoryById,
+                                             Map<Long, CategorySimpleDto> simpleCategories) {
+        return simpleCategories.computeIfAbsent(categoryId, id -> {
+            List<SubcategoryDto> children = subcategoriesByCategoryId.get(id);
+            return children != null && !children.isEmpty()
+                    ? children.get(0).getCategory()
+                    : new CategorySimpleDto(id, categoryById.get(id).getName());
+        });
+    }
+
+    /**
+     * Метод создает копию подкатегории, ссылающуюся на общий объект категории снимка
+     * @param subcategory - подкатегория
+     * @param category - категория снимка
+     * @return - копия подкатегории
+     */
+    private static SubcategoryDto withCategory(SubcategoryDto subcategory, CategorySimpleDto category) {
+        return SubcategoryDto.builder()
+                .id(subcategory.getId())
+                .name(subcategory.getName())
+                .description(subcategory.getDescription())
+                .category(category)
+                .createdDate(subcategory.getCreatedDate())
+                .updatedDate(subcategory.getUpdatedDate())
+                .createdUserId(subcategory.getCreatedUserId())
+                .updatedUserId(subcategory.getUpdatedUserId())
+                .build();
+    }
+}
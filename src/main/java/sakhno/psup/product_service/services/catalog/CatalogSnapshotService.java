@@ -0,0 +1,254 @@
+package sakhno.psup.product_service.services.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+import sakhno.psup.product_service.mappers.category.CategoryMapper;
+import sakhno.psup.product_service.mappers.subcategory.SubcategoryMapper;
+import sakhno.psup.product_service.models.CategoryEntity;
+import sakhno.psup.product_service.repositories.CategoryRepository;
+import sakhno.psup.product_service.repositories.SubcategoryRepository;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.database.DatabaseGuard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Компонент хранит текущий снимок каталога категорий и подкатегорий. Читатели получают снимок через
+ * {@link #current()} без блокировок; изменения этого экземпляра применяются к снимку копированием при записи,
+ * изменения других экземпляров - полной перезагрузкой снимка из базы после оповещения о новой версии каталога.
+ * Изменения, поступившие, пока применяется предыдущее, накапливаются и применяются следующим одним слиянием,
+ * поэтому поток записей не перестраивает снимок на каждую запись. Полная загрузка снимка ограничена отдельным
+ * таймаутом {@code cache.snapshot.load-timeout}: чтение обеих таблиц не укладывается в таймаут обычного запроса.
+ * На время такой перезагрузки снимок сбрасывается, и чтение выполняется через кэш и базу: иначе под новой версией
+ * каталога отдавались бы данные старого снимка.
+ * <p>
+ * Снимок строится при прогреве кэша, а если прогрев отключен или не удался - после старта приложения. До построения
+ * снимка и при {@code cache.snapshot.enabled=false} чтение выполняется через кэш и базу.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotService {
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final SubcategoryMapper subcategoryMapper;
+    private final DatabaseGuard databaseGuard;
+    private final boolean enabled;
+    private final Duration loadTimeout;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+    private final Queue<Consumer<CatalogChanges>> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final Object applyLock = new Object();
+
+    public CatalogSnapshotService(CategoryRepository categoryRepository,
+                                  SubcategoryRepository subcategoryRepository,
+                                  CategoryMapper categoryMapper,
+                                  SubcategoryMapper subcategoryMapper,
+                                  CatalogVersionService catalogVersionService,
+                                  DatabaseGuard databaseGuard,
+                                  @Value("${cache.snapshot.enabled:true}") boolean enabled,
+                                  @Value("${cache.snapshot.load-timeout:30s}") Duration loadTimeout) {
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.subcategoryMapper = subcategoryMapper;
+        this.databaseGuard = databaseGuard;
+        this.enabled = enabled;
+        this.loadTimeout = loadTimeout;
+        catalogVersionService.addRemoteChangeListener(version -> onRemoteChange());
+    }
+
+    /**
+     * Метод возвращает текущий снимок каталога
+     * @return - снимок каталога или пустой результат, если снимок еще не построен или отключен
+     */
+    public Optional<CatalogSnapshot> current() {
+        return enabled ? Optional.ofNullable(snapshot.get()) : Optional.empty();
+    }
+
+    /**
+     * Метод проверяет, выполняется ли перезагрузка снимка. Пока она не завершена, данные каталога могут меняться
+     * @return - true, если снимок перезагружается
+     */
+    public boolean isReloadPending() {
+        return enabled && reloading.get();
+    }
+
+    /**
+     * Метод заменяет снимок каталога данными, загруженными при прогреве кэша
+     * @param categories - все категории
+     * @param subcategories - все подкатегории
+     */
+    public void replace(List<CategoryDto> categories, List<SubcategoryDto> subcategories) {
+        if (enabled) {
+            snapshot.set(CatalogSnapshot.of(categories, subcategories));
+            log.info("Снимок каталога построен: категорий {}, подкатегорий {}", categories.size(), subcategories.size());
+        }
+    }
+
+    /**
+     * Метод применяет к снимку сохраненную категорию
+     * @param category - категория
+     */
+    public void putCategory(CategoryDto category) {
+        update(changes -> changes.putCategory(category));
+    }
+
+    /**
+     * Метод применяет к снимку несколько сохраненных категорий
+     * @param categories - категории
+     */
+    public void putCategories(List<CategoryDto> categories) {
+        update(changes -> categories.forEach(changes::putCategory));
+    }
+
+    /**
+     * Метод удаляет из снимка категорию
+     * @param id - идентификатор категории
+     */
+    public void removeCategory(Long id) {
+        update(changes -> changes.removeCategory(id));
+    }
+
+    /**
+     * Метод применяет к снимку сохраненную подкатегорию
+     * @param subcategory - подкатегория
+     */
+    public void putSubcategory(SubcategoryDto subcategory) {
+        update(changes -> changes.putSubcategory(subcategory));
+    }
+
+    /**
+     * Метод применяет к снимку несколько сохраненных подкатегорий
+     * @param subcategories - подкатегории
+     */
+    public void putSubcategories(List<SubcategoryDto> subcategories) {
+        update(changes -> subcategories.forEach(changes::putSubcategory));
+    }
+
+    /**
+     * Метод удаляет из снимка подкатегорию
+     * @param id - идентификатор подкатегории
+     */
+    public void removeSubcategory(Long id) {
+        update(changes -> changes.removeSubcategory(id));
+    }
+
+    /**
+     * Метод строит снимок после старта приложения, если он не был построен при прогреве кэша
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIfAbsent() {
+        if (snapshot.get() == null) {
+            reload();
+        }
+    }
+
+    /**
+     * Метод сбрасывает устаревший снимок после изменения каталога другим экземпляром и запускает его перезагрузку
+     */
+    private void onRemoteChange() {
+        if (!enabled) {
+            return;
+        }
+        snapshot.set(null);
+        log.info("Каталог изменен другим экземпляром, снимок сброшен до перезагрузки");
+        reload();
+    }
+
+    /**
+     * Метод перезагружает снимок из базы в фоне. Запросы перезагрузки во время выполняющейся перезагрузки
+     * объединяются в одну повторную перезагрузку, а данные, загруженные до такого запроса, не применяются.
+     * При ошибке остается предыдущий снимок, если он не был сброшен
+     */
+    private void reload() {
+        if (!enabled) {
+            return;
+        }
+        reloadRequested.set(true);
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        reloadRequested.set(false);
+        load()
+                .doFinally(signal -> {
+                    reloading.set(false);
+                    if (reloadRequested.get()) {
+                        reload();
+                    }
+                })
+                .subscribe(loaded -> {
+                    if (reloadRequested.get()) {
+                        log.info("Каталог изменился во время перезагрузки снимка, снимок будет загружен повторно");
+                        return;
+                    }
+                    snapshot.set(loaded);
+                    log.info("Снимок каталога перезагружен: категорий {}, подкатегорий {}",
+                            loaded.getCategories().size(), loaded.getSubcategories().size());
+                }, ex -> log.warn("Не удалось перезагрузить снимок каталога: {}", ex.getMessage()));
+    }
+
+    /**
+     * Метод загружает все категории и подкатегории из базы с ограничением времени {@code cache.snapshot.load-timeout}
+     * @return - снимок каталога
+     */
+    private Mono<CatalogSnapshot> load() {
+        return databaseGuard.execute(Mono.zip(categoryRepository.findAll().collectList(), subcategoryRepository.findAll().collectList()),
+                        loadTimeout)
+                .map(tuple -> {
+                    Map<Long, CategoryEntity> categories = tuple.getT1().stream()
+                            .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+                    List<SubcategoryDto> subcategories = tuple.getT2().stream()
+                            .filter(subcategory -> categories.containsKey(subcategory.getCategoryId()))
+                            .map(subcategory -> subcategoryMapper.mapToSubCategoryDto(subcategory,
+                                    categories.get(subcategory.getCategoryId())))
+                            .toList();
+                    return CatalogSnapshot.of(tuple.getT1().stream()
+                            .map(categoryMapper::mapCategoryEntityToDto)
+                            .toList(), subcategories);
+                });
+    }
+
+    /**
+     * Метод применяет изменение к снимку копированием при записи. Изменение ставится в очередь, и очередь
+     * применяется к снимку одним слиянием: если снимок в это время изменяет другой поток, он применит и это
+     * изменение. К возврату из метода изменение уже есть в снимке. Если выполняется перезагрузка, загруженные ею
+     * данные могут не содержать изменения, поэтому запрашивается повторная перезагрузка
+     * @param change - запись изменения в набор изменений снимка
+     */
+    private void update(Consumer<CatalogChanges> change) {
+        if (!enabled) {
+            return;
+        }
+        pendingChanges.add(change);
+        synchronized (applyLock) {
+            CatalogChanges changes = new CatalogChanges();
+            for (Consumer<CatalogChanges> pending = pendingChanges.poll(); pending != null; pending = pendingChanges.poll()) {
+                pending.accept(changes);
+            }
+            if (!changes.isEmpty()) {
+                snapshot.updateAndGet(current -> current != null ? current.apply(changes) : null);
+            }
+        }
+        if (reloading.get()) {
+            reloadRequested.set(true);
+        }
+    }
+}
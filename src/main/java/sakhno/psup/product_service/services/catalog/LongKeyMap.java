@@ -0,0 +1,159 @@
+package sakhno.psup.product_service.services.catalog;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Неизменяемая таблица с ключами типа long и открытой адресацией. Ключи хранятся в массиве примитивов, поэтому
+ * поиск выполняется без упаковки ключа и без промежуточных объектов записей.
+ *
+ * @param <V> - тип значения
+ */
+final class LongKeyMap<V> {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private LongKeyMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    private LongKeyMap(long[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Метод создает таблицу по элементам коллекции. При повторяющихся ключах остается последнее значение
+     * @param elements - элементы
+     * @param keyFunction - получение ключа элемента
+     * @param valueFunction - получение значения элемента, не должно возвращать null
+     * @return - таблица
+     * @param <T> - тип элемента
+     * @param <V> - тип значения
+     */
+    static <T, V> LongKeyMap<V> of(Collection<T> elements, ToLongFunction<T> keyFunction, Function<T, V> valueFunction) {
+        LongKeyMap<V> table = new LongKeyMap<>(elements.size());
+        int size = 0;
+        for (T element : elements) {
+            if (table.put(keyFunction.applyAsLong(element), valueFunction.apply(element))) {
+                size++;
+            }
+        }
+        return new LongKeyMap<>(table.keys, table.values, size);
+    }
+
+    /**
+     * Метод создает таблицу с измененными значениями. Массивы исходной таблицы копируются без повторного
+     * вычисления позиций ключей; таблица перестраивается, только если после изменений она заполнится больше
+     * чем наполовину. Исходная таблица не меняется
+     * @param changes - новые значения по ключу, null для удаления ключа
+     * @return - таблица с изменениями
+     */
+    LongKeyMap<V> with(Map<Long, V> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        int maximumSize = size + changes.size();
+        LongKeyMap<V> table;
+        if (maximumSize * 2 > keys.length) {
+            table = new LongKeyMap<>(maximumSize);
+            for (int index = 0; index < keys.length; index++) {
+                if (values[index] != null) {
+                    table.put(keys[index], valueAt(index));
+                }
+            }
+        } else {
+            table = new LongKeyMap<>(keys.clone(), values.clone(), 0);
+        }
+        int changedSize = size;
+        for (Map.Entry<Long, V> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                changedSize -= table.remove(change.getKey()) ? 1 : 0;
+            } else {
+                changedSize += table.put(change.getKey(), change.getValue()) ? 1 : 0;
+            }
+        }
+        return new LongKeyMap<>(table.keys, table.values, changedSize);
+    }
+
+    /**
+     * Метод позволяет получить значение по ключу
+     * @param key - ключ
+     * @return - значение или null, если ключа нет
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        for (int index = index(key); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return (V) values[index];
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean put(long key, V value) {
+        int index = index(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        return true;
+    }
+
+    /**
+     * Метод удаляет ключ со сдвигом следующих записей цепочки на освободившееся место, чтобы поиск
+     * не останавливался на пустой ячейке
+     * @param key - ключ
+     * @return - true, если ключ был в таблице
+     */
+    private boolean remove(long key) {
+        int hole = index(key);
+        while (values[hole] != null && keys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+        if (values[hole] == null) {
+            return false;
+        }
+        values[hole] = null;
+        for (int index = (hole + 1) & mask; values[index] != null; index = (index + 1) & mask) {
+            int home = index(keys[index]);
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                values[index] = null;
+                hole = index;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    private int index(long key) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
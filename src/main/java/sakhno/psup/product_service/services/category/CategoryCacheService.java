@@ -0,0 +1,94 @@
+package sakhno.psup.product_service.services.category;
+
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.services.cache.CachedValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Двухуровневый кэш категорий: локальный кэш экземпляра (L1) перед общим кэшем в Redis (L2)
+ */
+public interface CategoryCacheService {
+
+    /**
+     * Метод позволяет получить категорию из кэша по идентификатору
+     * @param id - идентификатор категории
+     * @return - DTO категории с признаком устаревания или пустой результат при промахе
+     */
+    Mono<CachedValue<CategoryDto>> get(Long id);
+
+    /**
+     * Метод позволяет положить категорию в кэш после чтения из базы
+     * @param categoryDto - категория
+     * @return - категория
+     */
+    Mono<CategoryDto> put(CategoryDto categoryDto);
+
+    /**
+     * Метод позволяет получить несколько категорий из кэша
+     * @param ids - идентификаторы категорий
+     * @return - найденные категории по идентификатору; отсутствующие в кэше идентификаторы в результат не попадают
+     */
+    Mono<Map<Long, CategoryDto>> getByIds(Collection<Long> ids);
+
+    /**
+     * Метод позволяет положить несколько категорий в кэш после чтения из базы
+     * @param categories - категории
+     * @return - категории
+     */
+    Mono<List<CategoryDto>> putMany(List<CategoryDto> categories);
+
+    /**
+     * Метод позволяет получить список всех категорий из кэша
+     * @return - список категорий с признаком устаревания или пустой результат при промахе
+     */
+    Mono<CachedValue<List<CategoryDto>>> getAll();
+
+    /**
+     * Метод позволяет получить эпоху списка категорий. Эпоха запрашивается до чтения списка из базы
+     * и передается в {@link #putAll(List, long)}
+     * @return - эпоха списка категорий
+     */
+    Mono<Long> listEpoch();
+
+    /**
+     * Метод позволяет положить список всех категорий в кэш после чтения из базы. Список не записывается,
+     * если категории изменились после получения эпохи
+     * @param categories - список категорий
+     * @param epoch - эпоха списка категорий, полученная до чтения из базы
+     * @return - список категорий
+     */
+    Mono<List<CategoryDto>> putAll(List<CategoryDto> categories, long epoch);
+
+    /**
+     * Метод позволяет заполнить кэш всеми категориями при старте экземпляра
+     * @param categories - список всех категорий
+     * @param epoch - эпоха списка категорий, полученная до чтения из базы
+     * @return - количество записанных категорий
+     */
+    Mono<Integer> warmUp(List<CategoryDto> categories, long epoch);
+
+    /**
+     * Метод позволяет обновить кэш после сохранения или редактирования категории
+     * @param categoryDto - сохраненная категория
+     * @return - категория
+     */
+    Mono<CategoryDto> updateAfterSave(CategoryDto categoryDto);
+
+    /**
+     * Метод позволяет обновить кэш после пакетного сохранения категорий одним обращением к Redis
+     * @param categories - сохраненные категории
+     * @return - категории
+     */
+    Mono<List<CategoryDto>> updateAfterBulkSave(List<CategoryDto> categories);
+
+    /**
+     * Метод позволяет удалить категорию из кэша
+     * @param id - идентификатор категории
+     * @return - идентификатор категории
+     */
+    Mono<Long> evict(Long id);
+}
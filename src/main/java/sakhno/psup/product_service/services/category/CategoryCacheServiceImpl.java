@@ -0,0 +1,443 @@
+package sakhno.psup.product_service.services.category;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.services.cache.CacheInvalidationService;
+import sakhno.psup.product_service.services.cache.CacheMetrics;
+import sakhno.psup.product_service.services.cache.CacheTtlPolicy;
+import sakhno.psup.product_service.services.cache.CachedValue;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.RedisCacheGuard;
+import sakhno.psup.product_service.services.cache.TombstoneCache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Записи категорий в Redis хранятся с жестким сроком жизни из {@link CacheTtlPolicy}. Для списка категорий срок
+ * жизни выставляется хэшу и отметке о загрузке, свежесть списка определяется по отметке. Каждое изменение категорий
+ * увеличивает эпоху списка; список, прочитанный из базы до изменения, в кэш не записывается.
+ * <p>
+ * Локальный кэш сбрасывается по оповещению об изменении категории, а если оповещение пропущено - целиком,
+ * когда периодическое чтение обнаруживает новую версию каталога
+ */
+@Service
+@Slf4j
+public class CategoryCacheServiceImpl implements CategoryCacheService {
+    private static final String CACHE_NAME = "category";
+    private static final String LIST_CACHE_NAME = "categories";
+    private static final String CATEGORY_CACHE_PREFIX = "category:";
+    private static final String CATEGORIES_CACHE_PREFIX = "categories:";
+    private static final String CATEGORIES_HASH_KEY = "categories:entries";
+    private static final String CATEGORIES_LOADED_KEY = "categories:loaded";
+    private static final String CATEGORIES_EPOCH_KEY = "categories:epoch";
+    private static final long UNKNOWN_EPOCH = -1;
+    private static final int WRITE_CONCURRENCY = 256;
+    private static final RedisScript<Long> UPDATE_CATEGORY_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/update_category.lua"), Long.class);
+    private static final RedisScript<Long> BULK_UPDATE_CATEGORIES_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/bulk_update_categories.lua"), Long.class);
+    private static final RedisScript<Long> EVICT_CATEGORY_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/evict_category.lua"), Long.class);
+    private static final RedisScript<Long> PUT_ALL_CATEGORIES_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/put_all_categories.lua"), Long.class);
+    private static final RedisElementWriter<Object> SCRIPT_ARGS_WRITER = arg -> arg instanceof ByteBuffer buffer
+            ? buffer.duplicate()
+            : StandardCharsets.UTF_8.encode(String.valueOf(arg));
+    private static final RedisElementReader<Long> SCRIPT_RESULT_READER =
+            buffer -> Long.valueOf(StandardCharsets.UTF_8.decode(buffer).toString());
+    private final ReactiveRedisTemplate<String, CategoryDto> categoryRedisTemplate;
+    private final ReactiveRedisTemplate<String, List<CategoryDto>> categoriesRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final CacheMetrics cacheMetrics;
+    private final RedisCacheGuard redisCacheGuard;
+    private final TombstoneCache tombstoneCache;
+    private final Cache<Long, CategoryDto> localCategoryCache;
+    private final Cache<String, List<CategoryDto>> localCategoriesCache;
+
+    public CategoryCacheServiceImpl(ReactiveRedisTemplate<String, CategoryDto> categoryRedisTemplate,
+                                    ReactiveRedisTemplate<String, List<CategoryDto>> categoriesRedisTemplate,
+                                    ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                    CacheInvalidationService cacheInvalidationService,
+                                    CacheTtlPolicy cacheTtlPolicy,
+                                    CacheMetrics cacheMetrics,
+                                    RedisCacheGuard redisCacheGuard,
+                                    TombstoneCache tombstoneCache,
+                                    CatalogVersionService catalogVersionService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cache.local.maximum-size:10000}") long maximumSize,
+                                    @Value("${cache.local.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.categoryRedisTemplate = categoryRedisTemplate;
+        this.categoriesRedisTemplate = categoriesRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.cacheTtlPolicy = cacheTtlPolicy;
+        this.cacheMetrics = cacheMetrics;
+        this.redisCacheGuard = redisCacheGuard;
+        this.tombstoneCache = tombstoneCache;
+        this.localCategoryCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.localCategoriesCache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCategoryCache, "category-local");
+        CaffeineCacheMetrics.monitor(meterRegistry, localCategoriesCache, "categories-local");
+        cacheInvalidationService.register(CACHE_NAME, this::invalidateLocal);
+        catalogVersionService.addRemoteChangeListener(version -> invalidateLocal(CacheInvalidationService.ALL_KEYS));
+    }
+
+    /**
+     * Метод позволяет получить категорию из кэша по идентификатору. Сначала проверяется локальный кэш,
+     * затем Redis. Найденная в Redis категория кладется в локальный кэш. Свежесть записи в Redis определяется
+     * по оставшемуся сроку жизни ключа
+     * @param id - идентификатор категории
+     * @return - DTO категории с признаком устаревания или пустой результат при промахе
+     */
+    @Override
+    public Mono<CachedValue<CategoryDto>> get(Long id) {
+        CategoryDto local = localCategoryCache.getIfPresent(id);
+        if (local != null) {
+            log.info("Категория {} найдена в локальном кэше", id);
+            cacheMetrics.localHit(CACHE_NAME);
+            return Mono.just(CachedValue.fresh(local));
+        }
+        String key = CATEGORY_CACHE_PREFIX + id;
+        Mono<CachedValue<CategoryDto>> cached = Mono.zip(categoryRedisTemplate.opsForValue().get(key),
+                        categoryRedisTemplate.getExpire(key).defaultIfEmpty(Duration.ZERO))
+                .doOnSubscribe(subscription -> log.info("Поиск категории по идентификатору в кэше: {}", id))
+                .map(tuple -> new CachedValue<>(tuple.getT1(), cacheTtlPolicy.isStale(tuple.getT2())));
+        return redisCacheGuard.read(CACHE_NAME, cacheMetrics.recordRedisRead(CACHE_NAME, cached))
+                .doOnNext(found -> localCategoryCache.put(id, found.getValue()));
+    }
+
+    /**
+     * Метод позволяет положить категорию в кэш после чтения из базы
+     * @param categoryDto - категория
+     * @return - категория
+     */
+    @Override
+    public Mono<CategoryDto> put(CategoryDto categoryDto) {
+        return updateSingleCategoryCache(categoryDto)
+                .doOnSuccess(updated -> localCategoryCache.put(categoryDto.getId(), categoryDto))
+                .thenReturn(categoryDto);
+    }
+
+    /**
+     * Метод позволяет получить несколько категорий из кэша. Сначала проверяется локальный кэш, оставшиеся
+     * категории читаются из Redis одной командой MGET и кладутся в локальный кэш. Свежесть записей не проверяется:
+     * устаревшие записи обновятся при чтении по одному идентификатору или истекут по TTL
+     * @param ids - идентификаторы категорий
+     * @return - найденные категории по идентификатору
+     */
+    @Override
+    public Mono<Map<Long, CategoryDto>> getByIds(Collection<Long> ids) {
+        Map<Long, CategoryDto> found = new HashMap<>(localCategoryCache.getAllPresent(ids));
+        List<Long> missing = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        cacheMetrics.recordLookups(CACHE_NAME, "local", found.size(), 0);
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+        List<String> keys = missing.stream()
+                .map(id -> CATEGORY_CACHE_PREFIX + id)
+                .toList();
+        return redisCacheGuard.read(CACHE_NAME,
+                        cacheMetrics.recordRedisBatchRead(CACHE_NAME, categoryRedisTemplate.opsForValue().multiGet(keys)))
+                .doOnSubscribe(subscription -> log.info("Поиск {} категорий в кэше", keys.size()))
+                .map(values -> {
+                    int hits = 0;
+                    for (int i = 0; i < missing.size(); i++) {
+                        CategoryDto categoryDto = values.get(i);
+                        if (categoryDto != null) {
+                            found.put(missing.get(i), categoryDto);
+                            localCategoryCache.put(missing.get(i), categoryDto);
+                            hits++;
+                        }
+                    }
+                    cacheMetrics.recordLookups(CACHE_NAME, "redis", hits, missing.size() - hits);
+                    return found;
+                })
+                .defaultIfEmpty(found);
+    }
+
+    /**
+     * Метод позволяет положить несколько категорий в кэш после чтения из базы. Записи отправляются параллельно
+     * и передаются в Redis конвейером по общему соединению
+     * @param categories - категории
+     * @return - категории
+     */
+    @Override
+    public Mono<List<CategoryDto>> putMany(List<CategoryDto> categories) {
+        return Flux.fromIterable(categories)
+                .flatMap(this::put, WRITE_CONCURRENCY)
+                .then(Mono.just(categories));
+    }
+
+    /**
+     * Метод позволяет получить список всех категорий из кэша. Сначала проверяется локальный кэш, затем хэш
+     * категорий в Redis. Хэш считается полным только при наличии отметки о загрузке из базы, свежесть списка
+     * определяется по оставшемуся сроку жизни отметки
+     * @return - список категорий с признаком устаревания или пустой результат при промахе
+     */
+    @Override
+    public Mono<CachedValue<List<CategoryDto>>> getAll() {
+        List<CategoryDto> local = localCategoriesCache.getIfPresent(CATEGORIES_CACHE_PREFIX);
+        if (local != null) {
+            log.info("Список категорий найден в локальном кэше");
+            cacheMetrics.localHit(LIST_CACHE_NAME);
+            return Mono.just(CachedValue.fresh(local));
+        }
+        Mono<CachedValue<List<CategoryDto>>> cached = Mono.zip(reactiveStringRedisTemplate.getExpire(CATEGORIES_LOADED_KEY),
+                        categoriesHash().values(CATEGORIES_HASH_KEY)
+                                .sort(Comparator.comparing(CategoryDto::getId))
+                                .collectList())
+                .doOnSubscribe(subscription -> log.info("Поиск всех категорий продукции в кэше"))
+                .filter(tuple -> !tuple.getT2().isEmpty())
+                .map(tuple -> new CachedValue<>(tuple.getT2(), cacheTtlPolicy.isStale(tuple.getT1())));
+        return redisCacheGuard.read(LIST_CACHE_NAME, cacheMetrics.recordRedisRead(LIST_CACHE_NAME, cached))
+                .doOnNext(found -> localCategoriesCache.put(CATEGORIES_CACHE_PREFIX, found.getValue()));
+    }
+
+    /**
+     * Метод позволяет получить эпоху списка категорий перед чтением списка из базы. При недоступности Redis
+     * возвращается неизвестная эпоха, и список после чтения в кэш не записывается
+     * @return - эпоха списка категорий
+     */
+    @Override
+    public Mono<Long> listEpoch() {
+        return redisCacheGuard.read(LIST_CACHE_NAME, reactiveStringRedisTemplate.opsForValue().get(CATEGORIES_EPOCH_KEY)
+                        .map(Long::valueOf)
+                        .defaultIfEmpty(0L))
+                .defaultIfEmpty(UNKNOWN_EPOCH);
+    }
+
+    /**
+     * Метод позволяет положить список всех категорий в кэш после чтения из базы. Хэш перезаписывается целиком
+     * вместе с отметкой о полной загрузке одним Lua-скриптом, хэш и отметка получают одинаковый срок жизни.
+     * Устаревший ключ со списком удаляется, чтобы миграция не перезаписала хэш более старыми данными. Если эпоха
+     * списка изменилась после начала чтения из базы, перезапись пропускается: параллельное изменение уже записано
+     * в кэш и новее прочитанного списка
+     * @param categories - список категорий
+     * @param epoch - эпоха списка категорий, полученная до чтения из базы
+     * @return - список категорий
+     */
+    @Override
+    public Mono<List<CategoryDto>> putAll(List<CategoryDto> categories, long epoch) {
+        if (epoch == UNKNOWN_EPOCH) {
+            return Mono.just(categories);
+        }
+        List<String> keys = List.of(CATEGORIES_HASH_KEY, CATEGORIES_CACHE_PREFIX, CATEGORIES_LOADED_KEY, CATEGORIES_EPOCH_KEY);
+        List<Object> args = new ArrayList<>(2 + categories.size() * 2);
+        args.add(String.valueOf(epoch));
+        args.add(String.valueOf(cacheTtlPolicy.nextTtl().toMillis()));
+        for (CategoryDto dto : categories) {
+            args.add(String.valueOf(dto.getId()));
+            args.add(categoryRedisTemplate.getSerializationContext().getValueSerializationPair().write(dto));
+        }
+        return redisCacheGuard.write(LIST_CACHE_NAME, executeScript(LIST_CACHE_NAME, PUT_ALL_CATEGORIES_SCRIPT, keys, args))
+                .doOnNext(count -> {
+                    if (count < 0) {
+                        log.info("Список категорий изменился после чтения из базы, перезапись кэша пропущена");
+                    } else {
+                        localCategoriesCache.put(CATEGORIES_CACHE_PREFIX, categories);
+                    }
+                })
+                .thenReturn(categories);
+    }
+
+    /**
+     * Метод позволяет заполнить кэш всеми категориями при старте экземпляра. Записи отдельных категорий
+     * отправляются параллельно и передаются в Redis конвейером по общему соединению
+     * @param categories - список всех категорий
+     * @param epoch - эпоха списка категорий, полученная до чтения из базы
+     * @return - количество записанных категорий
+     */
+    @Override
+    public Mono<Integer> warmUp(List<CategoryDto> categories, long epoch) {
+        return putAll(categories, epoch)
+                .then(putMany(categories))
+                .map(List::size);
+    }
+
+    /**
+     * Метод позволяет добавить категорию в кэш (category и categories) после сохранения в базе. Запись категории,
+     * поля в хэше категорий, удаление устаревшего ключа со списком и метки отсутствия категории выполняются одним
+     * Lua-скриптом. Остальные
+     * экземпляры сервиса сбрасывают эти записи в своих локальных кэшах
+     * @param dto - сохраненная категория
+     * @return - категория
+     */
+    @Override
+    public Mono<CategoryDto> updateAfterSave(CategoryDto dto) {
+        ByteBuffer value = categoryRedisTemplate.getSerializationContext().getValueSerializationPair().write(dto);
+        List<String> keys = List.of(CATEGORY_CACHE_PREFIX + dto.getId(), CATEGORIES_HASH_KEY, CATEGORIES_CACHE_PREFIX,
+                tombstoneCache.key(CACHE_NAME, dto.getId()), CATEGORIES_EPOCH_KEY);
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> executeScript(CACHE_NAME, UPDATE_CATEGORY_SCRIPT, keys,
+                                List.of(value, String.valueOf(dto.getId()), String.valueOf(cacheTtlPolicy.nextTtl().toMillis())))
+                        .then(publishInvalidation(String.valueOf(dto.getId()))))
+                .doOnSubscribe(subscription -> log.info("Добавление категории в кэш после сохранения"))
+                .doOnSuccess(done -> {
+                    localCategoryCache.put(dto.getId(), dto);
+                    localCategoriesCache.invalidateAll();
+                })
+                .thenReturn(dto);
+    }
+
+    /**
+     * Метод позволяет добавить категории в кэш после пакетного сохранения. Записи категорий, поля в хэше категорий,
+     * удаление устаревшего ключа со списком и меток отсутствия выполняются одним Lua-скриптом. Остальные экземпляры
+     * сервиса получают одно оповещение и сбрасывают локальные кэши категорий целиком
+     * @param categories - сохраненные категории
+     * @return - категории
+     */
+    @Override
+    public Mono<List<CategoryDto>> updateAfterBulkSave(List<CategoryDto> categories) {
+        if (categories.isEmpty()) {
+            return Mono.just(categories);
+        }
+        List<String> keys = new ArrayList<>(3 + categories.size() * 2);
+        List<Object> args = new ArrayList<>(categories.size() * 3);
+        keys.add(CATEGORIES_HASH_KEY);
+        keys.add(CATEGORIES_CACHE_PREFIX);
+        keys.add(CATEGORIES_EPOCH_KEY);
+        for (CategoryDto dto : categories) {
+            keys.add(CATEGORY_CACHE_PREFIX + dto.getId());
+            keys.add(tombstoneCache.key(CACHE_NAME, dto.getId()));
+            args.add(String.valueOf(dto.getId()));
+            args.add(categoryRedisTemplate.getSerializationContext().getValueSerializationPair().write(dto));
+            args.add(String.valueOf(cacheTtlPolicy.nextTtl().toMillis()));
+        }
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> executeScript(CACHE_NAME, BULK_UPDATE_CATEGORIES_SCRIPT, keys, args)
+                        .then(publishInvalidation(CacheInvalidationService.ALL_KEYS)))
+                .doOnSubscribe(subscription -> log.info("Добавление {} категорий в кэш после пакетного сохранения",
+                        categories.size()))
+                .doOnSuccess(done -> {
+                    categories.forEach(dto -> localCategoryCache.put(dto.getId(), dto));
+                    localCategoriesCache.invalidateAll();
+                })
+                .thenReturn(categories);
+    }
+
+    /**
+     * Метод позволяет удалить категорию из кэша (category и categories). Удаление выполняется одним Lua-скриптом
+     * @param categoryId - id категория для удаления
+     * @return - категория
+     */
+    @Override
+    public Mono<Long> evict(Long categoryId) {
+        List<String> keys = List.of(CATEGORY_CACHE_PREFIX + categoryId, CATEGORIES_HASH_KEY, CATEGORIES_CACHE_PREFIX,
+                CATEGORIES_EPOCH_KEY);
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> executeScript(CACHE_NAME, EVICT_CATEGORY_SCRIPT, keys,
+                                List.of(String.valueOf(categoryId)))
+                        .then(publishInvalidation(String.valueOf(categoryId))))
+                .doOnSubscribe(subscription -> log.info("Удаление категории из кэша: {}", categoryId))
+                .doOnSuccess(done -> invalidateLocal(String.valueOf(categoryId)))
+                .thenReturn(categoryId);
+    }
+
+    /**
+     * Метод позволяет обновить категорию в кэше. Каждая запись получает новый срок жизни со случайным смещением
+     * @param categoryDto - категория для обновления
+     * @return - флаг обновления
+     */
+    private Mono<Boolean> updateSingleCategoryCache(CategoryDto categoryDto) {
+        return redisCacheGuard.write(CACHE_NAME, cacheMetrics.recordRedisWrite(CACHE_NAME, categoryRedisTemplate.opsForValue()
+                .set(CATEGORY_CACHE_PREFIX + categoryDto.getId(), categoryDto, cacheTtlPolicy.nextTtl())));
+    }
+
+    /**
+     * Метод выполняет Lua-скрипт над ключами категории. Скрипт вызывается через EVALSHA и загружается в Redis
+     * командой EVAL только при первом вызове
+     * @param cacheName - название кэша для метрик
+     * @param script - Lua-скрипт
+     * @param keys - ключи скрипта
+     * @param args - аргументы скрипта: сериализованные значения передаются как есть, остальные - строками
+     * @return - результат скрипта
+     */
+    private Mono<Long> executeScript(String cacheName, RedisScript<Long> script, List<String> keys, List<?> args) {
+        return cacheMetrics.recordRedisWrite(cacheName,
+                categoryRedisTemplate.execute(script, keys, args, SCRIPT_ARGS_WRITER, SCRIPT_RESULT_READER).next());
+    }
+
+    /**
+     * Метод переносит список категорий из устаревшего формата (JSON-массив под ключом categories:) в хэш категорий.
+     * Выполняется один раз при старте экземпляра; при недоступности Redis миграция пропускается, а список будет
+     * загружен из базы при первом запросе
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyListCache() {
+        listEpoch()
+                .flatMap(epoch -> redisCacheGuard.read(LIST_CACHE_NAME, categoriesRedisTemplate.type(CATEGORIES_CACHE_PREFIX))
+                        .filter(DataType.STRING::equals)
+                        .flatMap(type -> redisCacheGuard.read(LIST_CACHE_NAME,
+                                categoriesRedisTemplate.opsForValue().get(CATEGORIES_CACHE_PREFIX)))
+                        .doOnNext(categories -> log.info("Миграция списка категорий в хэш: {} записей", categories.size()))
+                        .flatMap(categories -> putAll(categories, epoch)))
+                .then(redisCacheGuard.write(LIST_CACHE_NAME, categoriesRedisTemplate.delete(CATEGORIES_CACHE_PREFIX)))
+                .doOnSuccess(deleted -> log.info("Миграция списка категорий в хэш завершена"))
+                .subscribe(deleted -> { }, ex -> log.warn("Миграция списка категорий в хэш не выполнена: {}", ex.getMessage()));
+    }
+
+    /**
+     * Метод возвращает операции над хэшем категорий
+     * @return - операции над хэшем
+     */
+    private ReactiveHashOperations<String, String, CategoryDto> categoriesHash() {
+        return categoryRedisTemplate.opsForHash();
+    }
+
+    /**
+     * Метод оповещает остальные экземпляры сервиса об изменении категории и списка категорий
+     * @param key - идентификатор категории
+     * @return - количество получателей сообщения
+     */
+    private Mono<Long> publishInvalidation(String key) {
+        return cacheInvalidationService.publish(CACHE_NAME, key);
+    }
+
+    /**
+     * Метод сбрасывает категорию и список категорий в локальном кэше
+     * @param key - идентификатор категории или {@link CacheInvalidationService#ALL_KEYS}
+     */
+    private void invalidateLocal(String key) {
+        if (CacheInvalidationService.ALL_KEYS.equals(key)) {
+            localCategoryCache.invalidateAll();
+        } else {
+            localCategoryCache.invalidate(Long.valueOf(key));
+        }
+        localCategoriesCache.invalidateAll();
+    }
+}
@@ -2,9 +2,14 @@ package sakhno.psup.product_service.services.category;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
 import sakhno.psup.product_service.dto.category.CategoryDto;
 import sakhno.psup.product_service.dto.category.CategorySaveDto;
 import sakhno.psup.product_service.dto.category.CategoryUpdateDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+
+import java.util.List;
 
 public interface CategoryService {
 
@@ -15,12 +20,28 @@ public interface CategoryService {
      */
     Mono<CategoryDto> getById(Long id);
 
+    /**
+     * Метод позволяет получить несколько категорий по идентификаторам
+     * @param ids - идентификаторы категорий
+     * @return - найденные категории в порядке запроса
+     */
+    Flux<CategoryDto> getByIds(List<Long> ids);
+
     /**
      * Метод позволяет получить все категории
      * @return - список категорий
      */
     Flux<CategoryDto> getAll();
 
+    /**
+     * Метод позволяет получить страницу категорий
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок категорий
+     * @return - страница категорий
+     */
+    Mono<PageDto<CategoryDto>> getPage(Integer limit, String cursor, PageSort sort);
+
     /**
      * Метод позволяет сохранить категорию. В случае если запись с таким же именем существует, выбросит исключение
      * @param categorySaveDto - категория для сохранения
@@ -28,6 +49,14 @@ public interface CategoryService {
      */
     Mono<CategoryDto> save(CategorySaveDto categorySaveDto);
 
+    /**
+     * Метод позволяет сохранить несколько категорий за один запрос. Категории с занятыми или повторяющимися
+     * названиями пропускаются, остальные сохраняются в одной транзакции
+     * @param categories - категории для сохранения
+     * @return - результаты по каждой категории в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> saveAll(List<CategorySaveDto> categories);
+
     /**
      * Метод позволяет отредактировать категорию. В случае если запись с таким же именем существует, выбросит исключение.
      * В случае если по идентификатору категории не существует, выбросит исключение
@@ -36,10 +65,26 @@ public interface CategoryService {
      */
     Mono<CategoryDto> update(CategoryUpdateDto categoryUpdateDto);
 
+    /**
+     * Метод позволяет отредактировать несколько категорий за один запрос. Отсутствующие категории, повторы
+     * и занятые названия пропускаются, остальные изменяются в одной транзакции
+     * @param categories - категории для редактирования
+     * @return - результаты по каждой категории в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> updateAll(List<CategoryUpdateDto> categories);
+
     /**
      * Метод позволяет удалить категорию по идентификатору
      * @param id - идентификатор категории
      * @return - флаг удаления
      */
     Mono<Boolean> deleteById(Long id);
+
+    /**
+     * Метод позволяет удалить несколько категорий за один запрос. Отсутствующие категории и категории
+     * с подкатегориями пропускаются, остальные удаляются в одной транзакции
+     * @param ids - идентификаторы категорий
+     * @return - результаты по каждому идентификатору в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> deleteAll(List<Long> ids);
 }
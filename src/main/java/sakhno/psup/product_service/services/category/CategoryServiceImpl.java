@@ -2,21 +2,49 @@ package sakhno.psup.product_service.services.category;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemStatus;
 import sakhno.psup.product_service.dto.category.CategoryDto;
 import sakhno.psup.product_service.dto.category.CategorySaveDto;
 import sakhno.psup.product_service.dto.category.CategoryUpdateDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
 import sakhno.psup.product_service.exceptions.all.DuplicateEntityException;
 import sakhno.psup.product_service.exceptions.all.EntityNotFoundException;
 import sakhno.psup.product_service.mappers.category.CategoryMapper;
 import sakhno.psup.product_service.models.CategoryEntity;
 import sakhno.psup.product_service.repositories.CategoryRepository;
+import sakhno.psup.product_service.services.cache.CacheMetrics;
+import sakhno.psup.product_service.services.cache.CachedValue;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.LoadedValue;
+import sakhno.psup.product_service.services.cache.SingleFlightLoader;
+import sakhno.psup.product_service.services.cache.StaleIfErrorCache;
+import sakhno.psup.product_service.services.cache.TombstoneCache;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshot;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
+import sakhno.psup.product_service.services.database.DatabaseGuard;
+import sakhno.psup.product_service.services.page.PageCursor;
+import sakhno.psup.product_service.services.page.PageLimits;
+import sakhno.psup.product_service.services.subcategory.SubcategoryCacheService;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,211 +52,482 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
-    private final ReactiveRedisTemplate<String, CategoryDto> categoryRedisTemplate;
-    private final ReactiveRedisTemplate<String, List<CategoryDto>> categoriesRedisTemplate;
-    private static final String CATEGORY_CACHE_PREFIX = "category:";
-    private static final String CATEGORIES_CACHE_PREFIX = "categories:";
+    private final CategoryCacheService categoryCacheService;
+    private final SingleFlightLoader singleFlightLoader;
+    private final SubcategoryCacheService subcategoryCacheService;
+    private final CacheMetrics cacheMetrics;
+    private final TombstoneCache tombstoneCache;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final DatabaseGuard databaseGuard;
+    private final StaleIfErrorCache staleIfErrorCache;
+    private final PageLimits pageLimits;
+    private final TransactionalOperator transactionalOperator;
+    private static final String CATEGORY_CACHE_NAME = "category";
+    private static final String CATEGORIES_CACHE_NAME = "categories";
 
     /**
-     * Метод позволяет получить категорию по идентификатору
+     * Метод позволяет получить категорию по идентификатору. При промахе кэша одновременные запросы одной
+     * категории выполняют один запрос в базу. Устаревшая запись кэша возвращается сразу и обновляется в фоне.
+     * Для несуществующей категории записывается метка отсутствия, и повторные запросы не доходят до базы.
+     * Категория из снимка каталога возвращается без обращения к кэшу и базе. При недоступности базы возвращается
+     * последнее известное значение
      * @param id - идентификатор категории
      * @return - DTO категории
      */
     @Override
     public Mono<CategoryDto> getById(Long id) {
-        Mono<CategoryDto> categoryDtoMono = categoryRepository.findById(id)
-                .doOnSubscribe(subscription -> log.info("Поиск категории по идентификатору в базе: {}", id))
-                .doOnRequest(category -> log.info("Преобразование сущности категории в DTO"))
-                .map(categoryMapper::mapCategoryEntityToDto)
-                .doOnSuccess(category -> log.info("Преобразование сущности категории в DTO завершено"))
-                .flatMap(categoryDto -> categoryRedisTemplate.opsForValue()
-                        .set(CATEGORY_CACHE_PREFIX + id, categoryDto)
-                        .thenReturn(categoryDto)
-                );
-        return categoryRedisTemplate.opsForValue().get(CATEGORY_CACHE_PREFIX + id)
-                .doOnSubscribe(subscription -> log.info("Поиск категории по идентификатору в кэше: {}", id))
-                .switchIfEmpty(categoryDtoMono);
+        Optional<CategoryDto> fromSnapshot = catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.getCategory(id));
+        if (fromSnapshot.isPresent()) {
+            return Mono.just(fromSnapshot.get());
+        }
+        String key = CATEGORY_CACHE_NAME + ":" + id;
+        Mono<LoadedValue<CategoryDto>> categoryDtoMono = staleIfErrorCache.load(CATEGORY_CACHE_NAME, key, databaseGuard.execute(
+                        cacheMetrics.recordLoad(CATEGORY_CACHE_NAME, categoryRepository.findById(id)
+                                .doOnSubscribe(subscription -> log.info("Поиск категории по идентификатору в базе: {}", id))
+                                .doOnRequest(category -> log.info("Преобразование сущности категории в DTO"))
+                                .map(categoryMapper::mapCategoryEntityToDto)
+                                .doOnSuccess(category -> log.info("Преобразование сущности категории в DTO завершено"))))
+                .flatMap(categoryCacheService::put)
+                .switchIfEmpty(tombstoneCache.put(CATEGORY_CACHE_NAME, id).then(Mono.empty())));
+        return categoryCacheService.get(id)
+                .doOnNext(cached -> refreshIfStale(cached, CATEGORY_CACHE_NAME, key, categoryDtoMono))
+                .map(CachedValue::getValue)
+                .switchIfEmpty(tombstoneCache.exists(CATEGORY_CACHE_NAME, id)
+                        .filter(tombstone -> !tombstone)
+                        .flatMap(tombstone -> StaleIfErrorCache.unwrap(
+                                singleFlightLoader.load(CATEGORY_CACHE_NAME, key, () -> categoryDtoMono))));
     }
 
     /**
-     * Метод позволяет получить все категории
+     * Метод позволяет получить несколько категорий по идентификаторам. Категории ищутся в кэше одним MGET,
+     * отсутствующие загружаются из базы одним запросом и записываются в кэш. Повторяющиеся идентификаторы
+     * возвращаются один раз, ненайденные пропускаются. Если все категории есть в снимке каталога, они
+     * возвращаются из снимка. При недоступности базы отсутствующие в кэше категории берутся из последних известных
+     * значений, если они есть для всех таких категорий
+     * @param ids - идентификаторы категорий
+     * @return - найденные категории в порядке запроса
+     */
+    @Override
+    public Flux<CategoryDto> getByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
+                .toList();
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotService.current();
+        if (snapshot.isPresent() && distinctIds.stream().allMatch(id -> snapshot.get().getCategory(id).isPresent())) {
+            return Flux.fromIterable(distinctIds)
+                    .map(id -> snapshot.get().getCategory(id).orElseThrow());
+        }
+        return categoryCacheService.getByIds(distinctIds)
+                .flatMap(cached -> {
+                    List<Long> missing = distinctIds.stream()
+                            .filter(id -> !cached.containsKey(id))
+                            .toList();
+                    if (missing.isEmpty()) {
+                        return Mono.just(cached);
+                    }
+                    return databaseGuard.execute(cacheMetrics.recordLoad(CATEGORY_CACHE_NAME, categoryRepository.findAllById(missing)
+                                    .doOnSubscribe(subscription -> log.info("Поиск {} категорий в базе", missing.size()))
+                                    .map(categoryMapper::mapCategoryEntityToDto)
+                                    .collectList()))
+                            .doOnNext(loaded -> loaded.forEach(category ->
+                                    staleIfErrorCache.put(CATEGORY_CACHE_NAME + ":" + category.getId(), category)))
+                            .flatMap(categoryCacheService::putMany)
+                            .onErrorResume(DatabaseUnavailableException.class, ex -> staleIfErrorCache.<CategoryDto>staleValues(
+                                    CATEGORY_CACHE_NAME, missing.stream().map(id -> CATEGORY_CACHE_NAME + ":" + id).toList(), ex))
+                            .map(loaded -> {
+                                Map<Long, CategoryDto> found = new HashMap<>(cached);
+                                loaded.forEach(category -> found.put(category.getId(), category));
+                                return found;
+                            });
+                })
+                .flatMapMany(found -> Flux.fromIterable(distinctIds)
+                        .filter(found::containsKey)
+                        .map(found::get));
+    }
+
+    /**
+     * Метод позволяет получить все категории. При промахе кэша одновременные запросы выполняют один запрос в базу.
+     * Устаревший список возвращается сразу и обновляется в фоне. При наличии снимка каталога список берется из него.
+     * При недоступности базы возвращается последний известный список
      * @return - список категорий
      */
     @Override
     public Flux<CategoryDto> getAll() {
-        Mono<List<CategoryDto>> categoryDtoMono = categoryRepository.findAll()
-                .doOnSubscribe(subscription -> log.info("Поиск всех категорий продукции в базе"))
-                .doOnRequest(categories -> log.info("Преобразование списка сущностей категорий в DTO"))
-                .map(categoryMapper::mapCategoryEntityToDto)
-                .doOnComplete(() -> log.info("Преобразование списка сущностей категорий в DTO завершено"))
-                .collectList()
-                .flatMap(categoryList -> categoriesRedisTemplate.opsForValue()
-                        .set(CATEGORIES_CACHE_PREFIX, categoryList)
-                        .thenReturn(categoryList));
-
-        return categoriesRedisTemplate.opsForValue().get(CATEGORIES_CACHE_PREFIX)
-                .doOnSubscribe(subscription -> log.info("Поиск всех категорий продукции в кэше"))
-                .switchIfEmpty(categoryDtoMono)
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotService.current();
+        if (snapshot.isPresent()) {
+            return Flux.fromIterable(snapshot.get().getCategories());
+        }
+        Mono<LoadedValue<List<CategoryDto>>> categoryDtoMono = staleIfErrorCache.load(CATEGORIES_CACHE_NAME, CATEGORIES_CACHE_NAME,
+                categoryCacheService.listEpoch()
+                        .flatMap(epoch -> databaseGuard.execute(cacheMetrics.recordLoad(CATEGORIES_CACHE_NAME, categoryRepository.findAll()
+                                        .doOnSubscribe(subscription -> log.info("Поиск всех категорий продукции в базе"))
+                                        .doOnRequest(categories -> log.info("Преобразование списка сущностей категорий в DTO"))
+                                        .map(categoryMapper::mapCategoryEntityToDto)
+                                        .doOnComplete(() -> log.info("Преобразование списка сущностей категорий в DTO завершено"))
+                                        .collectList()))
+                                .flatMap(categories -> categoryCacheService.putAll(categories, epoch))));
+
+        return categoryCacheService.getAll()
+                .doOnNext(cached -> refreshIfStale(cached, CATEGORIES_CACHE_NAME, CATEGORIES_CACHE_NAME, categoryDtoMono))
+                .map(CachedValue::getValue)
+                .switchIfEmpty(StaleIfErrorCache.unwrap(
+                        singleFlightLoader.load(CATEGORIES_CACHE_NAME, CATEGORIES_CACHE_NAME, () -> categoryDtoMono)))
                 .flatMapMany(Flux::fromIterable);
     }
 
     /**
-     * Метод позволяет сохранить категорию.  В случае если запись с таким же именем существует, выбросит исключение.
+     * Метод позволяет получить страницу категорий. Страница читается по ключу сортировки последней категории
+     * предыдущей страницы, без OFFSET, поэтому время чтения не зависит от номера страницы
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок категорий
+     * @return - страница категорий
+     */
+    @Override
+    public Mono<PageDto<CategoryDto>> getPage(Integer limit, String cursor, PageSort sort) {
+        return Mono.defer(() -> {
+            int size = pageLimits.resolve(limit);
+            PageCursor position = PageCursor.decode(cursor, sort);
+            Flux<CategoryEntity> rows = sort == PageSort.NAME
+                    ? categoryRepository.findPageOrderByName(position.getLastName(), size + 1)
+                    : categoryRepository.findPageOrderById(position.getLastId(), size + 1);
+            return databaseGuard.read(rows
+                            .doOnSubscribe(subscription -> log.info("Поиск страницы категорий, размер: {}", size))
+                            .map(categoryMapper::mapCategoryEntityToDto)
+                            .collectList())
+                    .map(categories -> PageCursor.toPage(categories, size, sort, CategoryDto::getId, CategoryDto::getName));
+        });
+    }
+
+    /**
+     * Метод позволяет сохранить категорию. Уникальность имени проверяет ограничение базы: при вставке дубликата
+     * нарушение ограничения преобразуется в исключение дублирования. При недоступности базы сразу завершается ошибкой
      * @param categorySaveDto - категория для сохранения
      * @return - сохраненная категория
      */
     @Override
     public Mono<CategoryDto> save(CategorySaveDto categorySaveDto) {
-
-        Mono<CategoryDto> categoryDtoMono = Mono.just(categorySaveDto)
-                .doOnSubscribe(subscription -> log.info("Сохранение новой категории"))
-                .doOnRequest(r -> log.info("Преобразование DTO категории в сущность"))
-                .map(categoryMapper::mapCategorySaveDtoToEntity)
-                .flatMap(categoryRepository::save)
+        return databaseGuard.execute(Mono.just(categorySaveDto)
+                        .doOnSubscribe(subscription -> log.info("Сохранение новой категории"))
+                        .doOnRequest(r -> log.info("Преобразование DTO категории в сущность"))
+                        .map(categoryMapper::mapCategorySaveDtoToEntity)
+                        .flatMap(categoryRepository::save))
+                .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                        "Категория с именем: " + categorySaveDto.getName() + " уже существует"))
                 .doOnNext(saved -> log.info("Категория сохранена с ID: {}", saved.getId()))
                 .map(categoryMapper::mapCategoryEntityToDto)
                 .doOnSuccess(dto -> logCategoryMappingEnd())
-                .flatMap(this::updateCategoryCacheAfterSave);
+                .flatMap(categoryCacheService::updateAfterSave)
+                .doOnNext(catalogSnapshotService::putCategory)
+                .flatMap(this::bumpCatalogVersion);
+    }
 
-        return categoryRepository.findByName(categorySaveDto.getName())
-                .flatMap(existing -> Mono.<CategoryDto>error(new DuplicateEntityException(
-                        "Категория с именем: " + categorySaveDto.getName() + " уже существует")))
-                .switchIfEmpty(categoryDtoMono);
+    /**
+     * Метод позволяет сохранить несколько категорий за один запрос. Занятые названия проверяются одним запросом,
+     * повторы внутри запроса отклоняются, остальные категории вставляются одним пакетным запросом в транзакции.
+     * Кэш и версия каталога обновляются один раз после вставки. Если категорию с тем же названием успели создать
+     * параллельно, транзакция откатывается целиком и выбрасывается исключение дублирования
+     * @param categories - категории для сохранения
+     * @return - результаты по каждой категории в порядке запроса
+     */
+    @Override
+    public Mono<List<BulkItemResultDto>> saveAll(List<CategorySaveDto> categories) {
+        Set<String> names = categories.stream()
+                .map(CategorySaveDto::getName)
+                .collect(Collectors.toSet());
+        return databaseGuard.execute(categoryRepository.findExistingNames(names).collect(Collectors.toSet()))
+                .doOnSubscribe(subscription -> log.info("Пакетное сохранение {} категорий", categories.size()))
+                .flatMap(existingNames -> {
+                    BulkItemResultDto[] results = new BulkItemResultDto[categories.size()];
+                    Set<String> acceptedNames = new HashSet<>();
+                    List<Integer> accepted = new ArrayList<>();
+                    for (int i = 0; i < categories.size(); i++) {
+                        String name = categories.get(i).getName();
+                        if (existingNames.contains(name) || !acceptedNames.add(name)) {
+                            results[i] = BulkItemResultDto.rejected(i, name, BulkItemStatus.DUPLICATE,
+                                    "Категория с именем: " + name + " уже существует");
+                        } else {
+                            accepted.add(i);
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.just(List.of(results));
+                    }
+                    List<CategoryEntity> entities = accepted.stream()
+                            .map(i -> categoryMapper.mapCategorySaveDtoToEntity(categories.get(i)))
+                            .toList();
+                    return databaseGuard.executeBulk(transactionalOperator.transactional(categoryRepository.insertAll(entities))
+                                    .collectList())
+                            .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                                    "Часть категорий была создана параллельным запросом, повторите сохранение"))
+                            .doOnNext(saved -> log.info("Пакетно сохранено категорий: {}", saved.size()))
+                            .map(saved -> saved.stream().map(categoryMapper::mapCategoryEntityToDto).toList())
+                            .doOnNext(saved -> {
+                                for (int i = 0; i < saved.size(); i++) {
+                                    int index = accepted.get(i);
+                                    results[index] = BulkItemResultDto.created(index, saved.get(i).getName(), saved.get(i).getId());
+                                }
+                            })
+                            .flatMap(this::afterBulkSave)
+                            .then(Mono.fromSupplier(() -> List.of(results)));
+                });
     }
 
     /**
-     * Метод позволяет отредактировать категорию. В случае если запись с таким же именем существует, выбросит исключение.
-     * В случае если по идентификатору категории не существует, выбросит исключение
+     * Метод позволяет отредактировать несколько категорий за один запрос. Категории и занятые названия читаются
+     * двумя запросами на весь список. Отсутствующие категории получают статус NOT_FOUND, повторы идентификаторов
+     * и названий, а также названия других категорий - DUPLICATE, остальные изменяются одним запросом в транзакции.
+     * Кэш, снимок и версия каталога обновляются один раз после изменения. Если название успели занять параллельно,
+     * транзакция откатывается целиком и выбрасывается исключение дублирования
+     * @param categories - категории для редактирования
+     * @return - результаты по каждой категории в порядке запроса
+     */
+    @Override
+    public Mono<List<BulkItemResultDto>> updateAll(List<CategoryUpdateDto> categories) {
+        Set<Long> ids = categories.stream()
+                .map(CategoryUpdateDto::getId)
+                .collect(Collectors.toSet());
+        Set<String> names = categories.stream()
+                .map(CategoryUpdateDto::getName)
+                .collect(Collectors.toSet());
+        Mono<Map<Long, CategoryEntity>> existingMono = categoryRepository.findAllById(ids)
+                .collectMap(CategoryEntity::getId);
+        Mono<Map<String, Long>> nameOwnersMono = categoryRepository.findByNameIn(names)
+                .collectMap(CategoryEntity::getName, CategoryEntity::getId);
+        return databaseGuard.execute(Mono.zip(existingMono, nameOwnersMono))
+                .doOnSubscribe(subscription -> log.info("Пакетное редактирование {} категорий", categories.size()))
+                .flatMap(tuple -> {
+                    Map<Long, CategoryEntity> existing = tuple.getT1();
+                    Map<String, Long> nameOwners = tuple.getT2();
+                    BulkItemResultDto[] results = new BulkItemResultDto[categories.size()];
+                    Set<Long> acceptedIds = new HashSet<>();
+                    Set<String> acceptedNames = new HashSet<>();
+                    List<Integer> accepted = new ArrayList<>();
+                    for (int i = 0; i < categories.size(); i++) {
+                        CategoryUpdateDto category = categories.get(i);
+                        Long nameOwner = nameOwners.get(category.getName());
+                        if (!existing.containsKey(category.getId())) {
+                            results[i] = BulkItemResultDto.rejected(i, category.getName(), category.getId(),
+                                    BulkItemStatus.NOT_FOUND, "Категория не найдена по id: " + category.getId());
+                        } else if (acceptedIds.contains(category.getId())) {
+                            results[i] = BulkItemResultDto.rejected(i, category.getName(), category.getId(),
+                                    BulkItemStatus.DUPLICATE, "Категория с id " + category.getId() + " повторяется в запросе");
+                        } else if (nameOwner != null && !nameOwner.equals(category.getId())
+                                || !acceptedNames.add(category.getName())) {
+                            results[i] = BulkItemResultDto.rejected(i, category.getName(), category.getId(),
+                                    BulkItemStatus.DUPLICATE, "Категория с таким названием уже существует: " + category.getName());
+                        } else {
+                            acceptedIds.add(category.getId());
+                            accepted.add(i);
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.just(List.of(results));
+                    }
+                    List<CategoryEntity> entities = accepted.stream()
+                            .map(i -> {
+                                CategoryEntity entity = existing.get(categories.get(i).getId());
+                                categoryMapper.updateCategoryEntity(categories.get(i), entity);
+                                return entity;
+                            })
+                            .toList();
+                    return databaseGuard.executeBulk(transactionalOperator.transactional(categoryRepository.updateAll(entities))
+                                    .collectList())
+                            .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                                    "Часть названий была занята параллельным запросом, повторите редактирование"))
+                            .doOnNext(updated -> log.info("Пакетно отредактировано категорий: {}", updated.size()))
+                            .map(updated -> updated.stream().map(categoryMapper::mapCategoryEntityToDto).toList())
+                            .doOnNext(updated -> {
+                                for (int i = 0; i < updated.size(); i++) {
+                                    int index = accepted.get(i);
+                                    results[index] = BulkItemResultDto.updated(index, updated.get(i).getName(), updated.get(i).getId());
+                                }
+                            })
+                            .flatMap(this::afterBulkUpdate)
+                            .then(Mono.fromSupplier(() -> List.of(results)));
+                });
+    }
+
+    /**
+     * Метод позволяет отредактировать категорию одним запросом UPDATE по идентификатору. Если запись с таким же
+     * именем существует, ограничение уникальности базы отклонит изменение и будет выброшено исключение дублирования.
+     * Если запрос не изменил ни одной строки, категории не существует и выбрасывается исключение. При недоступности
+     * базы сразу завершается ошибкой
      * @param categoryUpdateDto - категория для редактирования
      * @return - отредактированная категория
      */
     @Override
     public Mono<CategoryDto> update(CategoryUpdateDto categoryUpdateDto) {
-        Mono<CategoryDto> categoryDtoMono = categoryRepository.findById(categoryUpdateDto.getId())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                        "Категория не найдена по id: " + categoryUpdateDto.getId())))
-                .flatMap(existingCategory -> updateCategoryEntity(categoryUpdateDto, existingCategory))
+        return databaseGuard.execute(categoryRepository.updateById(toUpdatedEntity(categoryUpdateDto))
+                        .doOnSubscribe(subscription -> log.info("Редактирование категории: {}", categoryUpdateDto.getId()))
+                        .switchIfEmpty(Mono.error(new EntityNotFoundException(
+                                "Категория не найдена по id: " + categoryUpdateDto.getId()))))
+                .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                        "Категория с таким названием уже существует: " + categoryUpdateDto.getName()))
                 .doOnNext(saved -> log.info("Категория отредактирована"))
                 .map(categoryMapper::mapCategoryEntityToDto)
                 .doOnSuccess(dto -> logCategoryMappingEnd())
-                .flatMap(this::updateCategoryCacheAfterSave);
-
-        return categoryRepository.findByNameAndIdNot(categoryUpdateDto.getName(), categoryUpdateDto.getId())
-                .flatMap(duplicate -> Mono.<CategoryDto>error(new DuplicateEntityException(
-                        "Категория с таким названием уже существует: " + categoryUpdateDto.getName())))
-                .switchIfEmpty(categoryDtoMono);
+                .flatMap(categoryCacheService::updateAfterSave)
+                .flatMap(dto -> subcategoryCacheService.updateCategory(categoryMapper.mapCategoryDtoToSimpleDto(dto))
+                        .thenReturn(dto))
+                .doOnNext(catalogSnapshotService::putCategory)
+                .flatMap(this::bumpCatalogVersion);
     }
 
     /**
-     * Метод позволяет удалить категорию по идентификатору
+     * Метод позволяет удалить категорию по идентификатору. Удаление выполняется одним запросом, результат
+     * определяется по количеству удаленных строк. Кэши очищаются, только если запись действительно была удалена
      * @param id - идентификатор категории
      * @return - флаг удаления
      */
     @Override
     public Mono<Boolean> deleteById(Long id) {
-        return categoryRepository.deleteById(id)
-                .doOnSubscribe(subscription -> log.info("Удаление категории по идентификатору: {}", id))
-                .then(categoriesRedisTemplate
-                        .opsForValue()
-                        .delete(CATEGORY_CACHE_PREFIX + id)
-                        .doOnSuccess(deleted -> log.info("Категория {} удалена из кэша: {}", id, deleted))
-                )
-                .then(deleteCategoryFromCache(id))
-                .then(categoryRepository.findById(id))
-                .map(found -> false)
-                .defaultIfEmpty(true);
-    }
-
-    /**
-     * Метод позволяет обновить категорию в базе на основе новых данных
-     * @param categoryUpdateDto - новые данные по категории
-     * @param existingCategory - существующая категория
-     * @return - отредактированная категория
-     */
-    private Mono<CategoryEntity> updateCategoryEntity(CategoryUpdateDto categoryUpdateDto, CategoryEntity existingCategory) {
-        log.info("Категория найдена. Производится обновление");
-        categoryMapper.updateCategoryEntity(categoryUpdateDto, existingCategory);
-        return categoryRepository.save(existingCategory);
+        return databaseGuard.execute(categoryRepository.removeById(id)
+                        .doOnSubscribe(subscription -> log.info("Удаление категории по идентификатору: {}", id)))
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("Категория не найдена по id: " + id)))
+                .then(Mono.fromRunnable(() -> catalogSnapshotService.removeCategory(id)))
+                .then(categoryCacheService.evict(id))
+                .then(subcategoryCacheService.evictCategory(id))
+                .then(catalogVersionService.bump(null))
+                .thenReturn(true);
     }
 
-
     /**
-     * Метод позволяет добавить категорию в кэш (category и categories) после сохранения в базе
-     * @param dto - сохраненная категория
-     * @return - категория
+     * Метод позволяет удалить несколько категорий за один запрос. В транзакции существующие категории блокируются
+     * одним запросом, категории с подкатегориями пропускаются, остальные удаляются одним запросом. Кэш, снимок
+     * и версия каталога обновляются один раз после удаления
+     * @param ids - идентификаторы категорий
+     * @return - результаты по каждому идентификатору в порядке запроса
      */
-    private Mono<CategoryDto> updateCategoryCacheAfterSave(CategoryDto dto) {
-        return Mono.when(updateSingleCategoryCache(dto), updateListCategoryCache(dto))
-                .doOnSubscribe(subscription -> log.info("Добавление категории в кэш после сохранения"))
-                .thenReturn(dto);
+    @Override
+    public Mono<List<BulkItemResultDto>> deleteAll(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
+                .toList();
+        Mono<Tuple2<Set<Long>, Set<Long>>> deletion = categoryRepository.lockExistingIds(distinctIds)
+                .collect(Collectors.toSet())
+                .flatMap(existing -> existing.isEmpty()
+                        ? Mono.just(Tuples.of(existing, Set.<Long>of()))
+                        : categoryRepository.findIdsWithSubcategories(existing)
+                                .collect(Collectors.toSet())
+                                .flatMap(withSubcategories -> {
+                                    List<Long> deletable = existing.stream()
+                                            .filter(id -> !withSubcategories.contains(id))
+                                            .toList();
+                                    return (deletable.isEmpty() ? Mono.just(0) : categoryRepository.removeAllById(deletable))
+                                            .thenReturn(Tuples.of(existing, withSubcategories));
+                                }));
+        return databaseGuard.executeBulk(transactionalOperator.transactional(deletion))
+                .doOnSubscribe(subscription -> log.info("Пакетное удаление {} категорий", ids.size()))
+                .flatMap(tuple -> {
+                    Set<Long> existing = tuple.getT1();
+                    Set<Long> withSubcategories = tuple.getT2();
+                    BulkItemResultDto[] results = new BulkItemResultDto[ids.size()];
+                    Set<Long> seen = new HashSet<>();
+                    List<Long> deleted = new ArrayList<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        Long id = ids.get(i);
+                        if (!seen.add(id)) {
+                            results[i] = BulkItemResultDto.rejected(i, null, id, BulkItemStatus.DUPLICATE,
+                                    "Категория с id " + id + " повторяется в запросе");
+                        } else if (!existing.contains(id)) {
+                            results[i] = BulkItemResultDto.rejected(i, null, id, BulkItemStatus.NOT_FOUND,
+                                    "Категория не найдена по id: " + id);
+                        } else if (withSubcategories.contains(id)) {
+                            results[i] = BulkItemResultDto.rejected(i, null, id, BulkItemStatus.HAS_SUBCATEGORIES,
+                                    "Категория с id " + id + " содержит подкатегории");
+                        } else {
+                            results[i] = BulkItemResultDto.deleted(i, id);
+                            deleted.add(id);
+                        }
+                    }
+                    log.info("Пакетно удалено категорий: {}", deleted.size());
+                    return deleted.isEmpty()
+                            ? Mono.just(List.of(results))
+                            : afterBulkDelete(deleted).then(Mono.fromSupplier(() -> List.of(results)));
+                });
     }
 
     /**
-     * Метод позволяет удалить категорию из кэша (category и categories)
-     * @param categoryId - id категория для удаления
-     * @return - категория
+     * Метод собирает сущность категории для изменения одним запросом: идентификатор и новые значения из DTO,
+     * сведения о последнем изменении выставляет маппер
+     * @param categoryUpdateDto - новые данные категории
+     * @return - сущность категории для изменения
      */
-    private Mono<Long> deleteCategoryFromCache(Long categoryId) {
-        return Mono.when(deleteCategoryFromSingleCache(categoryId), deleteCategoryFromListCache(categoryId))
-                .doOnSubscribe(subscription -> log.info("Удаление категории из кэша"))
-                .thenReturn(categoryId);
+    private CategoryEntity toUpdatedEntity(CategoryUpdateDto categoryUpdateDto) {
+        CategoryEntity category = new CategoryEntity();
+        category.setId(categoryUpdateDto.getId());
+        categoryMapper.updateCategoryEntity(categoryUpdateDto, category);
+        return category;
     }
 
     /**
-     * Метод позволяет обновить категорию в кэше
-     * @param categoryDto - категория для обновления
-     * @return - флаг обновления
+     * Метод обновляет кэш, снимок и версию каталога после пакетного сохранения категорий
+     * @param saved - сохраненные категории
+     * @return - сигнал завершения
      */
-    private Mono<Boolean> updateSingleCategoryCache(CategoryDto categoryDto) {
-        return categoryRedisTemplate.opsForValue()
-                .set(CATEGORY_CACHE_PREFIX + categoryDto.getId(), categoryDto);
+    private Mono<Void> afterBulkSave(List<CategoryDto> saved) {
+        return categoryCacheService.updateAfterBulkSave(saved)
+                .doOnNext(catalogSnapshotService::putCategories)
+                .then(catalogVersionService.bump(saved.get(saved.size() - 1).getCreatedDate()))
+                .then();
     }
 
     /**
-     * Метод позволяет удалить категорию из кэша
-     * @param categoryId - категория для удаления
-     * @return - флаг удаления
+     * Метод обновляет кэш категорий и подкатегорий, снимок и версию каталога после пакетного редактирования категорий
+     * @param updated - измененные категории
+     * @return - сигнал завершения
      */
-    private Mono<Boolean> deleteCategoryFromSingleCache(Long categoryId) {
-        return categoryRedisTemplate.opsForValue()
-                .delete(CATEGORY_CACHE_PREFIX + categoryId)
-                .doOnSubscribe(subscription -> log.info("Удаление категории из кэша: {}", categoryId));
+    private Mono<Void> afterBulkUpdate(List<CategoryDto> updated) {
+        return categoryCacheService.updateAfterBulkSave(updated)
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(category -> subcategoryCacheService.updateCategory(categoryMapper.mapCategoryDtoToSimpleDto(category)))
+                .then(Mono.fromRunnable(() -> catalogSnapshotService.putCategories(updated)))
+                .then(catalogVersionService.bump(updated.get(updated.size() - 1).getUpdatedDate()))
+                .then();
     }
 
     /**
-     * Метод позволяет обновить список категорий в кэше
-     * @param categoryDto - категория для обновления
-     * @return - флаг обновления
+     * Метод очищает кэш категорий и индексы подкатегорий, обновляет снимок и версию каталога после пакетного удаления
+     * @param deleted - идентификаторы удаленных категорий
+     * @return - сигнал завершения
      */
-    private Mono<Boolean> updateListCategoryCache(CategoryDto categoryDto) {
-        return categoriesRedisTemplate.opsForValue()
-                .get(CATEGORIES_CACHE_PREFIX)
-                .defaultIfEmpty(new ArrayList<>())
-                .map(list -> {
-                    List<CategoryDto> newList = new ArrayList<>(list);
-                    newList.add(categoryDto);
-                    return newList;
-                })
-                .flatMap(updatedList -> categoriesRedisTemplate.opsForValue()
-                        .set(CATEGORIES_CACHE_PREFIX, updatedList));
+    private Mono<Void> afterBulkDelete(List<Long> deleted) {
+        return Mono.fromRunnable(() -> deleted.forEach(catalogSnapshotService::removeCategory))
+                .thenMany(Flux.fromIterable(deleted))
+                .concatMap(id -> categoryCacheService.evict(id).then(subcategoryCacheService.evictCategory(id)))
+                .then(catalogVersionService.bump(null))
+                .then();
     }
 
     /**
-     * Метод позволяет удалить категорию из списка категорий в кэше
-     * @param categoryId - категория для удаления
-     * @return - флаг удаления
+     * Метод увеличивает версию каталога после изменения категории
+     * @param categoryDto - измененная категория
+     * @return - измененная категория
      */
-    private Mono<Boolean> deleteCategoryFromListCache(Long categoryId) {
-        return categoriesRedisTemplate.opsForValue()
-                .get(CATEGORIES_CACHE_PREFIX)
-                .defaultIfEmpty(new ArrayList<>())
-                .map(list -> list.stream()
-                        .filter(c -> !categoryId.equals(c.getId()))
-                        .toList())
-                .flatMap(updatedList -> categoriesRedisTemplate.opsForValue()
-                        .set(CATEGORIES_CACHE_PREFIX, updatedList));
+    private Mono<CategoryDto> bumpCatalogVersion(CategoryDto categoryDto) {
+        LocalDateTime modified = categoryDto.getUpdatedDate() != null
+                ? categoryDto.getUpdatedDate()
+                : categoryDto.getCreatedDate();
+        return catalogVersionService.bump(modified)
+                .thenReturn(categoryDto);
     }
 
+    /**
+     * Метод запускает фоновое обновление записи кэша, если истек ее мягкий срок жизни
+     * @param cached - значение из кэша
+     * @param cacheName - название кэша
+     * @param key - ключ кэша
+     * @param loader - загрузка из базы с записью в кэш
+     */
+    private <T> void refreshIfStale(CachedValue<?> cached, String cacheName, String key, Mono<T> loader) {
+        if (cached.isStale()) {
+            singleFlightLoader.refresh(cacheName, key, () -> loader);
+        }
+    }
 
     /**
      * Логирует преобразование категории в DTO. Для избежания warning
@@ -0,0 +1,126 @@
+package sakhno.psup.product_service.services.database;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.config.database.ReadReplicaRoutingConnectionFactory;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Компонент ограничивает время обращений к базе и прекращает их при ее недоступности. Операция получает таймаут
+ * {@code database.operation-timeout} и выполняется через автоматический выключатель resilience4j {@code database}.
+ * Ошибки подключения, таймауты и отказ открытого выключателя заменяются на {@link DatabaseUnavailableException}:
+ * чтение каталога в этом случае может вернуть последнее известное значение, а запись сразу завершается ответом 503,
+ * не ожидая освобождения соединений пула. Ошибки бизнес-логики и ограничений целостности не изменяются.
+ * <p>
+ * Чтение каталога выполняется через {@link #read(Mono)}: такая операция может быть направлена на реплику базы,
+ * если политика {@link ReplicaReadPolicy} это разрешает. Загрузка значений в общий кэш Redis выполняется через
+ * {@link #execute(Mono)} на основной базе: окно политики начинается, только когда экземпляр узнал об изменении,
+ * и значение с отстающей реплики, попавшее в Redis, отдавалось бы всем экземплярам до истечения срока жизни.
+ */
+@Component
+@Slf4j
+public class DatabaseGuard {
+    private static final String CIRCUIT_BREAKER_NAME = "database";
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final Duration bulkTimeout;
+    private final ReplicaReadPolicy replicaReadPolicy;
+
+    public DatabaseGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                         ReplicaReadPolicy replicaReadPolicy,
+                         @Value("${database.operation-timeout:2s}") Duration timeout,
+                         @Value("${database.bulk-operation-timeout:30s}") Duration bulkTimeout) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.timeout = timeout;
+        this.bulkTimeout = bulkTimeout;
+        this.replicaReadPolicy = replicaReadPolicy;
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Выключатель базы данных: {}", event.getStateTransition()));
+    }
+
+    /**
+     * Метод выполняет операцию с базой с ограничением времени и через выключатель
+     * @param operation - операция с базой
+     * @return - результат операции или ошибка {@link DatabaseUnavailableException} при недоступности базы
+     * @param <T> - тип результата
+     */
+    public <T> Mono<T> execute(Mono<T> operation) {
+        return execute(operation, timeout);
+    }
+
+    /**
+     * Метод выполняет чтение из базы. Отличается от {@link #execute(Mono)} тем, что чтение может быть выполнено
+     * на реплике; сразу после изменения каталога оно остается на основной базе. Не используется для чтения,
+     * результат которого нужен для последующей записи в базу или записывается в общий кэш
+     * @param operation - чтение из базы
+     * @return - результат чтения или ошибка {@link DatabaseUnavailableException} при недоступности базы
+     * @param <T> - тип результата
+     */
+    public <T> Mono<T> read(Mono<T> operation) {
+        return execute(operation.contextWrite(context -> replicaReadPolicy.replicaAllowed()
+                ? ReadReplicaRoutingConnectionFactory.readOnly(context)
+                : context), timeout);
+    }
+
+    /**
+     * Метод выполняет пакетную операцию с базой. Отличается от {@link #execute(Mono)} только ограничением времени
+     * {@code database.bulk-operation-timeout}: вставка тысяч строк не укладывается в таймаут обычного запроса
+     * @param operation - пакетная операция с базой
+     * @return - результат операции или ошибка {@link DatabaseUnavailableException} при недоступности базы
+     * @param <T> - тип результата
+     */
+    public <T> Mono<T> executeBulk(Mono<T> operation) {
+        return execute(operation, bulkTimeout);
+    }
+
+    /**
+     * Метод выполняет операцию с базой с собственным ограничением времени. Используется для операций, время которых
+     * не укладывается ни в таймаут обычного запроса, ни в таймаут пакетной операции
+     * @param operation - операция с базой
+     * @param operationTimeout - ограничение времени операции
+     * @return - результат операции или ошибка {@link DatabaseUnavailableException} при недоступности базы
+     * @param <T> - тип результата
+     */
+    public <T> Mono<T> execute(Mono<T> operation, Duration operationTimeout) {
+        return operation
+                .timeout(operationTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(DatabaseGuard::isUnavailable, ex -> {
+                    if (!(ex instanceof CallNotPermittedException)) {
+                        log.warn("Обращение к базе не выполнено: {}", ex.getMessage());
+                    }
+                    return new DatabaseUnavailableException("База данных недоступна, повторите запрос позже", ex);
+                });
+    }
+
+    /**
+     * Метод определяет, вызвана ли ошибка недоступностью базы
+     * @param ex - ошибка
+     * @return - признак недоступности базы
+     */
+    private static boolean isUnavailable(Throwable ex) {
+        return ex instanceof CallNotPermittedException
+                || ex instanceof TimeoutException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof TransientDataAccessResourceException
+                || ex instanceof QueryTimeoutException
+                || ex instanceof R2dbcTransientResourceException
+                || ex instanceof R2dbcNonTransientResourceException
+                || ex instanceof R2dbcTimeoutException;
+    }
+}
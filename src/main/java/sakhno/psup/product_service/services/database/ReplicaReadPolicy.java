@@ -0,0 +1,38 @@
+package sakhno.psup.product_service.services.database;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Компонент решает, можно ли читать каталог с реплики базы. После изменения каталога этим или другим экземпляром
+ * сервиса чтение в течение {@code database.replica.read-after-write-window} выполняется на основной базе, чтобы
+ * запись, еще не дошедшая до реплики, не была прочитана в устаревшем виде. Окно начинается, когда экземпляр узнал
+ * об изменении, поэтому на реплику направляются только чтения, результат которых не попадает в общий кэш: страницы,
+ * поиск и выгрузка продуктов.
+ */
+@Component
+public class ReplicaReadPolicy {
+    private final long windowNanos;
+    private volatile long primaryUntilNanos = System.nanoTime();
+
+    public ReplicaReadPolicy(@Value("${database.replica.read-after-write-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Метод отмечает изменение каталога. Чтение на ближайшее окно переводится на основную базу
+     */
+    public void onCatalogChange() {
+        primaryUntilNanos = System.nanoTime() + windowNanos;
+    }
+
+    /**
+     * Метод проверяет, можно ли выполнить чтение на реплике
+     * @return - true, если с последнего известного изменения каталога прошло больше окна
+     */
+    public boolean replicaAllowed() {
+        return System.nanoTime() - primaryUntilNanos >= 0;
+    }
+}
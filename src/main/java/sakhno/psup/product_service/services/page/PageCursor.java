@@ -0,0 +1,92 @@
+package sakhno.psup.product_service.services.page;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Позиция постраничного чтения: ключ сортировки последней записи предыдущей страницы. Следующая страница читается
+ * условием {@code (name, id) > (lastName, lastId)} по индексу, поэтому время чтения не зависит от номера страницы,
+ * в отличие от OFFSET. Клиенту позиция передается непрозрачной строкой base64url.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+    private static final String SEPARATOR = ":";
+    private final PageSort sort;
+    private final long lastId;
+    private final String lastName;
+
+    /**
+     * Метод создает позицию начала выборки
+     * @param sort - порядок записей
+     * @return - позиция первой страницы
+     */
+    public static PageCursor first(PageSort sort) {
+        return new PageCursor(sort, 0L, "");
+    }
+
+    /**
+     * Метод восстанавливает позицию из строки, полученной клиентом с предыдущей страницей
+     * @param cursor - строка позиции, пустое значение означает первую страницу
+     * @param sort - порядок записей текущего запроса
+     * @return - позиция
+     */
+    public static PageCursor decode(String cursor, PageSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return first(sort);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 3);
+            PageSort cursorSort = PageSort.valueOf(parts[0]);
+            if (cursorSort != sort) {
+                throw new InvalidPageCursorException("Курсор получен для другого порядка сортировки: " + cursorSort);
+            }
+            return new PageCursor(sort, Long.parseLong(parts[1]), parts.length > 2 ? parts[2] : "");
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new InvalidPageCursorException("Некорректный курсор страницы");
+        }
+    }
+
+    /**
+     * Метод собирает страницу из записей, прочитанных с запасом в одну запись. Наличие лишней записи означает,
+     * что есть следующая страница; ее позиция строится по последней записи текущей страницы
+     * @param rows - записи, не более {@code limit + 1}
+     * @param limit - размер страницы
+     * @param sort - порядок записей
+     * @param idFn - идентификатор записи
+     * @param nameFn - название записи
+     * @return - страница
+     * @param <T> - тип записи
+     */
+    public static <T> PageDto<T> toPage(List<T> rows, int limit, PageSort sort,
+                                        ToLongFunction<T> idFn, Function<T, String> nameFn) {
+        if (rows.size() <= limit) {
+            return new PageDto<>(rows, limit, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        String name = nameFn.apply(last);
+        PageCursor next = new PageCursor(sort, idFn.applyAsLong(last), name != null ? name : "");
+        return new PageDto<>(List.copyOf(items), limit, next.encode());
+    }
+
+    /**
+     * Метод кодирует позицию в непрозрачную строку
+     * @return - строка позиции
+     */
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + lastId + (sort == PageSort.NAME ? SEPARATOR + lastName : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package sakhno.psup.product_service.services.page;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ограничения размера страницы. Если размер не передан, используется {@code pagination.default-limit};
+ * размер больше {@code pagination.max-limit} уменьшается до него
+ */
+@Component
+public class PageLimits {
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public PageLimits(@Value("${pagination.default-limit:50}") int defaultLimit,
+                      @Value("${pagination.max-limit:500}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Метод определяет размер страницы
+     * @param requested - запрошенный размер
+     * @return - размер страницы с учетом ограничений
+     */
+    public int resolve(Integer requested) {
+        return requested == null ? defaultLimit : Math.min(requested, maxLimit);
+    }
+}
@@ -1,9 +1,27 @@
 package sakhno.psup.product_service.services.product;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
 import sakhno.psup.product_service.models.ProductEntity;
 
 public interface ProductService {
 
     Flux<ProductEntity> getAllProducts();
+
+    /**
+     * Метод позволяет получить все продукты потоком для выгрузки
+     * @return - поток продуктов
+     */
+    Flux<ProductEntity> streamAllProducts();
+
+    /**
+     * Метод позволяет получить страницу продуктов
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок продуктов
+     * @return - страница продуктов
+     */
+    Mono<PageDto<ProductEntity>> getPage(Integer limit, String cursor, PageSort sort);
 }
@@ -1,18 +1,81 @@
 package sakhno.psup.product_service.services.product;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.config.database.ReadReplicaRoutingConnectionFactory;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
 import sakhno.psup.product_service.models.ProductEntity;
 import sakhno.psup.product_service.repositories.ProductRepository;
+import sakhno.psup.product_service.services.database.DatabaseGuard;
+import sakhno.psup.product_service.services.page.PageCursor;
+import sakhno.psup.product_service.services.page.PageLimits;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
+    private final DatabaseGuard databaseGuard;
+    private final PageLimits pageLimits;
+    private final int streamFetchSize;
+    private final int streamPrefetch;
+
+    public ProductServiceImpl(ProductRepository productRepository,
+                              DatabaseGuard databaseGuard,
+                              PageLimits pageLimits,
+                              @Value("${streaming.fetch-size:500}") int streamFetchSize,
+                              @Value("${streaming.prefetch:256}") int streamPrefetch) {
+        this.productRepository = productRepository;
+        this.databaseGuard = databaseGuard;
+        this.pageLimits = pageLimits;
+        this.streamFetchSize = streamFetchSize;
+        this.streamPrefetch = streamPrefetch;
+    }
 
     @Override
     public Flux<ProductEntity> getAllProducts() {
         return productRepository.findAll();
     }
+
+    /**
+     * Метод позволяет получить все продукты потоком. Строки читаются из базы курсором порциями по
+     * {@code streaming.fetch-size}, а у источника запрашивается не больше {@code streaming.prefetch} записей
+     * сверх отправленных клиенту, поэтому память сервера не зависит от размера таблицы. Отключение клиента
+     * отменяет чтение и закрывает курсор. Выгрузка выполняется на реплике базы, если она настроена
+     * @return - поток продуктов
+     */
+    @Override
+    public Flux<ProductEntity> streamAllProducts() {
+        return productRepository.streamAll(streamFetchSize)
+                .doOnSubscribe(subscription -> log.info("Потоковая выгрузка продуктов"))
+                .limitRate(streamPrefetch)
+                .doOnCancel(() -> log.info("Потоковая выгрузка продуктов отменена клиентом"))
+                .contextWrite(ReadReplicaRoutingConnectionFactory::readOnly);
+    }
+
+    /**
+     * Метод позволяет получить страницу продуктов. Страница читается по ключу сортировки последней записи
+     * предыдущей страницы, без OFFSET
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок продуктов
+     * @return - страница продуктов
+     */
+    @Override
+    public Mono<PageDto<ProductEntity>> getPage(Integer limit, String cursor, PageSort sort) {
+        return Mono.defer(() -> {
+            int size = pageLimits.resolve(limit);
+            PageCursor position = PageCursor.decode(cursor, sort);
+            Flux<ProductEntity> rows = sort == PageSort.NAME
+                    ? productRepository.findPageOrderByName(position.getLastName(), position.getLastId(), size + 1)
+                    : productRepository.findPageOrderById(position.getLastId(), size + 1);
+            return databaseGuard.read(rows
+                            .doOnSubscribe(subscription -> log.info("Поиск страницы продуктов, размер: {}", size))
+                            .collectList())
+                    .map(products -> PageCursor.toPage(products, size, sort, ProductEntity::getId, ProductEntity::getName));
+        });
+    }
 }
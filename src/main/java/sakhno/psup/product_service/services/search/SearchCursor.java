@@ -0,0 +1,87 @@
+package sakhno.psup.product_service.services.search;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Позиция постраничного чтения результатов поиска: релевантность, тип и идентификатор последней записи предыдущей
+ * страницы. Результаты упорядочены по {@code (rank DESC, type, id)}, следующая страница читается условием после
+ * этой позиции, без OFFSET. Клиенту позиция передается непрозрачной строкой base64url.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SearchCursor {
+    private static final String SEPARATOR = ":";
+    private final Float lastRank;
+    private final SearchItemType lastType;
+    private final long lastId;
+
+    /**
+     * Метод создает позицию начала выборки
+     * @return - позиция первой страницы
+     */
+    public static SearchCursor first() {
+        return new SearchCursor(null, null, 0L);
+    }
+
+    /**
+     * Метод восстанавливает позицию из строки, полученной клиентом с предыдущей страницей
+     * @param cursor - строка позиции, пустое значение означает первую страницу
+     * @return - позиция
+     */
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return first();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 3);
+            return new SearchCursor(Float.parseFloat(parts[0]), SearchItemType.valueOf(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new InvalidPageCursorException("Некорректный курсор страницы");
+        }
+    }
+
+    /**
+     * Метод собирает страницу из результатов, прочитанных с запасом в одну запись. Наличие лишней записи означает,
+     * что есть следующая страница; ее позиция строится по последней записи текущей страницы
+     * @param rows - результаты, не более {@code limit + 1}
+     * @param limit - размер страницы
+     * @return - страница
+     */
+    public static PageDto<SearchResultDto> toPage(List<SearchResultDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new PageDto<>(rows, limit, null);
+        }
+        List<SearchResultDto> items = rows.subList(0, limit);
+        SearchResultDto last = items.get(limit - 1);
+        SearchCursor next = new SearchCursor(last.getRank(), last.getType(), last.getId());
+        return new PageDto<>(List.copyOf(items), limit, next.encode());
+    }
+
+    /**
+     * Метод проверяет, указывает ли позиция на начало выборки
+     * @return - true для первой страницы
+     */
+    public boolean isFirst() {
+        return lastRank == null;
+    }
+
+    /**
+     * Метод кодирует позицию в непрозрачную строку
+     * @return - строка позиции
+     */
+    public String encode() {
+        String raw = lastRank + SEPARATOR + lastType.name() + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,21 @@
+package sakhno.psup.product_service.services.search;
+
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+
+import java.util.Set;
+
+public interface SearchService {
+
+    /**
+     * Метод позволяет найти категории, подкатегории и продукты по названию и описанию
+     * @param query - поисковый запрос
+     * @param types - типы записей для поиска, пустое значение означает все типы
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @return - страница результатов в порядке убывания релевантности
+     */
+    Mono<PageDto<SearchResultDto>> search(String query, Set<SearchItemType> types, Integer limit, String cursor);
+}
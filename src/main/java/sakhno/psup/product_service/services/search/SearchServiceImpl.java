@@ -0,0 +1,55 @@
+package sakhno.psup.product_service.services.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+import sakhno.psup.product_service.repositories.CatalogSearchRepository;
+import sakhno.psup.product_service.services.database.DatabaseGuard;
+import sakhno.psup.product_service.services.page.PageLimits;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchServiceImpl implements SearchService {
+    private final CatalogSearchRepository catalogSearchRepository;
+    private final DatabaseGuard databaseGuard;
+    private final PageLimits pageLimits;
+
+    /**
+     * Метод позволяет найти категории, подкатегории и продукты по названию и описанию. Страница читается после
+     * позиции последней записи предыдущей страницы, без OFFSET. Поиск может выполняться на реплике базы
+     * @param query - поисковый запрос
+     * @param types - типы записей для поиска, пустое значение означает все типы
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @return - страница результатов в порядке убывания релевантности
+     */
+    @Override
+    public Mono<PageDto<SearchResultDto>> search(String query, Set<SearchItemType> types, Integer limit, String cursor) {
+        return Mono.defer(() -> {
+            int size = pageLimits.resolve(limit);
+            SearchCursor position = SearchCursor.decode(cursor);
+            String normalized = query.trim();
+            Set<SearchItemType> searchTypes = types == null || types.isEmpty()
+                    ? EnumSet.allOf(SearchItemType.class)
+                    : EnumSet.copyOf(types);
+            if (normalized.isEmpty()) {
+                return Mono.just(new PageDto<SearchResultDto>(List.of(), size, null));
+            }
+            return databaseGuard.read(catalogSearchRepository.search(normalized, searchTypes, position.getLastRank(),
+                                    position.getLastType(), position.getLastId(), size + 1)
+                            .doOnSubscribe(subscription -> log.info("Поиск по каталогу, типы: {}, размер страницы: {}",
+                                    searchTypes, size))
+                            .collectList())
+                    .map(results -> SearchCursor.toPage(results, size));
+        });
+    }
+}
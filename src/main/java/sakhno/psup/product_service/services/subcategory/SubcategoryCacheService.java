@@ -0,0 +1,101 @@
+package sakhno.psup.product_service.services.subcategory;
+
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategorySimpleDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Кэш подкатегорий в Redis. Помимо DTO подкатегорий хранит индексы принадлежности подкатегорий категориям
+ */
+public interface SubcategoryCacheService {
+
+    /**
+     * Метод позволяет получить подкатегорию из кэша по идентификатору
+     * @param id - идентификатор подкатегории
+     * @return - DTO подкатегории или пустой результат при промахе
+     */
+    Mono<SubcategoryDto> get(Long id);
+
+    /**
+     * Метод позволяет положить подкатегорию в кэш после чтения из базы
+     * @param subcategoryDto - подкатегория
+     * @return - подкатегория
+     */
+    Mono<SubcategoryDto> put(SubcategoryDto subcategoryDto);
+
+    /**
+     * Метод позволяет получить все подкатегории из кэша
+     * @return - список подкатегорий или пустой результат при промахе
+     */
+    Mono<List<SubcategoryDto>> getAll();
+
+    /**
+     * Метод позволяет положить все подкатегории в кэш после чтения из базы
+     * @param subcategories - список подкатегорий
+     * @return - список подкатегорий
+     */
+    Mono<List<SubcategoryDto>> putAll(List<SubcategoryDto> subcategories);
+
+    /**
+     * Метод позволяет получить подкатегории категории из кэша
+     * @param categoryId - идентификатор категории
+     * @return - список подкатегорий или пустой результат при промахе
+     */
+    Mono<List<SubcategoryDto>> getByCategoryId(Long categoryId);
+
+    /**
+     * Метод позволяет положить подкатегории категории в кэш после чтения из базы
+     * @param categoryId - идентификатор категории
+     * @param subcategories - список подкатегорий
+     * @return - список подкатегорий
+     */
+    Mono<List<SubcategoryDto>> putByCategoryId(Long categoryId, List<SubcategoryDto> subcategories);
+
+    /**
+     * Метод позволяет обновить кэш после сохранения или редактирования подкатегории
+     * @param subcategoryDto - сохраненная подкатегория
+     * @param previousCategoryId - идентификатор категории до редактирования (null для новой подкатегории)
+     * @return - подкатегория
+     */
+    Mono<SubcategoryDto> updateAfterSave(SubcategoryDto subcategoryDto, Long previousCategoryId);
+
+    /**
+     * Метод позволяет обновить кэш после пакетного сохранения новых подкатегорий
+     * @param subcategories - сохраненные подкатегории
+     * @return - подкатегории
+     */
+    Mono<List<SubcategoryDto>> updateAfterBulkSave(List<SubcategoryDto> subcategories);
+
+    /**
+     * Метод позволяет обновить кэш после пакетного редактирования подкатегорий
+     * @param subcategories - измененные подкатегории
+     * @param previousCategoryIds - категории подкатегорий до редактирования по идентификатору подкатегории
+     * @return - подкатегории
+     */
+    Mono<List<SubcategoryDto>> updateAfterBulkUpdate(List<SubcategoryDto> subcategories, Map<Long, Long> previousCategoryIds);
+
+    /**
+     * Метод позволяет удалить подкатегорию из кэша
+     * @param id - идентификатор подкатегории
+     * @return - идентификатор подкатегории
+     */
+    Mono<Long> evict(Long id);
+
+    /**
+     * Метод позволяет обновить данные категории в закэшированных подкатегориях после ее редактирования.
+     * Подкатегории категории удаляются из кэша и загружаются из базы при следующем чтении
+     * @param category - облегченная DTO категории
+     * @return - сигнал завершения
+     */
+    Mono<Void> updateCategory(CategorySimpleDto category);
+
+    /**
+     * Метод позволяет удалить индекс подкатегорий категории после ее удаления
+     * @param categoryId - идентификатор категории
+     * @return - сигнал завершения
+     */
+    Mono<Void> evictCategory(Long categoryId);
+}
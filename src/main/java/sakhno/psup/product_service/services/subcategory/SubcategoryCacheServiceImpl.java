@@ -0,0 +1,371 @@
+package sakhno.psup.product_service.services.subcategory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.category.CategorySimpleDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+import sakhno.psup.product_service.services.cache.CacheMetrics;
+import sakhno.psup.product_service.services.cache.CacheTtlPolicy;
+import sakhno.psup.product_service.services.cache.RedisCacheGuard;
+import sakhno.psup.product_service.services.cache.TombstoneCache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Индексы принадлежности хранятся во множествах Redis: {@code subcategories:ids} для всех подкатегорий и
+ * {@code category:{id}:subcategories} для подкатегорий категории. Множество считается полным только если содержит
+ * служебный элемент {@link #LOADED_MEMBER}, который добавляется при загрузке индекса из базы. Точечные записи
+ * добавляют и удаляют идентификаторы, не выставляя этот элемент. Значения и индексы записываются со сроком
+ * жизни из {@link CacheTtlPolicy}; каждая запись в индекс продлевает его срок жизни.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubcategoryCacheServiceImpl implements SubcategoryCacheService {
+    private static final String CACHE_NAME = "subcategory";
+    private static final String LIST_CACHE_NAME = "subcategories";
+    private static final String SUBCATEGORY_CACHE_PREFIX = "subcategory:";
+    private static final String SUBCATEGORIES_INDEX_KEY = "subcategories:ids";
+    private static final String CATEGORY_INDEX_PREFIX = "category:";
+    private static final String CATEGORY_INDEX_SUFFIX = ":subcategories";
+    private static final String LOADED_MEMBER = "loaded";
+    private static final RedisScript<Long> EVICT_CATEGORY_SUBCATEGORIES_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/scripts/evict_category_subcategories.lua"), Long.class);
+    private final ReactiveRedisTemplate<String, SubcategoryDto> subcategoryRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final CacheTtlPolicy cacheTtlPolicy;
+    private final CacheMetrics cacheMetrics;
+    private final RedisCacheGuard redisCacheGuard;
+    private final TombstoneCache tombstoneCache;
+
+    /**
+     * Метод позволяет получить подкатегорию из кэша по идентификатору
+     * @param id - идентификатор подкатегории
+     * @return - DTO подкатегории или пустой результат при промахе
+     */
+    @Override
+    public Mono<SubcategoryDto> get(Long id) {
+        return redisCacheGuard.read(CACHE_NAME,
+                        cacheMetrics.recordRedisRead(CACHE_NAME, subcategoryRedisTemplate.opsForValue().get(SUBCATEGORY_CACHE_PREFIX + id)))
+                .doOnSubscribe(subscription -> log.info("Поиск подкатегории по идентификатору в кэше: {}", id));
+    }
+
+    /**
+     * Метод позволяет положить подкатегорию в кэш после чтения из базы
+     * @param subcategoryDto - подкатегория
+     * @return - подкатегория
+     */
+    @Override
+    public Mono<SubcategoryDto> put(SubcategoryDto subcategoryDto) {
+        return redisCacheGuard.write(CACHE_NAME, putValue(subcategoryDto))
+                .thenReturn(subcategoryDto);
+    }
+
+    /**
+     * Метод позволяет получить все подкатегории из кэша
+     * @return - список подкатегорий или пустой результат при промахе
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> getAll() {
+        return redisCacheGuard.read(LIST_CACHE_NAME, cacheMetrics.recordRedisRead(LIST_CACHE_NAME, getByIndex(SUBCATEGORIES_INDEX_KEY, null)))
+                .doOnSubscribe(subscription -> log.info("Поиск всех подкатегорий в кэше"));
+    }
+
+    /**
+     * Метод позволяет положить все подкатегории в кэш после чтения из базы. Индексы категорий
+     * перестраиваются по загруженному списку
+     * @param subcategories - список подкатегорий
+     * @return - список подкатегорий
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> putAll(List<SubcategoryDto> subcategories) {
+        Map<Long, List<SubcategoryDto>> byCategory = subcategories.stream()
+                .collect(Collectors.groupingBy(subcategory -> subcategory.getCategory().getId()));
+        return redisCacheGuard.write(LIST_CACHE_NAME, cacheMetrics.recordRedisWrite(LIST_CACHE_NAME, Mono.when(putValues(subcategories),
+                        replaceIndex(SUBCATEGORIES_INDEX_KEY, subcategories),
+                        Mono.when(byCategory.entrySet().stream()
+                                .map(entry -> replaceIndex(categoryIndexKey(entry.getKey()), entry.getValue()))
+                                .toList()))))
+                .doOnSubscribe(subscription -> log.info("Добавление всех подкатегорий в кэш"))
+                .thenReturn(subcategories);
+    }
+
+    /**
+     * Метод позволяет получить подкатегории категории из кэша
+     * @param categoryId - идентификатор категории
+     * @return - список подкатегорий или пустой результат при промахе
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> getByCategoryId(Long categoryId) {
+        return redisCacheGuard.read(LIST_CACHE_NAME, cacheMetrics.recordRedisRead(LIST_CACHE_NAME, getByIndex(categoryIndexKey(categoryId), categoryId)))
+                .doOnSubscribe(subscription -> log.info("Поиск подкатегорий категории {} в кэше", categoryId));
+    }
+
+    /**
+     * Метод позволяет положить подкатегории категории в кэш после чтения из базы
+     * @param categoryId - идентификатор категории
+     * @param subcategories - список подкатегорий
+     * @return - список подкатегорий
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> putByCategoryId(Long categoryId, List<SubcategoryDto> subcategories) {
+        return redisCacheGuard.write(LIST_CACHE_NAME, cacheMetrics.recordRedisWrite(LIST_CACHE_NAME,
+                        Mono.when(putValues(subcategories), replaceIndex(categoryIndexKey(categoryId), subcategories))))
+                .doOnSubscribe(subscription -> log.info("Добавление подкатегорий категории {} в кэш", categoryId))
+                .thenReturn(subcategories);
+    }
+
+    /**
+     * Метод позволяет обновить кэш после сохранения или редактирования подкатегории. При смене категории
+     * подкатегория удаляется из индекса прежней категории. Метка отсутствия подкатегории удаляется
+     * @param dto - сохраненная подкатегория
+     * @param previousCategoryId - идентификатор категории до редактирования (null для новой подкатегории)
+     * @return - подкатегория
+     */
+    @Override
+    public Mono<SubcategoryDto> updateAfterSave(SubcategoryDto dto, Long previousCategoryId) {
+        String member = String.valueOf(dto.getId());
+        Long categoryId = dto.getCategory().getId();
+        Mono<Long> removeFromPrevious = previousCategoryId == null || previousCategoryId.equals(categoryId)
+                ? Mono.just(0L)
+                : reactiveStringRedisTemplate.opsForSet().remove(categoryIndexKey(previousCategoryId), member);
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> Mono.when(putValue(dto),
+                        cacheMetrics.recordRedisWrite(LIST_CACHE_NAME, Mono.when(
+                                addToIndex(SUBCATEGORIES_INDEX_KEY, member),
+                                addToIndex(categoryIndexKey(categoryId), member),
+                                removeFromPrevious)),
+                        tombstoneCache.clear(CACHE_NAME, dto.getId())))
+                .doOnSubscribe(subscription -> log.info("Добавление подкатегории в кэш после сохранения"))
+                .thenReturn(dto);
+    }
+
+    /**
+     * Метод позволяет добавить новые подкатегории в кэш после пакетного сохранения
+     * @param subcategories - сохраненные подкатегории
+     * @return - подкатегории
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> updateAfterBulkSave(List<SubcategoryDto> subcategories) {
+        return updateAfterBulkWrite(subcategories, Map.of())
+                .doOnSubscribe(subscription -> log.info("Добавление {} подкатегорий в кэш после пакетного сохранения",
+                        subcategories.size()));
+    }
+
+    /**
+     * Метод позволяет обновить кэш после пакетного редактирования подкатегорий. Помимо записи значений и индексов,
+     * как при пакетном сохранении, подкатегории, сменившие категорию, удаляются из индексов прежних категорий
+     * одной командой SREM на каждую прежнюю категорию
+     * @param subcategories - измененные подкатегории
+     * @param previousCategoryIds - категории подкатегорий до редактирования по идентификатору подкатегории
+     * @return - подкатегории
+     */
+    @Override
+    public Mono<List<SubcategoryDto>> updateAfterBulkUpdate(List<SubcategoryDto> subcategories,
+                                                            Map<Long, Long> previousCategoryIds) {
+        return updateAfterBulkWrite(subcategories, previousCategoryIds)
+                .doOnSubscribe(subscription -> log.info("Обновление {} подкатегорий в кэше после пакетного редактирования",
+                        subcategories.size()));
+    }
+
+    /**
+     * Метод записывает подкатегории в кэш после пакетной записи в базу. Значения записываются командами SET со сроком
+     * жизни, идентификаторы добавляются в общий индекс и в индекс каждой категории одной командой SADD, из индексов прежних
+     * категорий удаляются одной командой SREM, метки отсутствия удаляются одной командой DEL
+     * @param subcategories - записанные подкатегории
+     * @param previousCategoryIds - категории подкатегорий до записи по идентификатору подкатегории
+     * @return - подкатегории
+     */
+    private Mono<List<SubcategoryDto>> updateAfterBulkWrite(List<SubcategoryDto> subcategories,
+                                                           Map<Long, Long> previousCategoryIds) {
+        if (subcategories.isEmpty()) {
+            return Mono.just(subcategories);
+        }
+        String[] members = subcategories.stream()
+                .map(subcategory -> String.valueOf(subcategory.getId()))
+                .toArray(String[]::new);
+        Map<Long, String[]> membersByCategory = subcategories.stream()
+                .collect(Collectors.groupingBy(subcategory -> subcategory.getCategory().getId(),
+                        Collectors.collectingAndThen(Collectors.toList(), list -> list.stream()
+                                .map(subcategory -> String.valueOf(subcategory.getId()))
+                                .toArray(String[]::new))));
+        Map<Long, String[]> movedByPreviousCategory = subcategories.stream()
+                .filter(subcategory -> previousCategoryIds.containsKey(subcategory.getId())
+                        && !previousCategoryIds.get(subcategory.getId()).equals(subcategory.getCategory().getId()))
+                .collect(Collectors.groupingBy(subcategory -> previousCategoryIds.get(subcategory.getId()),
+                        Collectors.collectingAndThen(Collectors.toList(), list -> list.stream()
+                                .map(subcategory -> String.valueOf(subcategory.getId()))
+                                .toArray(String[]::new))));
+        String[] tombstones = subcategories.stream()
+                .map(subcategory -> tombstoneCache.key(CACHE_NAME, subcategory.getId()))
+                .toArray(String[]::new);
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> Mono.when(
+                        cacheMetrics.recordRedisWrite(CACHE_NAME, putValues(subcategories)),
+                        cacheMetrics.recordRedisWrite(LIST_CACHE_NAME, Mono.when(
+                                addToIndex(SUBCATEGORIES_INDEX_KEY, members),
+                                Mono.when(membersByCategory.entrySet().stream()
+                                        .map(entry -> addToIndex(categoryIndexKey(entry.getKey()), entry.getValue()))
+                                        .toList()),
+                                Mono.when(movedByPreviousCategory.entrySet().stream()
+                                        .map(entry -> reactiveStringRedisTemplate.opsForSet()
+                                                .remove(categoryIndexKey(entry.getKey()), (Object[]) entry.getValue()))
+                                        .toList()))),
+                        reactiveStringRedisTemplate.delete(tombstones)))
+                .thenReturn(subcategories);
+    }
+
+    /**
+     * Метод позволяет удалить подкатегорию из кэша. Категория подкатегории берется из удаляемой записи; если
+     * записи в кэше не было, устаревший элемент индекса категории будет обнаружен при чтении и индекс перезагрузится
+     * @param id - идентификатор подкатегории
+     * @return - идентификатор подкатегории
+     */
+    @Override
+    public Mono<Long> evict(Long id) {
+        String member = String.valueOf(id);
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> cacheMetrics.recordRedisWrite(CACHE_NAME, subcategoryRedisTemplate.opsForValue()
+                        .getAndDelete(SUBCATEGORY_CACHE_PREFIX + id)
+                        .doOnSubscribe(subscription -> log.info("Удаление подкатегории из кэша: {}", id))
+                        .flatMap(removed -> reactiveStringRedisTemplate.opsForSet()
+                                .remove(categoryIndexKey(removed.getCategory().getId()), member))
+                        .then(reactiveStringRedisTemplate.opsForSet().remove(SUBCATEGORIES_INDEX_KEY, member))))
+                .thenReturn(id);
+    }
+
+    /**
+     * Метод позволяет удалить из кэша подкатегории категории после ее редактирования. Записи подкатегорий из индекса
+     * категории и сам индекс удаляются одним Lua-скриптом, чтобы данные категории не разошлись с параллельной
+     * записью; при следующем чтении подкатегории загрузятся из базы с актуальной категорией
+     * @param category - облегченная DTO категории
+     * @return - сигнал завершения
+     */
+    @Override
+    public Mono<Void> updateCategory(CategorySimpleDto category) {
+        return redisCacheGuard.writeOrDefer(CACHE_NAME, () -> cacheMetrics.recordRedisWrite(CACHE_NAME, reactiveStringRedisTemplate
+                        .execute(EVICT_CATEGORY_SUBCATEGORIES_SCRIPT, List.of(categoryIndexKey(category.getId())),
+                                List.of(SUBCATEGORY_CACHE_PREFIX, LOADED_MEMBER))
+                        .next()
+                        .doOnNext(removed -> log.info("Удаление {} подкатегорий категории {} из кэша после ее редактирования",
+                                removed, category.getId()))));
+    }
+
+    /**
+     * Метод позволяет удалить индекс подкатегорий категории после ее удаления
+     * @param categoryId - идентификатор категории
+     * @return - сигнал завершения
+     */
+    @Override
+    public Mono<Void> evictCategory(Long categoryId) {
+        return redisCacheGuard.writeOrDefer(LIST_CACHE_NAME,
+                () -> cacheMetrics.recordRedisWrite(LIST_CACHE_NAME, reactiveStringRedisTemplate.delete(categoryIndexKey(categoryId))));
+    }
+
+    /**
+     * Метод читает подкатегории по индексу одним запросом MGET. Неполный индекс или отсутствие любой из
+     * подкатегорий считается промахом. Для индекса категории промахом считается и подкатегория, перенесенная
+     * в другую категорию: если прежняя категория при редактировании была неизвестна, подкатегория остается
+     * в ее индексе
+     * @param indexKey - ключ индекса
+     * @param categoryId - категория индекса или null для индекса всех подкатегорий
+     * @return - список подкатегорий, отсортированный по идентификатору, или пустой результат при промахе
+     */
+    private Mono<List<SubcategoryDto>> getByIndex(String indexKey, Long categoryId) {
+        return reactiveStringRedisTemplate.opsForSet().members(indexKey)
+                .collectList()
+                .filter(members -> members.contains(LOADED_MEMBER))
+                .flatMap(members -> {
+                    List<String> keys = members.stream()
+                            .filter(member -> !LOADED_MEMBER.equals(member))
+                            .map(member -> SUBCATEGORY_CACHE_PREFIX + member)
+                            .toList();
+                    if (keys.isEmpty()) {
+                        return Mono.just(List.<SubcategoryDto>of());
+                    }
+                    return subcategoryRedisTemplate.opsForValue().multiGet(keys)
+                            .filter(values -> values.size() == keys.size() && values.stream().allMatch(value -> value != null
+                                    && (categoryId == null || categoryId.equals(value.getCategory().getId()))))
+                            .map(values -> values.stream()
+                                    .sorted(Comparator.comparing(SubcategoryDto::getId))
+                                    .toList());
+                });
+    }
+
+    /**
+     * Метод записывает подкатегорию в Redis со сроком жизни
+     * @param subcategoryDto - подкатегория
+     * @return - флаг записи
+     */
+    private Mono<Boolean> putValue(SubcategoryDto subcategoryDto) {
+        return cacheMetrics.recordRedisWrite(CACHE_NAME, setValue(subcategoryDto));
+    }
+
+    /**
+     * Метод записывает подкатегории командами SET со сроком жизни. MSET не выставляет TTL, поэтому команды
+     * отправляются по одной на подкатегорию и выполняются клиентом конвейером
+     * @param subcategories - список подкатегорий
+     * @return - флаг записи
+     */
+    private Mono<Boolean> putValues(List<SubcategoryDto> subcategories) {
+        if (subcategories.isEmpty()) {
+            return Mono.just(true);
+        }
+        return Flux.fromIterable(subcategories)
+                .flatMap(this::setValue)
+                .all(Boolean::booleanValue);
+    }
+
+    /**
+     * Метод записывает подкатегорию командой SET со сроком жизни из политики кэша
+     * @param subcategoryDto - подкатегория
+     * @return - флаг записи
+     */
+    private Mono<Boolean> setValue(SubcategoryDto subcategoryDto) {
+        return subcategoryRedisTemplate.opsForValue()
+                .set(SUBCATEGORY_CACHE_PREFIX + subcategoryDto.getId(), subcategoryDto, cacheTtlPolicy.nextTtl());
+    }
+
+    /**
+     * Метод добавляет идентификаторы в индекс и продлевает срок жизни индекса
+     * @param indexKey - ключ индекса
+     * @param members - идентификаторы подкатегорий
+     * @return - количество добавленных элементов
+     */
+    private Mono<Long> addToIndex(String indexKey, String... members) {
+        return reactiveStringRedisTemplate.opsForSet().add(indexKey, members)
+                .flatMap(added -> reactiveStringRedisTemplate.expire(indexKey, cacheTtlPolicy.nextTtl())
+                        .thenReturn(added));
+    }
+
+    /**
+     * Метод перезаписывает индекс, отмечает его как полный и выставляет срок жизни
+     * @param indexKey - ключ индекса
+     * @param subcategories - подкатегории индекса
+     * @return - количество элементов индекса
+     */
+    private Mono<Long> replaceIndex(String indexKey, List<SubcategoryDto> subcategories) {
+        List<String> members = new ArrayList<>(subcategories.size() + 1);
+        members.add(LOADED_MEMBER);
+        subcategories.forEach(subcategory -> members.add(String.valueOf(subcategory.getId())));
+        return reactiveStringRedisTemplate.delete(indexKey)
+                .then(addToIndex(indexKey, members.toArray(String[]::new)));
+    }
+
+    /**
+     * Метод возвращает ключ индекса подкатегорий категории
+     * @param categoryId - идентификатор категории
+     * @return - ключ индекса
+     */
+    private String categoryIndexKey(Long categoryId) {
+        return CATEGORY_INDEX_PREFIX + categoryId + CATEGORY_INDEX_SUFFIX;
+    }
+}
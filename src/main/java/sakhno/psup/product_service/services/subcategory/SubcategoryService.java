@@ -2,10 +2,15 @@ package sakhno.psup.product_service.services.subcategory;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategorySaveDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryUpdateDto;
 
+import java.util.List;
+
 public interface SubcategoryService {
     /**
      * Метод позволяет получить подкатегорию по идентификатору
@@ -15,12 +20,21 @@ public interface SubcategoryService {
     Mono<SubcategoryDto> getById(Long id);
 
     /**
-     * Метод позволяет получить все подкатегории. Для избежания запросов N + 1 в базу реализованна сложная логика
-     * преобразования. Читайте комментарии к методам, использованных в конвейере потока.
+     * Метод позволяет получить все подкатегории. Подкатегории читаются вместе с категориями одним запросом,
+     * без запросов N + 1 в базу
      * @return - список подкатегорий
      */
     Flux<SubcategoryDto> getAll();
 
+    /**
+     * Метод позволяет получить страницу подкатегорий
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок подкатегорий
+     * @return - страница подкатегорий
+     */
+    Mono<PageDto<SubcategoryDto>> getPage(Integer limit, String cursor, PageSort sort);
+
     /**
      * Метод позволяет получить подкатегории по id категории
      * @param categoryId - идентификатор категории
@@ -35,6 +49,14 @@ public interface SubcategoryService {
      */
     Mono<SubcategoryDto> save(SubcategorySaveDto subcategorySaveDto);
 
+    /**
+     * Метод позволяет сохранить несколько подкатегорий за один запрос. Подкатегории с несуществующей категорией,
+     * занятыми или повторяющимися в категории названиями пропускаются, остальные сохраняются в одной транзакции
+     * @param subcategories - подкатегории для сохранения
+     * @return - результаты по каждой подкатегории в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> saveAll(List<SubcategorySaveDto> subcategories);
+
     /**
      * Метод позволяет отредактировать подкатегорию
      * @param subcategoryUpdateDto - редактируемая подкатегория
@@ -42,10 +64,27 @@ public interface SubcategoryService {
      */
     Mono<SubcategoryDto> update(SubcategoryUpdateDto subcategoryUpdateDto);
 
+    /**
+     * Метод позволяет отредактировать несколько подкатегорий за один запрос. Отсутствующие подкатегории,
+     * подкатегории с несуществующей категорией, повторы и занятые названия пропускаются, остальные изменяются
+     * в одной транзакции
+     * @param subcategories - подкатегории для редактирования
+     * @return - результаты по каждой подкатегории в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> updateAll(List<SubcategoryUpdateDto> subcategories);
+
     /**
      * Метод позволяет удалить подкатегорию
      * @param id - идентификатор подкатегории
      * @return - флаг удаления
      */
     Mono<Boolean> deleteById(Long id);
+
+    /**
+     * Метод позволяет удалить несколько подкатегорий за один запрос. Отсутствующие подкатегории пропускаются,
+     * остальные удаляются в одной транзакции
+     * @param ids - идентификаторы подкатегорий
+     * @return - результаты по каждому идентификатору в порядке запроса
+     */
+    Mono<List<BulkItemResultDto>> deleteAll(List<Long> ids);
 }
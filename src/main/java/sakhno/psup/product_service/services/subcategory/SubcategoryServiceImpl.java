@@ -1,10 +1,18 @@
 package sakhno.psup.product_service.services.subcategory;
 
+import io.r2dbc.spi.R2dbcException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemStatus;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategorySaveDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryUpdateDto;
@@ -16,10 +24,26 @@ import sakhno.psup.product_service.models.CategoryEntity;
 import sakhno.psup.product_service.models.SubcategoryEntity;
 import sakhno.psup.product_service.repositories.CategoryRepository;
 import sakhno.psup.product_service.repositories.SubcategoryRepository;
+import sakhno.psup.product_service.services.cache.CacheMetrics;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.LoadedValue;
+import sakhno.psup.product_service.services.cache.SingleFlightLoader;
+import sakhno.psup.product_service.services.cache.StaleIfErrorCache;
+import sakhno.psup.product_service.services.cache.TombstoneCache;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshot;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
+import sakhno.psup.product_service.services.database.DatabaseGuard;
+import sakhno.psup.product_service.services.page.PageCursor;
+import sakhno.psup.product_service.services.page.PageLimits;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,162 +53,484 @@ public class SubcategoryServiceImpl implements SubcategoryService  {
     private final SubcategoryRepository subcategoryRepository;
     private final CategoryRepository categoryRepository;
     private final SubcategoryMapper subcategoryMapper;
-
+    private final SubcategoryCacheService subcategoryCacheService;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CacheMetrics cacheMetrics;
+    private final TombstoneCache tombstoneCache;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final DatabaseGuard databaseGuard;
+    private final StaleIfErrorCache staleIfErrorCache;
+    private final PageLimits pageLimits;
+    private final TransactionalOperator transactionalOperator;
+    private static final String SUBCATEGORY_CACHE_NAME = "subcategory";
+    private static final String SUBCATEGORIES_CACHE_NAME = "subcategories";
+    /**
+     * Коды нарушения внешнего ключа: 23503 в PostgreSQL, 23506 в H2
+     */
+    private static final Set<String> FOREIGN_KEY_VIOLATION_STATES = Set.of("23503", "23506");
 
     /**
-     * Метод позволяет получить подкатегорию по идентификатору
+     * Метод позволяет получить подкатегорию по идентификатору. Сначала подкатегория ищется в кэше, при промахе
+     * подкатегория и ее категория читаются из базы одним запросом. Для
+     * несуществующей подкатегории записывается метка отсутствия, и повторные запросы не доходят до базы.
+     * Подкатегория из снимка каталога возвращается без обращения к кэшу и базе. При недоступности базы возвращается
+     * последнее известное значение
      * @param id - идентификатор
      * @return - найденная подкатегория
      */
     public Mono<SubcategoryDto> getById(Long id) {
-        return subcategoryRepository.findById(id)
-                .doOnSubscribe(subscription -> logSearchSubcategoryById(id))
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("Подкатегория с id %d не найдена".formatted(id))))
-                .doOnNext(subcategory -> this.logCategorySearchById(subcategory.getCategoryId()))
-                .flatMap(subcategory -> categoryRepository.findById(subcategory.getCategoryId())
-                        .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                                "Категория с id %d не найдена".formatted(subcategory.getCategoryId()))))
-                        .doOnNext(category -> logSubcategoryMappingStart())
-                        .map(category -> subcategoryMapper.mapToSubCategoryDto(subcategory, category)))
-                .doOnSuccess(dto -> logSuccessMappingDto());
+        Optional<SubcategoryDto> fromSnapshot = catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.getSubcategory(id));
+        if (fromSnapshot.isPresent()) {
+            return Mono.just(fromSnapshot.get());
+        }
+        String key = SUBCATEGORY_CACHE_NAME + ":" + id;
+        Mono<LoadedValue<SubcategoryDto>> subcategoryDtoMono = staleIfErrorCache.load(SUBCATEGORY_CACHE_NAME, key, databaseGuard.execute(
+                cacheMetrics.recordLoad(SUBCATEGORY_CACHE_NAME, subcategoryRepository.findDtoById(id)
+                        .doOnSubscribe(subscription -> logSearchSubcategoryById(id))
+                        .switchIfEmpty(tombstoneCache.put(SUBCATEGORY_CACHE_NAME, id)
+                                .then(Mono.error(subcategoryNotFound(id))))
+                        .doOnSuccess(dto -> logSuccessMappingDto())))
+                .flatMap(subcategoryCacheService::put));
+        return subcategoryCacheService.get(id)
+                .switchIfEmpty(tombstoneCache.exists(SUBCATEGORY_CACHE_NAME, id)
+                        .flatMap(tombstone -> tombstone
+                                ? Mono.error(subcategoryNotFound(id))
+                                : StaleIfErrorCache.unwrap(
+                                        singleFlightLoader.load(SUBCATEGORY_CACHE_NAME, key, () -> subcategoryDtoMono))));
     }
 
     /**
-     * Метод позволяет получить все подкатегории. Для избежания запросов N + 1 в базу реализованна сложная логика
-     * преобразования. Читайте комментарии к методам, использованных в конвейере потока.
+     * Метод позволяет получить все подкатегории. Подкатегории читаются из базы вместе с категориями одним запросом
+     * и преобразуются в DTO по мере получения строк. При наличии снимка каталога
+     * список берется из него. При недоступности базы возвращается последний известный список
      * @return - список подкатегорий
      */
     @Override
     public Flux<SubcategoryDto> getAll() {
-        return subcategoryRepository.findAll()
-                .doOnSubscribe(subscription -> log.info("Поиск всех подкатегорий продукции"))
-                .switchIfEmpty(Mono.error(new EntitiesNotFoundException("Подкатегории не найдены")))
-                .collectList()
-                .flatMapMany(this::getCategoryAndMappingToDtoFor)
-                .doOnComplete(this::logSubcategoryMappingEnd);
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotService.current();
+        if (snapshot.isPresent()) {
+            return fromNonEmptyList(snapshot.get().getSubcategories());
+        }
+        Mono<LoadedValue<List<SubcategoryDto>>> subcategoryDtoMono = staleIfErrorCache.load(SUBCATEGORIES_CACHE_NAME, SUBCATEGORIES_CACHE_NAME,
+                databaseGuard.execute(cacheMetrics.recordLoad(SUBCATEGORIES_CACHE_NAME, subcategoryRepository.findAllDtos()
+                        .doOnSubscribe(subscription -> log.info("Поиск всех подкатегорий продукции"))
+                        .switchIfEmpty(Mono.error(new EntitiesNotFoundException("Подкатегории не найдены")))
+                        .doOnComplete(this::logSubcategoryMappingEnd)
+                        .collectList()))
+                .flatMap(subcategoryCacheService::putAll));
+        return subcategoryCacheService.getAll()
+                .switchIfEmpty(StaleIfErrorCache.unwrap(singleFlightLoader.load(SUBCATEGORIES_CACHE_NAME,
+                        SUBCATEGORIES_CACHE_NAME, () -> subcategoryDtoMono)))
+                .flatMapMany(this::fromNonEmptyList);
+    }
+
+    /**
+     * Метод позволяет получить страницу подкатегорий одним запросом: страница читается по ключу сортировки последней
+     * подкатегории предыдущей страницы, без OFFSET, вместе с категориями через соединение таблиц
+     * @param limit - размер страницы
+     * @param cursor - курсор, полученный с предыдущей страницей
+     * @param sort - порядок подкатегорий
+     * @return - страница подкатегорий
+     */
+    @Override
+    public Mono<PageDto<SubcategoryDto>> getPage(Integer limit, String cursor, PageSort sort) {
+        return Mono.defer(() -> {
+            int size = pageLimits.resolve(limit);
+            PageCursor position = PageCursor.decode(cursor, sort);
+            Flux<SubcategoryDto> rows = sort == PageSort.NAME
+                    ? subcategoryRepository.findPageDtosOrderByName(position.getLastName(), position.getLastId(), size + 1)
+                    : subcategoryRepository.findPageDtosOrderById(position.getLastId(), size + 1);
+            return databaseGuard.read(rows
+                            .doOnSubscribe(subscription -> log.info("Поиск страницы подкатегорий, размер: {}", size))
+                            .collectList())
+                    .map(subcategories -> PageCursor.toPage(subcategories, size, sort,
+                            SubcategoryDto::getId, SubcategoryDto::getName));
+        });
     }
 
     /**
-     * Метод позволяет получить подкатегории по id категории
+     * Метод позволяет получить подкатегории по id категории одним запросом в базу. Существование категории
+     * проверяется отдельно, только если подкатегорий не найдено. Если категория есть в снимке каталога, подкатегории
+     * берутся из снимка. При недоступности базы возвращается последний известный список
      * @param categoryId - идентификатор категории
      * @return - список подкатегорий
      */
     @Override
     public Flux<SubcategoryDto> getByCategoryId(Long categoryId) {
-        return categoryRepository.findById(categoryId)
-                .doOnSubscribe(subscription -> this.logCategorySearchById(categoryId))
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("Категория с id %s не найдена".formatted(categoryId))))
-                .flatMapMany(category ->
-                        subcategoryRepository.findByCategoryId(categoryId)
-                                .doOnSubscribe(subscription -> log.info("Поиск подкатегорий по id категории: {}", categoryId))
-                                .switchIfEmpty(Mono.error(new EntitiesNotFoundException("Подкатегории не найдены")))
-                                .doOnNext(subcategory -> logSubcategoryMappingStart())
-                                .map(subcategory -> subcategoryMapper.mapToSubCategoryDto(subcategory, category))
-                                .doOnComplete(this::logSubcategoryMappingEnd)
-        );
+        Optional<List<SubcategoryDto>> fromSnapshot = catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.getSubcategoriesByCategoryId(categoryId));
+        if (fromSnapshot.isPresent()) {
+            return fromNonEmptyList(fromSnapshot.get());
+        }
+        String key = SUBCATEGORIES_CACHE_NAME + ":category:" + categoryId;
+        Mono<LoadedValue<List<SubcategoryDto>>> subcategoryDtoMono = staleIfErrorCache.load(SUBCATEGORIES_CACHE_NAME, key,
+                databaseGuard.execute(cacheMetrics.recordLoad(SUBCATEGORIES_CACHE_NAME, subcategoryRepository.findDtosByCategoryId(categoryId)
+                        .doOnSubscribe(subscription -> log.info("Поиск подкатегорий по id категории: {}", categoryId))
+                        .switchIfEmpty(categoryRepository.existsById(categoryId)
+                                .doOnSubscribe(subscription -> this.logCategorySearchById(categoryId))
+                                .flatMap(exists -> Mono.<SubcategoryDto>error(exists
+                                        ? new EntitiesNotFoundException("Подкатегории не найдены")
+                                        : new EntityNotFoundException("Категория с id %s не найдена".formatted(categoryId)))))
+                        .doOnComplete(this::logSubcategoryMappingEnd)
+                        .collectList()))
+                .flatMap(subcategories -> subcategoryCacheService.putByCategoryId(categoryId, subcategories)));
+        return subcategoryCacheService.getByCategoryId(categoryId)
+                .switchIfEmpty(StaleIfErrorCache.unwrap(
+                        singleFlightLoader.load(SUBCATEGORIES_CACHE_NAME, key, () -> subcategoryDtoMono)))
+                .flatMapMany(this::fromNonEmptyList);
     }
 
     /**
-     * Метод позволяет сохранить новую подкатегорию
+     * Метод позволяет сохранить новую подкатегорию одним запросом INSERT. Существование категории и уникальность
+     * имени внутри категории проверяют ограничения базы: нарушение внешнего ключа преобразуется в исключение
+     * отсутствия категории, нарушение уникальности - в исключение дублирования. Название категории для ответа
+     * берется из снимка каталога. При недоступности базы сразу завершается ошибкой
      * @param subcategorySaveDto - сохраняемая подкатегория
      * @return - сохраненная подкатегория
      */
     @Override
     public Mono<SubcategoryDto> save(SubcategorySaveDto subcategorySaveDto) {
-        return subcategoryRepository.findByNameAndCategoryId(subcategorySaveDto.getName(), subcategorySaveDto.getCategoryId())
-                .doOnSubscribe(subscription -> logSubcategoryDuplicateCheck())
-                .flatMap(existing -> Mono.<SubcategoryDto>error(new DuplicateEntityException(
-                        "Подкатегория с именем: " + subcategorySaveDto.getName() + " уже существует")))
-                .switchIfEmpty(categoryRepository.findById(subcategorySaveDto.getCategoryId())
-                        .doOnSubscribe(subscription -> this.logCategorySearchById(subcategorySaveDto.getCategoryId()))
-                        .switchIfEmpty(Mono.error(new EntityNotFoundException("Категория с id %s не найдена".formatted(
-                                subcategorySaveDto.getCategoryId()))))
-                        .flatMap(category -> subcategoryRepository.save(subcategoryMapper.mapToSubCategoryEntity(subcategorySaveDto, category.getId()))
-                                .doOnSubscribe(subscription -> log.info("Сохранение подкатегории"))
-                                .doOnNext(subcategory -> logSubcategoryMappingStart())
-                                .map(subcategoryEntity -> subcategoryMapper.mapToSubCategoryDto(subcategoryEntity, category))
-                                .doOnSuccess(dto -> logSuccessMappingDto())));
-    }
-
-    /**
-     * Метод позволяет отредактировать подкатегорию
+        Long categoryId = subcategorySaveDto.getCategoryId();
+        return databaseGuard.execute(subcategoryRepository.save(subcategoryMapper.mapToSubCategoryEntity(subcategorySaveDto, categoryId))
+                        .doOnSubscribe(subscription -> log.info("Сохранение подкатегории")))
+                .onErrorMap(DuplicateKeyException.class, ex -> duplicateSubcategory(subcategorySaveDto.getName()))
+                .onErrorMap(SubcategoryServiceImpl::isMissingCategory, ex -> categoryNotFound(categoryId))
+                .doOnNext(subcategory -> logSubcategoryMappingStart())
+                .flatMap(subcategoryEntity -> findCategory(categoryId)
+                        .map(category -> subcategoryMapper.mapToSubCategoryDto(subcategoryEntity, category)))
+                .doOnSuccess(dto -> logSuccessMappingDto())
+                .flatMap(dto -> subcategoryCacheService.updateAfterSave(dto, null))
+                .doOnNext(catalogSnapshotService::putSubcategory)
+                .flatMap(this::bumpCatalogVersion);
+    }
+
+    /**
+     * Метод позволяет сохранить несколько подкатегорий за один запрос. Категории и занятые названия проверяются
+     * двумя запросами на весь список, повторы внутри запроса отклоняются, остальные подкатегории вставляются одним
+     * пакетным запросом в транзакции. Кэш и версия каталога обновляются один раз после вставки. Если подкатегорию
+     * с тем же названием успели создать параллельно, транзакция откатывается целиком и выбрасывается исключение
+     * дублирования
+     * @param subcategories - подкатегории для сохранения
+     * @return - результаты по каждой подкатегории в порядке запроса
+     */
+    @Override
+    public Mono<List<BulkItemResultDto>> saveAll(List<SubcategorySaveDto> subcategories) {
+        Set<Long> categoryIds = subcategories.stream()
+                .map(SubcategorySaveDto::getCategoryId)
+                .collect(Collectors.toSet());
+        Set<String> names = subcategories.stream()
+                .map(SubcategorySaveDto::getName)
+                .collect(Collectors.toSet());
+        Mono<Map<Long, CategoryEntity>> categoriesMono = categoryRepository.findAllById(categoryIds)
+                .collectMap(CategoryEntity::getId);
+        Mono<Set<String>> existingMono = subcategoryRepository.findByCategoryIdInAndNameIn(categoryIds, names)
+                .map(existing -> nameInCategory(existing.getCategoryId(), existing.getName()))
+                .collect(Collectors.toSet());
+        return databaseGuard.execute(Mono.zip(categoriesMono, existingMono))
+                .doOnSubscribe(subscription -> log.info("Пакетное сохранение {} подкатегорий", subcategories.size()))
+                .flatMap(tuple -> {
+                    Map<Long, CategoryEntity> categories = tuple.getT1();
+                    Set<String> existing = tuple.getT2();
+                    BulkItemResultDto[] results = new BulkItemResultDto[subcategories.size()];
+                    Set<String> acceptedNames = new HashSet<>();
+                    List<Integer> accepted = new ArrayList<>();
+                    for (int i = 0; i < subcategories.size(); i++) {
+                        SubcategorySaveDto subcategory = subcategories.get(i);
+                        String key = nameInCategory(subcategory.getCategoryId(), subcategory.getName());
+                        if (!categories.containsKey(subcategory.getCategoryId())) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), BulkItemStatus.CATEGORY_NOT_FOUND,
+                                    "Категория с id %s не найдена".formatted(subcategory.getCategoryId()));
+                        } else if (existing.contains(key) || !acceptedNames.add(key)) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), BulkItemStatus.DUPLICATE,
+                                    "Подкатегория с именем: " + subcategory.getName() + " уже существует");
+                        } else {
+                            accepted.add(i);
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.just(List.of(results));
+                    }
+                    List<SubcategoryEntity> entities = accepted.stream()
+                            .map(i -> subcategoryMapper.mapToSubCategoryEntity(subcategories.get(i), subcategories.get(i).getCategoryId()))
+                            .toList();
+                    return databaseGuard.executeBulk(transactionalOperator.transactional(subcategoryRepository.insertAll(entities))
+                                    .collectList())
+                            .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                                    "Часть подкатегорий была создана параллельным запросом, повторите сохранение"))
+                            .doOnNext(saved -> log.info("Пакетно сохранено подкатегорий: {}", saved.size()))
+                            .map(saved -> saved.stream()
+                                    .map(entity -> subcategoryMapper.mapToSubCategoryDto(entity, categories.get(entity.getCategoryId())))
+                                    .toList())
+                            .doOnNext(saved -> {
+                                for (int i = 0; i < saved.size(); i++) {
+                                    int index = accepted.get(i);
+                                    results[index] = BulkItemResultDto.created(index, saved.get(i).getName(), saved.get(i).getId());
+                                }
+                            })
+                            .flatMap(this::afterBulkSave)
+                            .then(Mono.fromSupplier(() -> List.of(results)));
+                });
+    }
+
+    /**
+     * Метод позволяет отредактировать несколько подкатегорий за один запрос. Подкатегории, категории и занятые
+     * названия читаются тремя запросами на весь список. Отсутствующие подкатегории получают статус NOT_FOUND,
+     * подкатегории с несуществующей категорией - CATEGORY_NOT_FOUND, повторы идентификаторов и названий внутри
+     * категории, а также названия других подкатегорий - DUPLICATE, остальные изменяются одним запросом в транзакции.
+     * Кэш, снимок и версия каталога обновляются один раз после изменения. Если название успели занять параллельно,
+     * транзакция откатывается целиком и выбрасывается исключение дублирования
+     * @param subcategories - подкатегории для редактирования
+     * @return - результаты по каждой подкатегории в порядке запроса
+     */
+    @Override
+    public Mono<List<BulkItemResultDto>> updateAll(List<SubcategoryUpdateDto> subcategories) {
+        Set<Long> ids = subcategories.stream()
+                .map(SubcategoryUpdateDto::getId)
+                .collect(Collectors.toSet());
+        Set<Long> categoryIds = subcategories.stream()
+                .map(SubcategoryUpdateDto::getCategoryId)
+                .collect(Collectors.toSet());
+        Set<String> names = subcategories.stream()
+                .map(SubcategoryUpdateDto::getName)
+                .collect(Collectors.toSet());
+        Mono<Map<Long, SubcategoryEntity>> existingMono = subcategoryRepository.findAllById(ids)
+                .collectMap(SubcategoryEntity::getId);
+        Mono<Map<Long, CategoryEntity>> categoriesMono = categoryRepository.findAllById(categoryIds)
+                .collectMap(CategoryEntity::getId);
+        Mono<Map<String, Long>> nameOwnersMono = subcategoryRepository.findByCategoryIdInAndNameIn(categoryIds, names)
+                .collectMap(existing -> nameInCategory(existing.getCategoryId(), existing.getName()), SubcategoryEntity::getId);
+        return databaseGuard.execute(Mono.zip(existingMono, categoriesMono, nameOwnersMono))
+                .doOnSubscribe(subscription -> log.info("Пакетное редактирование {} подкатегорий", subcategories.size()))
+                .flatMap(tuple -> {
+                    Map<Long, SubcategoryEntity> existing = tuple.getT1();
+                    Map<Long, CategoryEntity> categories = tuple.getT2();
+                    Map<String, Long> nameOwners = tuple.getT3();
+                    BulkItemResultDto[] results = new BulkItemResultDto[subcategories.size()];
+                    Set<Long> acceptedIds = new HashSet<>();
+                    Set<String> acceptedNames = new HashSet<>();
+                    List<Integer> accepted = new ArrayList<>();
+                    for (int i = 0; i < subcategories.size(); i++) {
+                        SubcategoryUpdateDto subcategory = subcategories.get(i);
+                        String key = nameInCategory(subcategory.getCategoryId(), subcategory.getName());
+                        Long nameOwner = nameOwners.get(key);
+                        if (!existing.containsKey(subcategory.getId())) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), subcategory.getId(),
+                                    BulkItemStatus.NOT_FOUND, "Подкатегория с id %s не найдена".formatted(subcategory.getId()));
+                        } else if (acceptedIds.contains(subcategory.getId())) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), subcategory.getId(),
+                                    BulkItemStatus.DUPLICATE, "Подкатегория с id %s повторяется в запросе".formatted(subcategory.getId()));
+                        } else if (!categories.containsKey(subcategory.getCategoryId())) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), subcategory.getId(),
+                                    BulkItemStatus.CATEGORY_NOT_FOUND, "Категория с id %s не найдена".formatted(subcategory.getCategoryId()));
+                        } else if (nameOwner != null && !nameOwner.equals(subcategory.getId()) || !acceptedNames.add(key)) {
+                            results[i] = BulkItemResultDto.rejected(i, subcategory.getName(), subcategory.getId(),
+                                    BulkItemStatus.DUPLICATE, "Подкатегория с именем: " + subcategory.getName() + " уже существует");
+                        } else {
+                            acceptedIds.add(subcategory.getId());
+                            accepted.add(i);
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.just(List.of(results));
+                    }
+                    Map<Long, Long> previousCategoryIds = new HashMap<>();
+                    List<SubcategoryEntity> entities = accepted.stream()
+                            .map(i -> {
+                                SubcategoryUpdateDto subcategory = subcategories.get(i);
+                                SubcategoryEntity entity = existing.get(subcategory.getId());
+                                previousCategoryIds.put(entity.getId(), entity.getCategoryId());
+                                subcategoryMapper.updateSubcategoryEntity(entity, subcategory, subcategory.getCategoryId());
+                                return entity;
+                            })
+                            .toList();
+                    return databaseGuard.executeBulk(transactionalOperator.transactional(subcategoryRepository.updateAll(entities))
+                                    .collectList())
+                            .onErrorMap(DuplicateKeyException.class, ex -> new DuplicateEntityException(
+                                    "Часть названий была занята параллельным запросом, повторите редактирование"))
+                            .doOnNext(updated -> log.info("Пакетно отредактировано подкатегорий: {}", updated.size()))
+                            .map(updated -> updated.stream()
+                                    .map(entity -> subcategoryMapper.mapToSubCategoryDto(entity, categories.get(entity.getCategoryId())))
+                                    .toList())
+                            .doOnNext(updated -> {
+                                for (int i = 0; i < updated.size(); i++) {
+                                    int index = accepted.get(i);
+                                    results[index] = BulkItemResultDto.updated(index, updated.get(i).getName(), updated.get(i).getId());
+                                }
+                            })
+                            .flatMap(updated -> afterBulkUpdate(updated, previousCategoryIds))
+                            .then(Mono.fromSupplier(() -> List.of(results)));
+                });
+    }
+
+    /**
+     * Метод позволяет отредактировать подкатегорию одним запросом UPDATE по идентификатору. Если ни одна строка
+     * не изменена, подкатегория не найдена. Несуществующую категорию отклоняет внешний ключ, занятое в категории
+     * имя - ограничение уникальности, оба нарушения преобразуются так же, как при сохранении. Прежняя категория
+     * подкатегории, из индекса которой ее нужно убрать, берется из снимка каталога или кэша до изменения.
+     * При недоступности базы сразу завершается ошибкой
      * @param dto - редактируемая подкатегория
      * @return - отредактированная подкатегория
      */
     @Override
     public Mono<SubcategoryDto> update(SubcategoryUpdateDto dto) {
-        Mono<Void> duplicateCheck = subcategoryRepository
-                .findByNameAndIdNotAndCategoryId(dto.getName(), dto.getId(), dto.getCategoryId())
-                .doOnSubscribe(s -> logSubcategoryDuplicateCheck())
-                .flatMap(existing -> Mono.error(new DuplicateEntityException(
-                        "Подкатегория с именем: " + dto.getName() + " уже существует")));
-
-        Mono<CategoryEntity> categoryMono = categoryRepository.findById(dto.getCategoryId())
-                .doOnSubscribe(s -> logCategorySearchById(dto.getCategoryId()))
-                .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                        "Категория с id %s не найдена".formatted(dto.getCategoryId()))));
-
-        Mono<SubcategoryEntity> subcategoryMono = subcategoryRepository.findById(dto.getId())
-                .doOnSubscribe(s -> logSearchSubcategoryById(dto.getId()))
-                .switchIfEmpty(Mono.error(new EntityNotFoundException(
-                        "Подкатегория с id %s не найдена".formatted(dto.getId()))));
-
-        return duplicateCheck.then(Mono.zip(categoryMono, subcategoryMono)
-                .flatMap(tuple -> {
-                    CategoryEntity findCategory = tuple.getT1();
-                    SubcategoryEntity findSubcategory = tuple.getT2();
-                    subcategoryMapper.updateSubcategoryEntity(findSubcategory,dto, findCategory.getId());
-                    return subcategoryRepository.save(findSubcategory)
-                            .doOnSubscribe(subscription -> log.info("Редактирование подкатегории"))
-                            .doOnNext(subcategory -> logSubcategoryMappingStart())
-                            .map(updatedSubcategory -> subcategoryMapper.mapToSubCategoryDto(updatedSubcategory, findCategory))
-                            .doOnSuccess(updatedDto -> logSuccessMappingDto());
-                        })
-        );
+        return findPreviousCategoryId(dto.getId())
+                .flatMap(previousCategoryId -> databaseGuard.execute(subcategoryRepository.updateById(toUpdatedEntity(dto))
+                                .doOnSubscribe(subscription -> log.info("Редактирование подкатегории: {}", dto.getId()))
+                                .switchIfEmpty(Mono.error(new EntityNotFoundException(
+                                        "Подкатегория с id %s не найдена".formatted(dto.getId())))))
+                        .onErrorMap(DuplicateKeyException.class, ex -> duplicateSubcategory(dto.getName()))
+                        .onErrorMap(SubcategoryServiceImpl::isMissingCategory, ex -> categoryNotFound(dto.getCategoryId()))
+                        .doOnNext(updated -> logSubcategoryMappingStart())
+                        .flatMap(updated -> findCategory(dto.getCategoryId())
+                                .map(category -> subcategoryMapper.mapToSubCategoryDto(updated, category)))
+                        .doOnSuccess(updated -> logSuccessMappingDto())
+                        .flatMap(updated -> subcategoryCacheService.updateAfterSave(updated, previousCategoryId.orElse(null))))
+                .doOnNext(catalogSnapshotService::putSubcategory)
+                .flatMap(this::bumpCatalogVersion);
     }
 
     /**
-     * Метод позволяет удалить подкатегорию
+     * Метод позволяет удалить подкатегорию. Удаление выполняется одним запросом, результат определяется по количеству
+     * удаленных строк. Кэш очищается, только если запись действительно была удалена
      * @param id - идентификатор подкатегории
      * @return - флаг удаления
      */
     @Override
     public Mono<Boolean> deleteById(Long id) {
-        return subcategoryRepository.deleteById(id)
-                .doOnSubscribe(subscription -> log.info("Удаление подкатегории по идентификатору: {}", id))
-                .then(subcategoryRepository.findById(id))
-                .map(found -> false)
-                .defaultIfEmpty(true);
+        return databaseGuard.execute(subcategoryRepository.removeById(id)
+                        .doOnSubscribe(subscription -> log.info("Удаление подкатегории по идентификатору: {}", id)))
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("Подкатегория с id %s не найдена".formatted(id))))
+                .then(Mono.fromRunnable(() -> catalogSnapshotService.removeSubcategory(id)))
+                .then(subcategoryCacheService.evict(id))
+                .then(catalogVersionService.bump(null))
+                .thenReturn(true);
+    }
+
+    /**
+     * Метод позволяет удалить несколько подкатегорий за один запрос. В транзакции существующие подкатегории
+     * блокируются одним запросом и удаляются другим. Кэш, снимок и версия каталога обновляются один раз после удаления
+     * @param ids - идентификаторы подкатегорий
+     * @return - результаты по каждому идентификатору в порядке запроса
+     */
+    @Override
+    public Mono<List<BulkItemResultDto>> deleteAll(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
+                .toList();
+        Mono<Set<Long>> deletion = subcategoryRepository.lockExistingIds(distinctIds)
+                .collect(Collectors.toSet())
+                .flatMap(existing -> existing.isEmpty()
+                        ? Mono.just(existing)
+                        : subcategoryRepository.removeAllById(existing).thenReturn(existing));
+        return databaseGuard.executeBulk(transactionalOperator.transactional(deletion))
+                .doOnSubscribe(subscription -> log.info("Пакетное удаление {} подкатегорий", ids.size()))
+                .flatMap(existing -> {
+                    BulkItemResultDto[] results = new BulkItemResultDto[ids.size()];
+                    Set<Long> seen = new HashSet<>();
+                    List<Long> deleted = new ArrayList<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        Long id = ids.get(i);
+                        if (!seen.add(id)) {
+                            results[i] = BulkItemResultDto.rejected(i, null, id, BulkItemStatus.DUPLICATE,
+                                    "Подкатегория с id %s повторяется в запросе".formatted(id));
+                        } else if (!existing.contains(id)) {
+                            results[i] = BulkItemResultDto.rejected(i, null, id, BulkItemStatus.NOT_FOUND,
+                                    "Подкатегория с id %s не найдена".formatted(id));
+                        } else {
+                            results[i] = BulkItemResultDto.deleted(i, id);
+                            deleted.add(id);
+                        }
+                    }
+                    log.info("Пакетно удалено подкатегорий: {}", deleted.size());
+                    return deleted.isEmpty()
+                            ? Mono.just(List.of(results))
+                            : afterBulkDelete(deleted).then(Mono.fromSupplier(() -> List.of(results)));
+                });
+    }
+
+    /**
+     * Метод обновляет кэш, снимок и версию каталога после пакетного сохранения подкатегорий
+     * @param saved - сохраненные подкатегории
+     * @return - сигнал завершения
+     */
+    private Mono<Void> afterBulkSave(List<SubcategoryDto> saved) {
+        return subcategoryCacheService.updateAfterBulkSave(saved)
+                .doOnNext(catalogSnapshotService::putSubcategories)
+                .then(catalogVersionService.bump(saved.get(saved.size() - 1).getCreatedDate()))
+                .then();
+    }
+
+    /**
+     * Метод обновляет кэш, снимок и версию каталога после пакетного редактирования подкатегорий
+     * @param updated - измененные подкатегории
+     * @param previousCategoryIds - категории подкатегорий до редактирования по идентификатору подкатегории
+     * @return - сигнал завершения
+     */
+    private Mono<Void> afterBulkUpdate(List<SubcategoryDto> updated, Map<Long, Long> previousCategoryIds) {
+        return subcategoryCacheService.updateAfterBulkUpdate(updated, previousCategoryIds)
+                .doOnNext(catalogSnapshotService::putSubcategories)
+                .then(catalogVersionService.bump(updated.get(updated.size() - 1).getUpdatedDate()))
+                .then();
     }
 
+    /**
+     * Метод очищает кэш, обновляет снимок и версию каталога после пакетного удаления подкатегорий
+     * @param deleted - идентификаторы удаленных подкатегорий
+     * @return - сигнал завершения
+     */
+    private Mono<Void> afterBulkDelete(List<Long> deleted) {
+        return Mono.fromRunnable(() -> deleted.forEach(catalogSnapshotService::removeSubcategory))
+                .thenMany(Flux.fromIterable(deleted))
+                .concatMap(subcategoryCacheService::evict)
+                .then(catalogVersionService.bump(null))
+                .then();
+    }
+
+    /**
+     * Метод возвращает ключ названия подкатегории внутри категории для проверки дубликатов
+     * @param categoryId - идентификатор категории
+     * @param name - название подкатегории
+     * @return - ключ
+     */
+    private static String nameInCategory(Long categoryId, String name) {
+        return categoryId + ":" + name;
+    }
+
+    /**
+     * Метод увеличивает версию каталога после изменения подкатегории
+     * @param subcategoryDto - измененная подкатегория
+     * @return - измененная подкатегория
+     */
+    private Mono<SubcategoryDto> bumpCatalogVersion(SubcategoryDto subcategoryDto) {
+        LocalDateTime modified = subcategoryDto.getUpdatedDate() != null
+                ? subcategoryDto.getUpdatedDate()
+                : subcategoryDto.getCreatedDate();
+        return catalogVersionService.bump(modified)
+                .thenReturn(subcategoryDto);
+    }
 
     /**
-     * Метод ищет категории для подкатегорий и затем преобразовывает сущность подкатегории в DTO
-     * @param subcategories - список сущностей подкатегорий
-     * @return - список DTO подкатегорий
+     * Метод создает исключение об отсутствии подкатегории
+     * @param id - идентификатор подкатегории
+     * @return - исключение
      */
-    private Flux<SubcategoryDto> getCategoryAndMappingToDtoFor(List<SubcategoryEntity> subcategories){
-        return categoryRepository.findAllById(getCategoriesIdFrom(subcategories))
-                .doOnSubscribe(subscription -> log.info("Поиск категорий"))
-                .switchIfEmpty(Mono.error(new EntitiesNotFoundException("Категории не найдены")))
-                .collectMap(CategoryEntity::getId, Function.identity())
-                .doOnNext(categories -> log.info("Подстановка категорий в подкатегории"))
-                .flatMapMany(categoryMap -> Flux.fromIterable(subcategories)
-                        .map(sub ->
-                                subcategoryMapper.mapToSubCategoryDto(sub, categoryMap.get(sub.getCategoryId())))
-                );
+    private EntityNotFoundException subcategoryNotFound(Long id) {
+        return new EntityNotFoundException("Подкатегория с id %d не найдена".formatted(id));
     }
 
     /**
-     * Метод дает возможность получить список идентификаторов категорий на которые ссылаются подкатегории
+     * Метод преобразует список подкатегорий в поток. Пустой список означает отсутствие подкатегорий
      * @param subcategories - список подкатегорий
-     * @return - список идентификаторов подкатегорий
+     * @return - поток подкатегорий
      */
-    private List<Long> getCategoriesIdFrom(List<SubcategoryEntity> subcategories){
-        return subcategories.stream()
-                .map(SubcategoryEntity::getCategoryId)
-                .distinct()
-                .toList();
+    private Flux<SubcategoryDto> fromNonEmptyList(List<SubcategoryDto> subcategories) {
+        if (subcategories.isEmpty()) {
+            return Flux.error(new EntitiesNotFoundException("Подкатегории не найдены"));
+        }
+        return Flux.fromIterable(subcategories);
     }
 
     /**
@@ -222,9 +568,82 @@ public class SubcategoryServiceImpl implements SubcategoryService  {
     }
 
     /**
-     * Логирует проверку на дубликат подкатегории
+     * Метод создает исключение дублирования подкатегории по нарушению ограничения уникальности
+     * @param name - название подкатегории
+     * @return - исключение дублирования
+     */
+    private DuplicateEntityException duplicateSubcategory(String name) {
+        return new DuplicateEntityException("Подкатегория с именем: " + name + " уже существует");
+    }
+
+    /**
+     * Метод создает сущность подкатегории для изменения одним запросом по идентификатору
+     * @param dto - редактируемая подкатегория
+     * @return - сущность подкатегории с новыми значениями полей
+     */
+    private SubcategoryEntity toUpdatedEntity(SubcategoryUpdateDto dto) {
+        SubcategoryEntity subcategory = new SubcategoryEntity();
+        subcategory.setId(dto.getId());
+        subcategoryMapper.updateSubcategoryEntity(subcategory, dto, dto.getCategoryId());
+        return subcategory;
+    }
+
+    /**
+     * Метод возвращает прежнюю категорию подкатегории перед ее изменением. Категория берется из снимка каталога,
+     * без снимка - из кэша подкатегории; в базу метод не обращается
+     * @param id - идентификатор подкатегории
+     * @return - идентификатор прежней категории или пустое значение, если он неизвестен
+     */
+    private Mono<Optional<Long>> findPreviousCategoryId(Long id) {
+        Optional<Long> fromSnapshot = catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.getSubcategory(id))
+                .map(subcategory -> subcategory.getCategory().getId());
+        if (fromSnapshot.isPresent()) {
+            return Mono.just(fromSnapshot);
+        }
+        return subcategoryCacheService.get(id)
+                .map(subcategory -> Optional.of(subcategory.getCategory().getId()))
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * Метод возвращает категорию для DTO сохраненной подкатегории. Категория берется из снимка каталога,
+     * без снимка читается из базы
+     * @param categoryId - идентификатор категории
+     * @return - категория
+     */
+    private Mono<CategoryEntity> findCategory(Long categoryId) {
+        Optional<CategoryEntity> fromSnapshot = catalogSnapshotService.current()
+                .flatMap(snapshot -> snapshot.getCategory(categoryId))
+                .map(category -> CategoryEntity.builder()
+                        .id(category.getId())
+                        .name(category.getName())
+                        .build());
+        if (fromSnapshot.isPresent()) {
+            return Mono.just(fromSnapshot.get());
+        }
+        return databaseGuard.execute(categoryRepository.findById(categoryId)
+                        .doOnSubscribe(subscription -> this.logCategorySearchById(categoryId)))
+                .switchIfEmpty(Mono.error(() -> categoryNotFound(categoryId)));
+    }
+
+    /**
+     * Метод определяет, вызвана ли ошибка нарушением внешнего ключа на категорию подкатегории
+     * @param ex - ошибка
+     * @return - признак отсутствия категории
+     */
+    private static boolean isMissingCategory(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException
+                && ex.getCause() instanceof R2dbcException cause
+                && FOREIGN_KEY_VIOLATION_STATES.contains(cause.getSqlState());
+    }
+
+    /**
+     * Метод создает исключение отсутствия категории подкатегории
+     * @param categoryId - идентификатор категории
+     * @return - исключение отсутствия категории
      */
-    private void logSubcategoryDuplicateCheck() {
-        log.info("Проверка на дубликат подкатегории");
+    private EntityNotFoundException categoryNotFound(Long categoryId) {
+        return new EntityNotFoundException("Категория с id %s не найдена".formatted(categoryId));
     }
 }
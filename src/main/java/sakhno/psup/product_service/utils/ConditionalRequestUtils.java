@@ -0,0 +1,61 @@
+package sakhno.psup.product_service.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.services.cache.CatalogVersion;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class ConditionalRequestUtils {
+
+    /**
+     * Выполняет условный GET-запрос по версии каталога.
+     * <p>
+     * Если ETag или Last-Modified клиента совпадают с текущей версией, ответ 304 формируется без загрузки данных.
+     * Иначе успешный ответ дополняется заголовками ETag и Last-Modified. Версия берется до загрузки данных, поэтому
+     * при одновременном изменении каталога клиент получит устаревший ETag и перезапросит данные. Если версия
+     * неизвестна, ответ формируется без заголовков.
+     *
+     * @param catalogVersion текущая версия каталога
+     * @param exchange текущий запрос
+     * @param response формирование ответа с данными
+     * @param <T> тип тела ответа
+     * @return ответ 304 или ответ с данными
+     */
+    public static <T> Mono<ResponseEntity<T>> withCatalogVersion(Optional<CatalogVersion> catalogVersion,
+                                                                 ServerWebExchange exchange,
+                                                                 Supplier<Mono<ResponseEntity<T>>> response) {
+        if (catalogVersion.isEmpty()) {
+            return response.get();
+        }
+        CatalogVersion version = catalogVersion.get();
+        Instant lastModified = version.getLastModified() != null ? version.getLastModified() : Instant.MIN;
+        if (exchange.checkNotModified(version.getETag(), lastModified)) {
+            log.info("Каталог не изменился, версия: {}", version.getVersion());
+            return Mono.just(withHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build());
+        }
+        return response.get()
+                .map(entity -> entity.getStatusCode().is2xxSuccessful()
+                        ? withHeaders(ResponseEntity.status(entity.getStatusCode()), version)
+                                .headers(entity.getHeaders())
+                                .body(entity.getBody())
+                        : entity);
+    }
+
+    private static ResponseEntity.BodyBuilder withHeaders(ResponseEntity.BodyBuilder builder, CatalogVersion version) {
+        builder.eTag(version.getETag());
+        if (version.getLastModified() != null) {
+            builder.lastModified(version.getLastModified());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,78 @@
+package sakhno.psup.product_service.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Компонент кодирует поток записей в тело потокового ответа ({@code application/x-ndjson} или
+ * {@code text/event-stream}). Записи объединяются в пакеты до {@code streaming.flush-batch-size} штук или
+ * {@code streaming.flush-interval}, и каждый пакет отправляется клиенту одним буфером. Так сетевой вызов приходится
+ * на пакет, а не на каждую запись, а медленная выдача не задерживает уже прочитанные записи. Пакеты формируются
+ * по запросу клиента, поэтому чтение из базы замедляется вместе с клиентом.
+ */
+@Component
+public class StreamingBodyEncoder {
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_DATA = "data:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    public StreamingBodyEncoder(ObjectMapper objectMapper,
+                                @Value("${streaming.flush-batch-size:100}") int batchSize,
+                                @Value("${streaming.flush-interval:50ms}") Duration flushInterval) {
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Метод кодирует поток записей пакетами
+     * @param items - поток записей
+     * @param mediaType - формат ответа: {@link MediaType#APPLICATION_NDJSON} или {@link MediaType#TEXT_EVENT_STREAM}
+     * @param bufferFactory - фабрика буферов ответа
+     * @return - поток буферов, по одному на пакет
+     */
+    public Flux<DataBuffer> encode(Flux<?> items, MediaType mediaType, DataBufferFactory bufferFactory) {
+        boolean eventStream = MediaType.TEXT_EVENT_STREAM.isCompatibleWith(mediaType);
+        return items
+                .bufferTimeout(batchSize, flushInterval, true)
+                .map(batch -> bufferFactory.wrap(encodeBatch(batch, eventStream)));
+    }
+
+    private byte[] encodeBatch(List<?> batch, boolean eventStream) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 64);
+        for (Object item : batch) {
+            byte[] json = toJson(item);
+            if (eventStream) {
+                out.writeBytes(SSE_DATA);
+                out.writeBytes(json);
+                out.writeBytes(SSE_END);
+            } else {
+                out.writeBytes(json);
+                out.writeBytes(NEW_LINE);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] toJson(Object item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Не удалось сериализовать запись потока", ex);
+        }
+    }
+}
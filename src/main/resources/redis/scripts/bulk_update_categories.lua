@@ -0,0 +1,20 @@
+-- Обновление кэша после пакетного сохранения категорий: записи категорий, поля в хэше списка категорий, удаление
+-- устаревшего ключа со списком и меток отсутствия категорий выполняются атомарно за одно обращение к Redis.
+-- Эпоха списка увеличивается, чтобы перезапись списка данными, прочитанными до изменения, была пропущена.
+-- KEYS[1] - хэш категорий, KEYS[2] - устаревший ключ со списком категорий, KEYS[3] - эпоха списка категорий,
+-- далее для каждой категории ключ категории и метка отсутствия категории
+-- ARGV - для каждой категории идентификатор, сериализованная категория и срок жизни ключа категории, мс
+local hashExists = redis.call('EXISTS', KEYS[1]) == 1
+local count = 0
+for i = 1, #ARGV, 3 do
+    local keyIndex = 4 + count * 2
+    redis.call('SET', KEYS[keyIndex], ARGV[i + 1], 'PX', ARGV[i + 2])
+    redis.call('DEL', KEYS[keyIndex + 1])
+    if hashExists then
+        redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+    end
+    count = count + 1
+end
+redis.call('DEL', KEYS[2])
+redis.call('INCR', KEYS[3])
+return count
@@ -0,0 +1,14 @@
+-- Увеличение версии каталога после изменения категории или подкатегории. При первом изменении версия
+-- начинается с текущего времени, чтобы после очистки Redis не повторить ранее выданные ETag.
+-- KEYS[1] - версия каталога, KEYS[2] - время последнего изменения каталога
+-- ARGV[1] - время изменения, мс, ARGV[2] - текущее время, мс
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('SET', KEYS[1], ARGV[2])
+end
+local version = redis.call('INCR', KEYS[1])
+local lastModified = redis.call('GET', KEYS[2])
+if not lastModified or tonumber(ARGV[1]) > tonumber(lastModified) then
+    lastModified = ARGV[1]
+    redis.call('SET', KEYS[2], lastModified)
+end
+return tostring(version) .. ':' .. lastModified
@@ -0,0 +1,11 @@
+-- Удаление категории из кэша: ключ категории, поле в хэше списка категорий и устаревший ключ со списком
+-- удаляются атомарно. Эпоха списка увеличивается, чтобы перезапись списка данными, прочитанными до удаления,
+-- была пропущена.
+-- KEYS[1] - ключ категории, KEYS[2] - хэш категорий, KEYS[3] - устаревший ключ со списком категорий,
+-- KEYS[4] - эпоха списка категорий
+-- ARGV[1] - идентификатор категории
+local removed = redis.call('DEL', KEYS[1])
+redis.call('HDEL', KEYS[2], ARGV[1])
+redis.call('DEL', KEYS[3])
+redis.call('INCR', KEYS[4])
+return removed
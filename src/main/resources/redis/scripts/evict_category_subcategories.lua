@@ -0,0 +1,13 @@
+-- Удаление подкатегорий категории из кэша после ее редактирования: записи подкатегорий из индекса категории
+-- и сам индекс удаляются атомарно, поэтому подкатегория, добавленная в индекс параллельно, не сохранит
+-- устаревшие данные категории.
+-- KEYS[1] - индекс подкатегорий категории
+-- ARGV[1] - префикс ключа подкатегории, ARGV[2] - служебный элемент полного индекса
+local removed = 0
+for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+    if member ~= ARGV[2] then
+        removed = removed + redis.call('DEL', ARGV[1] .. member)
+    end
+end
+redis.call('DEL', KEYS[1])
+return removed
@@ -0,0 +1,22 @@
+-- Перезапись списка категорий после чтения из базы: хэш категорий, отметка о загрузке и удаление устаревшего
+-- ключа со списком выполняются атомарно. Если после начала чтения из базы категории изменились (эпоха списка
+-- увеличилась), загруженные данные могут быть старше кэша, и перезапись пропускается.
+-- KEYS[1] - хэш категорий, KEYS[2] - устаревший ключ со списком категорий, KEYS[3] - отметка о загрузке,
+-- KEYS[4] - эпоха списка категорий
+-- ARGV[1] - эпоха на момент начала чтения из базы, ARGV[2] - срок жизни хэша и отметки, мс,
+-- далее для каждой категории идентификатор и сериализованная категория
+local epoch = redis.call('GET', KEYS[4]) or '0'
+if epoch ~= ARGV[1] then
+    return -1
+end
+redis.call('DEL', KEYS[1], KEYS[2])
+local count = 0
+for i = 3, #ARGV, 2 do
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+    count = count + 1
+end
+if count > 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+redis.call('SET', KEYS[3], tostring(count), 'PX', ARGV[2])
+return count
@@ -0,0 +1,9 @@
+-- Запись метки отсутствия после чтения из базы. Если значение записи уже есть в кэше, запись была сохранена
+-- параллельно с чтением, и метка не записывается: иначе она скрыла бы сохраненную запись до истечения срока жизни.
+-- KEYS[1] - метка отсутствия записи, KEYS[2] - ключ значения записи
+-- ARGV[1] - срок жизни метки, мс
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return 0
+end
+redis.call('SET', KEYS[1], '1', 'PX', ARGV[1])
+return 1
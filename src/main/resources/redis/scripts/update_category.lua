@@ -0,0 +1,13 @@
+-- Обновление категории после сохранения: запись категории, поле в хэше списка категорий, удаление
+-- устаревшего ключа со списком и метки отсутствия категории выполняются атомарно. Эпоха списка увеличивается,
+-- чтобы перезапись списка данными, прочитанными до изменения, была пропущена.
+-- KEYS[1] - ключ категории, KEYS[2] - хэш категорий, KEYS[3] - устаревший ключ со списком категорий,
+-- KEYS[4] - метка отсутствия категории, KEYS[5] - эпоха списка категорий
+-- ARGV[1] - сериализованная категория, ARGV[2] - идентификатор категории, ARGV[3] - срок жизни ключа категории, мс
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('HSET', KEYS[2], ARGV[2], ARGV[1])
+end
+redis.call('DEL', KEYS[3], KEYS[4])
+redis.call('INCR', KEYS[5])
+return 1
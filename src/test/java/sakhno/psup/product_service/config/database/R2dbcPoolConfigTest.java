@@ -0,0 +1,22 @@
+package sakhno.psup.product_service.config.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class R2dbcPoolConfigTest {
+
+    @Test
+    void maxSizeIsDerivedFromCoresAndExpectedConcurrency() {
+        assertEquals(16, R2dbcPoolConfig.resolveMaxSize(0, 10, 8));
+        assertEquals(40, R2dbcPoolConfig.resolveMaxSize(0, 40, 8));
+        assertEquals(12, R2dbcPoolConfig.resolveMaxSize(12, 40, 8));
+    }
+
+    @Test
+    void minIdleDefaultsToCoresAndNeverExceedsMaxSize() {
+        assertEquals(8, R2dbcPoolConfig.resolveMinIdle(0, 20, 8));
+        assertEquals(4, R2dbcPoolConfig.resolveMinIdle(0, 4, 8));
+        assertEquals(6, R2dbcPoolConfig.resolveMinIdle(6, 20, 8));
+    }
+}
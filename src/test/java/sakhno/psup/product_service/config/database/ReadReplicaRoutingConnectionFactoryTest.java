@@ -0,0 +1,89 @@
+package sakhno.psup.product_service.config.database;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingConnectionFactoryTest {
+    private static final ConnectionFactory PRIMARY =
+            ConnectionFactories.get("r2dbc:h2:mem:///routing_primary;DB_CLOSE_DELAY=-1");
+    private static final ConnectionFactory REPLICA =
+            ConnectionFactories.get("r2dbc:h2:mem:///routing_replica;DB_CLOSE_DELAY=-1");
+
+    @BeforeAll
+    static void createDatabases() {
+        createNode(PRIMARY, "primary");
+        createNode(REPLICA, "replica");
+    }
+
+    @Test
+    void readOnlyOperationGoesToReplica() {
+        DatabaseClient client = DatabaseClient.create(routing(REPLICA));
+
+        assertEquals("replica", node(client).contextWrite(ReadReplicaRoutingConnectionFactory::readOnly).block());
+    }
+
+    @Test
+    void operationWithoutReadOnlyFlagGoesToPrimary() {
+        DatabaseClient client = DatabaseClient.create(routing(REPLICA));
+
+        assertEquals("primary", node(client).block());
+    }
+
+    @Test
+    void readOnlyOperationFallsBackToPrimaryWhenReplicaIsDown() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionFactory downReplica = new ConnectionFactory() {
+            @Override
+            public Mono<Connection> create() {
+                return Mono.error(new R2dbcNonTransientResourceException("Connection refused"));
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return () -> "H2";
+            }
+        };
+        DatabaseClient client = DatabaseClient.create(new ReadReplicaRoutingConnectionFactory(PRIMARY, downReplica,
+                CircuitBreaker.ofDefaults("database-replica"), meterRegistry));
+
+        assertEquals("primary", node(client).contextWrite(ReadReplicaRoutingConnectionFactory::readOnly).block());
+        assertEquals(1.0, meterRegistry.get("r2dbc.replica.fallback").counter().count());
+    }
+
+    @Test
+    void withoutReplicaReadOnlyOperationGoesToPrimary() {
+        DatabaseClient client = DatabaseClient.create(routing(null));
+
+        assertEquals("primary", node(client).contextWrite(ReadReplicaRoutingConnectionFactory::readOnly).block());
+    }
+
+    private static ReadReplicaRoutingConnectionFactory routing(ConnectionFactory replica) {
+        return new ReadReplicaRoutingConnectionFactory(PRIMARY, replica,
+                CircuitBreaker.ofDefaults("database-replica"), new SimpleMeterRegistry());
+    }
+
+    private static Mono<String> node(DatabaseClient client) {
+        return client.sql("SELECT name FROM node")
+                .map(row -> row.get("name", String.class))
+                .one();
+    }
+
+    private static void createNode(ConnectionFactory connectionFactory, String name) {
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))").then()
+                .then(client.sql("DELETE FROM node").then())
+                .then(client.sql("INSERT INTO node (name) VALUES ('" + name + "')").then())
+                .block();
+    }
+}
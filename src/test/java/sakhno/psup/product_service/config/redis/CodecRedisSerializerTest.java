@@ -0,0 +1,111 @@
+package sakhno.psup.product_service.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecRedisSerializerTest {
+    private static final int COMPRESSION_THRESHOLD = 2048;
+
+    private final Map<RedisValueCodec, ObjectMapper> objectMappers = objectMappers();
+
+    @Test
+    void roundTripForEveryCodecWithAndWithoutCompression() {
+        CategoryDto category = category();
+        for (RedisValueCodec codec : RedisValueCodec.values()) {
+            for (int threshold : new int[]{0, COMPRESSION_THRESHOLD}) {
+                CodecRedisSerializer<CategoryDto> serializer = serializer(codec, threshold);
+                assertEquals(category, serializer.deserialize(serializer.serialize(category)),
+                        codec + ", порог сжатия " + threshold);
+            }
+        }
+    }
+
+    @Test
+    void plainJsonIsWrittenWithoutHeaderAndReadableByAnyCodec() {
+        CategoryDto category = category();
+        byte[] legacy = serializer(RedisValueCodec.JSON, 0).serialize(category);
+        assertEquals('{', legacy[0]);
+        for (RedisValueCodec codec : RedisValueCodec.values()) {
+            assertEquals(category, serializer(codec, COMPRESSION_THRESHOLD).deserialize(legacy));
+        }
+    }
+
+    @Test
+    void valueWrittenByOneCodecIsReadableByAnother() {
+        CategoryDto category = category();
+        byte[] smile = serializer(RedisValueCodec.SMILE, COMPRESSION_THRESHOLD).serialize(category);
+        assertEquals(category, serializer(RedisValueCodec.CBOR, 0).deserialize(smile));
+    }
+
+    @Test
+    void emptyValueIsReadAsNull() {
+        assertNull(serializer(RedisValueCodec.CBOR, 0).deserialize(new byte[0]));
+        assertNull(serializer(RedisValueCodec.CBOR, 0).deserialize(null));
+    }
+
+    @Test
+    void unknownCodecInHeaderFailsWithSerializationException() {
+        byte[] value = serializer(RedisValueCodec.SMILE, 0).serialize(category());
+        value[1] = 0x7F;
+        assertThrows(SerializationException.class, () -> serializer(RedisValueCodec.SMILE, 0).deserialize(value));
+    }
+
+    @Test
+    void malformedValueFailsWithSerializationException() {
+        CodecRedisSerializer<CategoryDto> serializer = serializer(RedisValueCodec.SMILE, 1);
+        byte[] compressed = serializer.serialize(category());
+        byte[] corrupt = compressed.clone();
+        Arrays.fill(corrupt, 6, corrupt.length, (byte) 0xFF);
+        byte[] negativeLength = compressed.clone();
+        ByteBuffer.wrap(negativeLength, 2, Integer.BYTES).putInt(-1);
+        byte[] hugeLength = compressed.clone();
+        ByteBuffer.wrap(hugeLength, 2, Integer.BYTES).putInt(Integer.MAX_VALUE);
+
+        for (byte[] value : List.of(new byte[]{(byte) 0xC5}, Arrays.copyOf(compressed, 4),
+                Arrays.copyOf(compressed, compressed.length / 2), corrupt, negativeLength, hugeLength)) {
+            assertThrows(SerializationException.class, () -> serializer.deserialize(value), Arrays.toString(value));
+        }
+    }
+
+    private CodecRedisSerializer<CategoryDto> serializer(RedisValueCodec codec, int threshold) {
+        ObjectMapper json = objectMappers.get(RedisValueCodec.JSON);
+        return new CodecRedisSerializer<>(json.constructType(CategoryDto.class), objectMappers, codec, threshold);
+    }
+
+    private static Map<RedisValueCodec, ObjectMapper> objectMappers() {
+        Map<RedisValueCodec, ObjectMapper> objectMappers = new EnumMap<>(RedisValueCodec.class);
+        for (RedisValueCodec codec : RedisValueCodec.values()) {
+            objectMappers.put(codec, codec.createObjectMapper());
+        }
+        return objectMappers;
+    }
+
+    private static CategoryDto category() {
+        String description = "Бытовая техника для кухни и дома, гарантия производителя. ".repeat(35).substring(0, 2000);
+        assertTrue(description.getBytes(StandardCharsets.UTF_8).length > COMPRESSION_THRESHOLD);
+        return CategoryDto.builder()
+                .id(42L)
+                .name("Бытовая техника")
+                .description(description)
+                .createdDate(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .updatedDate(LocalDateTime.of(2025, 2, 1, 12, 0))
+                .createdUserId(1L)
+                .updatedUserId(2L)
+                .build();
+    }
+}
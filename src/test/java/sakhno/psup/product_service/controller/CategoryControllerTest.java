@@ -1,5 +1,6 @@
 package sakhno.psup.product_service.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -19,20 +20,43 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.config.exception.GlobalExceptionHandler;
+import sakhno.psup.product_service.config.filters.StaleResponseWebFilter;
 import sakhno.psup.product_service.controllers.CategoryController;
+import sakhno.psup.product_service.dto.bulk.BulkDeleteDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemStatus;
+import sakhno.psup.product_service.dto.category.CategoryBatchDto;
+import sakhno.psup.product_service.dto.category.CategoryBulkSaveDto;
+import sakhno.psup.product_service.dto.category.CategoryBulkUpdateDto;
 import sakhno.psup.product_service.dto.category.CategoryDto;
 import sakhno.psup.product_service.dto.category.CategorySaveDto;
 import sakhno.psup.product_service.dto.category.CategoryUpdateDto;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.exceptions.all.EntityNotFoundException;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
 import sakhno.psup.product_service.exceptions.all.DuplicateEntityException;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
 import sakhno.psup.product_service.repositories.CategoryRepository;
+import sakhno.psup.product_service.services.cache.CatalogVersion;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.ResponseBodyCache;
+import sakhno.psup.product_service.services.cache.StaleResponseMarker;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
 import sakhno.psup.product_service.services.category.CategoryService;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.core.StringContains.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.restdocs.headers.HeaderDocumentation.*;
 import static org.springframework.restdocs.payload.PayloadDocumentation.*;
 import static org.springframework.restdocs.request.RequestDocumentation.*;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.*;
@@ -43,7 +67,7 @@ import static org.springframework.restdocs.webtestclient.WebTestClientRestDocume
 @WebFluxTest(controllers = CategoryController.class)
 @ContextConfiguration(classes = {CategoryController.class})
 @AutoConfigureRestDocs
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, ResponseBodyCache.class, StaleResponseWebFilter.class, SimpleMeterRegistry.class})
 class CategoryControllerTest {
 
     @Autowired
@@ -55,6 +79,12 @@ class CategoryControllerTest {
     @MockitoBean
     private CategoryRepository categoryRepository;
 
+    @MockitoBean
+    private CatalogVersionService catalogVersionService;
+
+    @MockitoBean
+    private CatalogSnapshotService catalogSnapshotService;
+
     @Autowired
     private ApplicationContext context;
 
@@ -155,6 +185,112 @@ class CategoryControllerTest {
                 ));
     }
 
+    @Test
+    void getAllCategories_withCatalogVersion() {
+        Mockito.when(catalogVersionService.current()).thenReturn(Optional.of(getCatalogVersion()));
+        Mockito.when(categoryService.getAll()).thenReturn(Flux.fromIterable(getValidCategoryDtoList()));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"42\"")
+                .expectHeader().lastModified(getCatalogVersion().getLastModified().toEpochMilli())
+                .expectBody()
+                .jsonPath("$.data.length()").isEqualTo(2)
+                .consumeWith(document("category/get-all-categories-etag",
+                        preprocessResponse(prettyPrint()),
+                        responseHeaders(
+                                headerWithName("ETag").description("Версия каталога категорий и подкатегорий"),
+                                headerWithName("Last-Modified").description("Дата последнего изменения каталога")
+                        )
+                ));
+    }
+
+    @Test
+    void getAllCategories_notModified() {
+        Mockito.when(catalogVersionService.current()).thenReturn(Optional.of(getCatalogVersion()));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories")
+                .header("If-None-Match", "\"42\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"42\"")
+                .expectBody().isEmpty();
+
+        Mockito.verify(categoryService, Mockito.never()).getAll();
+    }
+
+    @Test
+    void getAllCategories_cachedResponseBody() {
+        Mockito.when(catalogVersionService.current()).thenReturn(Optional.of(new CatalogVersion(43L, null)));
+        Mockito.when(categoryService.getAll()).thenReturn(Flux.fromIterable(getValidCategoryDtoList()));
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get()
+                    .uri("/api/v1/product-service/categories")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                    .expectBody()
+                    .jsonPath("$.state").isEqualTo("SUCCESS")
+                    .jsonPath("$.data.length()").isEqualTo(2);
+        }
+
+        Mockito.verify(categoryService, Mockito.times(1)).getAll();
+    }
+
+    @Test
+    void getAllCategories_snapshotReloading() {
+        Mockito.when(catalogVersionService.current()).thenReturn(Optional.of(new CatalogVersion(45L, null)));
+        Mockito.when(catalogSnapshotService.isReloadPending()).thenReturn(true);
+        Mockito.when(categoryService.getAll()).thenReturn(Flux.fromIterable(getValidCategoryDtoList()));
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get()
+                    .uri("/api/v1/product-service/categories")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        Mockito.verify(categoryService, Mockito.times(2)).getAll();
+    }
+
+    @Test
+    void getAllCategories_stale() {
+        Mockito.when(catalogVersionService.current()).thenReturn(Optional.of(new CatalogVersion(44L, null)));
+        Mockito.when(categoryService.getAll()).thenReturn(Flux.deferContextual(ctx -> {
+            StaleResponseMarker.from(ctx).ifPresent(marker -> marker.markStale(Instant.now().minusSeconds(30)));
+            return Flux.fromIterable(getValidCategoryDtoList());
+        }));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(StaleResponseMarker.STALE_HEADER, "true")
+                .expectHeader().exists("Age")
+                .expectHeader().doesNotExist("ETag")
+                .expectBody()
+                .jsonPath("$.data.length()").isEqualTo(2)
+                .consumeWith(document("category/get-all-categories-stale",
+                        preprocessResponse(prettyPrint()),
+                        responseHeaders(
+                                headerWithName(StaleResponseMarker.STALE_HEADER)
+                                        .description("Ответ собран из последних известных данных, база недоступна"),
+                                headerWithName("Age").description("Возраст данных в секундах")
+                        )
+                ));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories")
+                .exchange()
+                .expectStatus().isOk();
+
+        Mockito.verify(categoryService, Mockito.times(2)).getAll();
+    }
+
     @Test
     void getAllCategories_notFound() {
         Mockito.when(categoryService.getAll()).thenReturn(Flux.empty());
@@ -177,6 +313,135 @@ class CategoryControllerTest {
                 ));
     }
 
+    @Test
+    void getCategoriesPage() {
+        Mockito.when(categoryService.getPage(eq(2), isNull(), eq(PageSort.NAME)))
+                .thenReturn(Mono.just(new PageDto<>(getValidCategoryDtoList(), 2, "TkFNRToyOtCa0YPRhdC90Y8")));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories/page?limit={limit}&sort={sort}", 2, "NAME")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data.items.length()").isEqualTo(2)
+                .jsonPath("$.data.limit").isEqualTo(2)
+                .jsonPath("$.data.nextCursor").isEqualTo("TkFNRToyOtCa0YPRhdC90Y8")
+                .consumeWith(document("category/get-categories-page",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        queryParameters(
+                                parameterWithName("limit").description("Размер страницы, по умолчанию 50, не более 500").optional(),
+                                parameterWithName("cursor").description("Курсор из ответа на предыдущую страницу").optional(),
+                                parameterWithName("sort").description("Порядок: ID (по умолчанию) или NAME").optional()
+                        ),
+                        responseFields(
+                                fieldWithPath("data.items[].id").description("Идентификатор категории"),
+                                fieldWithPath("data.items[].name").description("Название категории"),
+                                fieldWithPath("data.items[].description").description("Описание категории").optional(),
+                                fieldWithPath("data.items[].createdDate").description("Дата создания"),
+                                fieldWithPath("data.items[].updatedDate").description("Дата обновления"),
+                                fieldWithPath("data.items[].createdUserId").description("ID пользователя, создавшего запись"),
+                                fieldWithPath("data.items[].updatedUserId").description("ID пользователя, обновившего запись"),
+                                fieldWithPath("data.limit").description("Размер страницы"),
+                                fieldWithPath("data.nextCursor").description("Курсор следующей страницы, отсутствует на последней странице").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе").optional(),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void getCategoriesPage_invalidCursor() {
+        Mockito.when(categoryService.getPage(any(), eq("broken"), eq(PageSort.ID)))
+                .thenReturn(Mono.error(new InvalidPageCursorException("Некорректный курсор страницы")));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/categories/page?cursor={cursor}", "broken")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").isEqualTo("Некорректный курсор страницы");
+    }
+
+    @Test
+    void getCategoriesByIds() {
+        Mockito.when(categoryService.getByIds(List.of(2L, 1L)))
+                .thenReturn(Flux.just(getValidCategoryDtoList().get(1), getValidCategoryDtoList().get(0)));
+        ConstrainedRuFields fields = new ConstrainedRuFields(CategoryBatchDto.class);
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CategoryBatchDto(List.of(2L, 1L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data.length()").isEqualTo(2)
+                .jsonPath("$.data[0].id").isEqualTo(2)
+                .jsonPath("$.data[0].name").isEqualTo("Кухонная мебель")
+                .jsonPath("$.data[1].id").isEqualTo(1)
+                .jsonPath("$.data[1].name").isEqualTo("Мягкая мебель")
+                .consumeWith(document("category/get-categories-by-ids",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("ids", "Не может быть пустым. Не более 500 положительных идентификаторов")
+                                        .description("Идентификаторы категорий")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].id").description("Идентификатор категории"),
+                                fieldWithPath("data[].name").description("Название категории"),
+                                fieldWithPath("data[].description").description("Описание категории").optional(),
+                                fieldWithPath("data[].createdDate").description("Дата создания"),
+                                fieldWithPath("data[].updatedDate").description("Дата обновления"),
+                                fieldWithPath("data[].createdUserId").description("ID пользователя, создавшего запись"),
+                                fieldWithPath("data[].updatedUserId").description("ID пользователя, обновившего запись"),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void getCategoriesByIds_notFound() {
+        Mockito.when(categoryService.getByIds(List.of(999L))).thenReturn(Flux.empty());
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CategoryBatchDto(List.of(999L)))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Категории не найдены")
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .consumeWith(document("category/get-categories-by-ids-empty",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        responseFields(
+                                fieldWithPath("data").description("null, так как данные не найдены").optional(),
+                                fieldWithPath("message").description("Сообщение об ошибке"),
+                                fieldWithPath("state").description("Статус ответа: FAIL")
+                        )
+                ));
+    }
+
+    @Test
+    void getCategoriesByIds_validationError() {
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CategoryBatchDto(List.of()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").value(containsString("не может быть пустым"));
+    }
+
     @Test
     void saveCategory() {
         Mockito.when(categoryService.save(any(CategorySaveDto.class))).thenReturn(Mono.just(getValidCategoryDtoAfterSave()));
@@ -220,6 +485,157 @@ class CategoryControllerTest {
                 ));
     }
 
+    @Test
+    void saveCategories() {
+        Mockito.when(categoryService.saveAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.created(0, "Категория", 1L),
+                BulkItemResultDto.rejected(1, "Техника", BulkItemStatus.DUPLICATE, "Категория с именем: Техника уже существует"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(CategoryBulkSaveDto.class);
+        CategoryBulkSaveDto request = new CategoryBulkSaveDto(List.of(getValidCategorySaveDto(),
+                new CategorySaveDto("Техника", "Категория для тестов")));
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("CREATED")
+                .jsonPath("$.data[0].id").isEqualTo(1L)
+                .jsonPath("$.data[1].status").isEqualTo("DUPLICATE")
+                .jsonPath("$.data[1].message").value(containsString("уже существует"))
+                .consumeWith(document("category/save-categories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("categories[].name", "Не может быть пустым. Должно содержать от 5 до 256 символов")
+                                        .description("Название категории"),
+                                fields.withPath("categories[].description", "Не может быть пустым. Должно содержать от 5 до 2000 символов")
+                                        .description("Описание категории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Название из запроса"),
+                                fieldWithPath("data[].id").description("Идентификатор созданной записи").optional(),
+                                fieldWithPath("data[].status").description("Результат: CREATED, DUPLICATE, CATEGORY_NOT_FOUND"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void saveCategories_validationError() {
+        CategoryBulkSaveDto request = new CategoryBulkSaveDto(List.of(getValidCategorySaveDto(), new CategorySaveDto(null, "")));
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").value(containsString("не может быть пустым"));
+        Mockito.verify(categoryService, Mockito.never()).saveAll(any());
+    }
+
+    @Test
+    void updateCategories() {
+        Mockito.when(categoryService.updateAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.updated(0, "Категория", 1L),
+                BulkItemResultDto.rejected(1, "Техника", 999L, BulkItemStatus.NOT_FOUND, "Категория не найдена по id: 999"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(CategoryBulkUpdateDto.class);
+        CategoryBulkUpdateDto request = new CategoryBulkUpdateDto(List.of(getValidCategoryUpdateDto(),
+                new CategoryUpdateDto(999L, "Техника", "Категория для тестов")));
+
+        webTestClient.put()
+                .uri("/api/v1/product-service/categories/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("UPDATED")
+                .jsonPath("$.data[1].status").isEqualTo("NOT_FOUND")
+                .jsonPath("$.data[1].id").isEqualTo(999L)
+                .consumeWith(document("category/update-categories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("categories[].id", "Не может быть пустым. Должен быть положительным")
+                                        .description("Идентификатор категории"),
+                                fields.withPath("categories[].name", "Не может быть пустым. Должно содержать от 5 до 256 символов")
+                                        .description("Название категории"),
+                                fields.withPath("categories[].description", "Не может быть пустым. Должно содержать от 5 до 2000 символов")
+                                        .description("Описание категории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Название из запроса"),
+                                fieldWithPath("data[].id").description("Идентификатор записи"),
+                                fieldWithPath("data[].status").description("Результат: UPDATED, NOT_FOUND, DUPLICATE"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void deleteCategories() {
+        Mockito.when(categoryService.deleteAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.deleted(0, 1L),
+                BulkItemResultDto.rejected(1, null, 2L, BulkItemStatus.HAS_SUBCATEGORIES, "Категория с id 2 содержит подкатегории"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(BulkDeleteDto.class);
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BulkDeleteDto(List.of(1L, 2L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("DELETED")
+                .jsonPath("$.data[1].status").isEqualTo("HAS_SUBCATEGORIES")
+                .consumeWith(document("category/delete-categories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("ids", "Не может быть пустым. Не более 1000 положительных идентификаторов")
+                                        .description("Идентификаторы категорий")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Не заполняется").optional(),
+                                fieldWithPath("data[].id").description("Идентификатор из запроса"),
+                                fieldWithPath("data[].status").description("Результат: DELETED, NOT_FOUND, DUPLICATE, HAS_SUBCATEGORIES"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void deleteCategories_validationError() {
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BulkDeleteDto(List.of(1L, -2L)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").value(containsString("положительным"));
+        Mockito.verify(categoryService, Mockito.never()).deleteAll(any());
+    }
+
     @Test
     void saveCategory_duplicate() {
 
@@ -246,6 +662,32 @@ class CategoryControllerTest {
                 ));
     }
 
+    @Test
+    void saveCategory_databaseUnavailable() {
+        Mockito.when(categoryService.save(any(CategorySaveDto.class)))
+                .thenReturn(Mono.error(new DatabaseUnavailableException("База данных недоступна, повторите запрос позже",
+                        new TimeoutException())));
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/categories/category")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(getValidCategorySaveDto())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("ERROR")
+                .jsonPath("$.message").value(containsString("База данных недоступна"))
+                .consumeWith(document("category/save-category-database-unavailable",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        responseFields(
+                                fieldWithPath("data").description("null, так как сохранение не выполнено").optional(),
+                                fieldWithPath("message").description("Сообщение об ошибке"),
+                                fieldWithPath("state").description("Статус ответа: ERROR")
+                        )
+                ));
+    }
+
     @Test
     void saveCategory_validationError() {
         CategorySaveDto request = new CategorySaveDto(null, "");
@@ -390,6 +832,32 @@ class CategoryControllerTest {
                 ));
     }
 
+    @Test
+    void deleteCategory_notFound() {
+        Mockito.when(categoryService.deleteById(999L)).thenReturn(Mono.error(
+                new EntityNotFoundException("Категория не найдена по id: " + 999L)));
+
+        webTestClient.delete()
+                .uri("/api/v1/product-service/categories/category/{id}", 999L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").isEqualTo("Категория не найдена по id: " + 999L)
+                .consumeWith(document("category/delete-category-not-found",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        pathParameters(
+                                parameterWithName("id").description("Идентификатор категории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data").description("null, так как запись не найдена").optional(),
+                                fieldWithPath("message").description("Сообщение об ошибке"),
+                                fieldWithPath("state").description("Статус ответа: FAIL")
+                        )
+                ));
+    }
+
     private static class ConstrainedRuFields {
         private final ConstraintDescriptions constraintDescriptions;
 
@@ -475,4 +943,8 @@ class CategoryControllerTest {
                 .createdUserId(1L)
                 .build();
     }
+
+    private CatalogVersion getCatalogVersion() {
+        return new CatalogVersion(42L, Instant.parse("2025-05-10T10:15:30Z"));
+    }
 }
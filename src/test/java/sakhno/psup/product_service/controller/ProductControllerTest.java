@@ -0,0 +1,85 @@
+package sakhno.psup.product_service.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.RestDocumentationExtension;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import sakhno.psup.product_service.config.exception.GlobalExceptionHandler;
+import sakhno.psup.product_service.controllers.ProductController;
+import sakhno.psup.product_service.models.ProductEntity;
+import sakhno.psup.product_service.services.product.ProductService;
+import sakhno.psup.product_service.utils.StreamingBodyEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.restdocs.webtestclient.WebTestClientRestDocumentation.document;
+
+@ExtendWith(RestDocumentationExtension.class)
+@WebFluxTest(controllers = ProductController.class)
+@ContextConfiguration(classes = {ProductController.class})
+@AutoConfigureRestDocs
+@Import({GlobalExceptionHandler.class, StreamingBodyEncoder.class})
+class ProductControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @Test
+    void streamAllProducts_ndjson() {
+        Mockito.when(productService.streamAllProducts()).thenReturn(getProducts());
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .consumeWith(result -> assertEquals(
+                        "{\"id\":1,\"name\":\"Диван\"}\n{\"id\":2,\"name\":\"Кресло\"}\n", result.getResponseBody()))
+                .consumeWith(document("product/stream-all-products-ndjson"));
+    }
+
+    @Test
+    void streamAllProducts_eventStream() {
+        Mockito.when(productService.streamAllProducts()).thenReturn(getProducts());
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/products")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .isEqualTo("data:{\"id\":1,\"name\":\"Диван\"}\n\ndata:{\"id\":2,\"name\":\"Кресло\"}\n\n");
+    }
+
+    @Test
+    void getAllProducts_json() {
+        Mockito.when(productService.getAllProducts()).thenReturn(getProducts());
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].name").isEqualTo("Кресло");
+    }
+
+    private Flux<ProductEntity> getProducts() {
+        return Flux.just(new ProductEntity(1L, "Диван"), new ProductEntity(2L, "Кресло"));
+    }
+}
@@ -0,0 +1,107 @@
+package sakhno.psup.product_service.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.restdocs.RestDocumentationExtension;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import sakhno.psup.product_service.config.exception.GlobalExceptionHandler;
+import sakhno.psup.product_service.controllers.SearchController;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+import sakhno.psup.product_service.services.search.SearchService;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.*;
+import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
+import static org.springframework.restdocs.payload.PayloadDocumentation.responseFields;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
+import static org.springframework.restdocs.webtestclient.WebTestClientRestDocumentation.document;
+
+@ExtendWith(RestDocumentationExtension.class)
+@WebFluxTest(controllers = SearchController.class)
+@ContextConfiguration(classes = {SearchController.class})
+@AutoConfigureRestDocs
+@Import(GlobalExceptionHandler.class)
+class SearchControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private SearchService searchService;
+
+    @Test
+    void searchCatalog() {
+        Mockito.when(searchService.search(eq("мягкая мебель"), eq(Set.of(SearchItemType.CATEGORY, SearchItemType.SUBCATEGORY)),
+                        eq(2), isNull()))
+                .thenReturn(Mono.just(new PageDto<>(getSearchResults(), 2, "MC4wNjA3OTI3OlNVQkNBVEVHT1JZOjM")));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/search?q={q}&types={types}&limit={limit}",
+                        "мягкая мебель", "CATEGORY,SUBCATEGORY", 2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data.items.length()").isEqualTo(2)
+                .jsonPath("$.data.items[0].type").isEqualTo("CATEGORY")
+                .jsonPath("$.data.items[1].type").isEqualTo("SUBCATEGORY")
+                .jsonPath("$.data.nextCursor").isEqualTo("MC4wNjA3OTI3OlNVQkNBVEVHT1JZOjM")
+                .consumeWith(document("search/search-catalog",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        queryParameters(
+                                parameterWithName("q").description("Поисковый запрос, не более 200 символов"),
+                                parameterWithName("types").description("Типы записей через запятую: CATEGORY, SUBCATEGORY, PRODUCT; по умолчанию все").optional(),
+                                parameterWithName("limit").description("Размер страницы, по умолчанию 50, не более 500").optional(),
+                                parameterWithName("cursor").description("Курсор из ответа на предыдущую страницу").optional()
+                        ),
+                        responseFields(
+                                fieldWithPath("data.items[].type").description("Тип записи: CATEGORY, SUBCATEGORY или PRODUCT"),
+                                fieldWithPath("data.items[].id").description("Идентификатор записи"),
+                                fieldWithPath("data.items[].name").description("Название записи"),
+                                fieldWithPath("data.items[].description").description("Описание записи, у продуктов отсутствует").optional(),
+                                fieldWithPath("data.items[].rank").description("Релевантность: чем больше, тем точнее совпадение"),
+                                fieldWithPath("data.limit").description("Размер страницы"),
+                                fieldWithPath("data.nextCursor").description("Курсор следующей страницы, отсутствует на последней странице").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе").optional(),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void searchCatalog_blankQuery() {
+        webTestClient.get()
+                .uri("/api/v1/product-service/search?q={q}", " ")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .consumeWith(document("search/search-catalog-blank-query", preprocessResponse(prettyPrint())));
+
+        Mockito.verifyNoInteractions(searchService);
+    }
+
+    private List<SearchResultDto> getSearchResults() {
+        return List.of(
+                new SearchResultDto(SearchItemType.CATEGORY, 1L, "Мягкая мебель",
+                        "Мягкая мебель — это категория мебели, предназначенная для комфортного отдыха", 0.0991f),
+                new SearchResultDto(SearchItemType.SUBCATEGORY, 3L, "Диваны",
+                        "Мягкая мебель для гостиной", 0.0607927f));
+    }
+}
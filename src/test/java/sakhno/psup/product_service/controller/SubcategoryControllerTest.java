@@ -1,5 +1,6 @@
 package sakhno.psup.product_service.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -20,8 +21,13 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import sakhno.psup.product_service.config.exception.GlobalExceptionHandler;
 import sakhno.psup.product_service.controllers.SubcategoryController;
+import sakhno.psup.product_service.dto.bulk.BulkDeleteDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemResultDto;
+import sakhno.psup.product_service.dto.bulk.BulkItemStatus;
 import sakhno.psup.product_service.dto.category.CategorySimpleDto;
 import sakhno.psup.product_service.dto.category.CategoryUpdateDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryBulkSaveDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryBulkUpdateDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategorySaveDto;
 import sakhno.psup.product_service.dto.subcategory.SubcategoryUpdateDto;
@@ -31,10 +37,16 @@ import sakhno.psup.product_service.exceptions.all.EntityNotFoundException;
 import sakhno.psup.product_service.mappers.subcategory.SubcategoryMapper;
 import sakhno.psup.product_service.repositories.CategoryRepository;
 import sakhno.psup.product_service.repositories.SubcategoryRepository;
+import sakhno.psup.product_service.services.cache.CatalogVersion;
+import sakhno.psup.product_service.services.cache.CatalogVersionService;
+import sakhno.psup.product_service.services.cache.ResponseBodyCache;
+import sakhno.psup.product_service.services.catalog.CatalogSnapshotService;
 import sakhno.psup.product_service.services.subcategory.SubcategoryService;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.core.StringContains.containsString;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,7 +61,7 @@ import static org.springframework.restdocs.webtestclient.WebTestClientRestDocume
 @WebFluxTest(controllers = SubcategoryController.class)
 @ContextConfiguration(classes = {SubcategoryController.class})
 @AutoConfigureRestDocs
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, ResponseBodyCache.class, SimpleMeterRegistry.class})
 public class SubcategoryControllerTest {
     @Autowired
     private WebTestClient webTestClient;
@@ -66,6 +78,12 @@ public class SubcategoryControllerTest {
     @MockitoBean
     private SubcategoryMapper subcategoryMapper;
 
+    @MockitoBean
+    private CatalogVersionService catalogVersionService;
+
+    @MockitoBean
+    private CatalogSnapshotService catalogSnapshotService;
+
     @Autowired
     private ApplicationContext context;
 
@@ -201,6 +219,22 @@ public class SubcategoryControllerTest {
                 ));
     }
 
+    @Test
+    void getSubcategoriesByCategoryId_notModified() {
+        Mockito.when(catalogVersionService.current())
+                .thenReturn(Optional.of(new CatalogVersion(42L, Instant.parse("2025-05-10T10:15:30Z"))));
+
+        webTestClient.get()
+                .uri("/api/v1/product-service/subcategories/category/{id}", 1L)
+                .header("If-None-Match", "\"42\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"42\"")
+                .expectBody().isEmpty();
+
+        Mockito.verify(subcategoryService, Mockito.never()).getByCategoryId(Mockito.anyLong());
+    }
+
     @Test
     void getSubcategoriesByCategoryId() {
         Long categoryId = 1L;
@@ -303,6 +337,128 @@ public class SubcategoryControllerTest {
                 ));
     }
 
+    @Test
+    void saveSubcategories() {
+        Mockito.when(subcategoryService.saveAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.created(0, "Подкатегория", 1L),
+                BulkItemResultDto.rejected(1, "Подкатегория", BulkItemStatus.CATEGORY_NOT_FOUND, "Категория с id 999 не найдена"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(SubcategoryBulkSaveDto.class);
+        SubcategoryBulkSaveDto request = new SubcategoryBulkSaveDto(List.of(getValidSubcategorySaveDto(),
+                new SubcategorySaveDto("Подкатегория", "Подкатегория для тестов", 999L)));
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/subcategories/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("CREATED")
+                .jsonPath("$.data[1].status").isEqualTo("CATEGORY_NOT_FOUND")
+                .consumeWith(document("subcategory/save-subcategories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("subcategories[].name", "Не может быть пустым. Должно содержать от 5 до 256 символов")
+                                        .description("Название подкатегории"),
+                                fields.withPath("subcategories[].description", "Не может быть пустым. Должно содержать от 5 до 2000 символов")
+                                        .description("Описание подкатегории"),
+                                fields.withPath("subcategories[].categoryId", "Не может быть пустым. Должен быть положительным")
+                                        .description("Идентификатор категории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Название из запроса"),
+                                fieldWithPath("data[].id").description("Идентификатор созданной записи").optional(),
+                                fieldWithPath("data[].status").description("Результат: CREATED, DUPLICATE, CATEGORY_NOT_FOUND"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void updateSubcategories() {
+        Mockito.when(subcategoryService.updateAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.updated(0, "Подкатегория", 1L),
+                BulkItemResultDto.rejected(1, "Подкатегория", 2L, BulkItemStatus.CATEGORY_NOT_FOUND, "Категория с id 999 не найдена"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(SubcategoryBulkUpdateDto.class);
+        SubcategoryBulkUpdateDto request = new SubcategoryBulkUpdateDto(List.of(getValidSubcategoryUpdateDto(),
+                new SubcategoryUpdateDto(2L, "Подкатегория", "Подкатегория для тестов", 999L)));
+
+        webTestClient.put()
+                .uri("/api/v1/product-service/subcategories/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("UPDATED")
+                .jsonPath("$.data[1].status").isEqualTo("CATEGORY_NOT_FOUND")
+                .consumeWith(document("subcategory/update-subcategories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("subcategories[].id", "Не может быть пустым. Должен быть положительным")
+                                        .description("Идентификатор подкатегории"),
+                                fields.withPath("subcategories[].name", "Не может быть пустым. Должно содержать от 5 до 256 символов")
+                                        .description("Название подкатегории"),
+                                fields.withPath("subcategories[].description", "Не может быть пустым. Должно содержать от 5 до 2000 символов")
+                                        .description("Описание подкатегории"),
+                                fields.withPath("subcategories[].categoryId", "Не может быть пустым. Должен быть положительным")
+                                        .description("Идентификатор категории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Название из запроса"),
+                                fieldWithPath("data[].id").description("Идентификатор записи"),
+                                fieldWithPath("data[].status").description("Результат: UPDATED, NOT_FOUND, DUPLICATE, CATEGORY_NOT_FOUND"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
+    @Test
+    void deleteSubcategories() {
+        Mockito.when(subcategoryService.deleteAll(any())).thenReturn(Mono.just(List.of(
+                BulkItemResultDto.deleted(0, 1L),
+                BulkItemResultDto.rejected(1, null, 999L, BulkItemStatus.NOT_FOUND, "Подкатегория с id 999 не найдена"))));
+        ConstrainedRuFields fields = new ConstrainedRuFields(BulkDeleteDto.class);
+
+        webTestClient.post()
+                .uri("/api/v1/product-service/subcategories/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BulkDeleteDto(List.of(1L, 999L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("SUCCESS")
+                .jsonPath("$.data[0].status").isEqualTo("DELETED")
+                .jsonPath("$.data[1].status").isEqualTo("NOT_FOUND")
+                .consumeWith(document("subcategory/delete-subcategories-bulk",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        requestFields(
+                                fields.withPath("ids", "Не может быть пустым. Не более 1000 положительных идентификаторов")
+                                        .description("Идентификаторы подкатегорий")
+                        ),
+                        responseFields(
+                                fieldWithPath("data[].index").description("Позиция элемента в запросе"),
+                                fieldWithPath("data[].name").description("Не заполняется").optional(),
+                                fieldWithPath("data[].id").description("Идентификатор из запроса"),
+                                fieldWithPath("data[].status").description("Результат: DELETED, NOT_FOUND, DUPLICATE"),
+                                fieldWithPath("data[].message").description("Причина отказа").optional(),
+                                fieldWithPath("message").description("Сообщение об успехе"),
+                                fieldWithPath("state").description("Статус ответа: SUCCESS")
+                        )
+                ));
+    }
+
     @Test
     void saveSubcategory_duplicate() {
         Mockito.when(subcategoryService.save(any(SubcategorySaveDto.class)))
@@ -479,6 +635,32 @@ public class SubcategoryControllerTest {
                 ));
     }
 
+    @Test
+    void deleteSubcategory_notFound() {
+        Mockito.when(subcategoryService.deleteById(999L)).thenReturn(Mono.error(
+                new EntityNotFoundException("Подкатегория с id %d не найдена".formatted(999L))));
+
+        webTestClient.delete()
+                .uri("/api/v1/product-service/subcategories/subcategory/{id}", 999L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("FAIL")
+                .jsonPath("$.message").isEqualTo("Подкатегория с id %d не найдена".formatted(999L))
+                .consumeWith(document("subcategory/delete-subcategory-not-found",
+                        preprocessRequest(prettyPrint()),
+                        preprocessResponse(prettyPrint()),
+                        pathParameters(
+                                parameterWithName("id").description("Идентификатор подкатегории")
+                        ),
+                        responseFields(
+                                fieldWithPath("data").description("null, так как запись не найдена").optional(),
+                                fieldWithPath("message").description("Сообщение об ошибке"),
+                                fieldWithPath("state").description("Статус ответа: FAIL")
+                        )
+                ));
+    }
+
     private static class ConstrainedRuFields {
         private final ConstraintDescriptions constraintDescriptions;
 
@@ -0,0 +1,52 @@
+package sakhno.psup.product_service.services.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class CacheInvalidationServiceTest {
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final CacheInvalidationService service = new CacheInvalidationService(redisTemplate);
+
+    @Test
+    void completedSubscriptionIsRestored() throws Exception {
+        doReturn(Flux.empty(),
+                Flux.just(new ReactiveSubscription.ChannelMessage<>("channel", "other-node|category|42")).concatWith(Flux.never()))
+                .when(redisTemplate).listenToChannel(anyString());
+        CompletableFuture<String> invalidated = new CompletableFuture<>();
+        service.register("category", invalidated::complete);
+
+        service.subscribe();
+        try {
+            assertEquals("42", invalidated.get(5, TimeUnit.SECONDS));
+        } finally {
+            service.unsubscribe();
+        }
+    }
+
+    @Test
+    void failedInvalidatorDoesNotStopSubscription() throws Exception {
+        doReturn(Flux.just(new ReactiveSubscription.ChannelMessage<>("channel", "other-node|category|*"),
+                        new ReactiveSubscription.ChannelMessage<>("channel", "other-node|category|42"))
+                .concatWith(Flux.never()))
+                .when(redisTemplate).listenToChannel(anyString());
+        CompletableFuture<Long> invalidated = new CompletableFuture<>();
+        service.register("category", key -> invalidated.complete(Long.valueOf(key)));
+
+        service.subscribe();
+        try {
+            assertEquals(42L, invalidated.get(5, TimeUnit.SECONDS));
+        } finally {
+            service.unsubscribe();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisCacheGuardTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RedisCacheGuard guard = new RedisCacheGuard(CircuitBreakerRegistry.ofDefaults(), meterRegistry,
+            Duration.ofMillis(100), 10);
+
+    @Test
+    void failedOrSlowReadIsTreatedAsMiss() {
+        StepVerifier.create(guard.read("category", Mono.error(new RedisConnectionFailureException("down"))))
+                .verifyComplete();
+        StepVerifier.create(guard.read("category", Mono.never()))
+                .verifyComplete();
+
+        assertEquals(1.0, fallbackCount("error"));
+        assertEquals(1.0, fallbackCount("timeout"));
+    }
+
+    @Test
+    void deferredWritesAreReplayedInOrderAfterRecovery() {
+        AtomicBoolean available = new AtomicBoolean(false);
+        List<String> applied = new CopyOnWriteArrayList<>();
+
+        for (String key : List.of("first", "second")) {
+            StepVerifier.create(guard.writeOrDefer("category", () -> available.get()
+                            ? Mono.fromRunnable(() -> applied.add(key))
+                            : Mono.error(new RedisConnectionFailureException("down"))))
+                    .verifyComplete();
+        }
+        assertEquals(List.of(), applied);
+
+        available.set(true);
+        StepVerifier.create(guard.read("category", Mono.just("value")))
+                .expectNext("value")
+                .verifyComplete();
+
+        assertEquals(List.of("first", "second"), applied);
+        assertEquals(2.0, meterRegistry.get("cache.redis.deferred.writes").tag("event", "replayed").counter().count());
+    }
+
+    @Test
+    void newWriteRunsAfterPendingDeferredWrites() {
+        AtomicBoolean available = new AtomicBoolean(false);
+        List<String> applied = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(guard.writeOrDefer("subcategory", () -> available.get()
+                        ? Mono.fromRunnable(() -> applied.add("old"))
+                        : Mono.error(new RedisConnectionFailureException("down"))))
+                .verifyComplete();
+
+        available.set(true);
+        StepVerifier.create(guard.writeOrDefer("subcategory", () -> Mono.fromRunnable(() -> applied.add("new"))))
+                .verifyComplete();
+
+        assertEquals(List.of("old", "new"), applied);
+    }
+
+    private double fallbackCount(String reason) {
+        return meterRegistry.get("cache.redis.fallback").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,62 @@
+package sakhno.psup.product_service.services.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import sakhno.psup.product_service.exceptions.all.DatabaseUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaleIfErrorCacheTest {
+    private final StaleIfErrorCache cache = new StaleIfErrorCache(new SimpleMeterRegistry(), true, 100,
+            Duration.ofMinutes(10));
+    private final DatabaseUnavailableException unavailable =
+            new DatabaseUnavailableException("База данных недоступна", new TimeoutException());
+
+    @Test
+    void lastLoadedValueIsServedAndMarkedStaleWhenDatabaseIsUnavailable() {
+        StepVerifier.create(StaleIfErrorCache.unwrap(cache.load("category", "category:1", Mono.just("Категория"))))
+                .expectNext("Категория")
+                .verifyComplete();
+
+        StaleResponseMarker marker = new StaleResponseMarker();
+        StepVerifier.create(StaleIfErrorCache.unwrap(cache.load("category", "category:1", Mono.<String>error(unavailable)))
+                        .contextWrite(ctx -> ctx.put(StaleResponseMarker.CONTEXT_KEY, marker)))
+                .expectNext("Категория")
+                .verifyComplete();
+
+        assertTrue(marker.isStale());
+    }
+
+    @Test
+    void everySubscriberOfSharedLoadIsMarkedStale() {
+        cache.put("category:3", "Категория");
+        Mono<LoadedValue<String>> shared = cache.load("category", "category:3", Mono.<String>error(unavailable))
+                .delaySubscription(Duration.ofMillis(50))
+                .share();
+
+        StaleResponseMarker first = new StaleResponseMarker();
+        StaleResponseMarker second = new StaleResponseMarker();
+        StepVerifier.create(Mono.zip(
+                        StaleIfErrorCache.unwrap(shared)
+                                .contextWrite(ctx -> ctx.put(StaleResponseMarker.CONTEXT_KEY, first)),
+                        StaleIfErrorCache.unwrap(shared)
+                                .contextWrite(ctx -> ctx.put(StaleResponseMarker.CONTEXT_KEY, second))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertTrue(first.isStale());
+        assertTrue(second.isStale());
+    }
+
+    @Test
+    void errorIsPropagatedWithoutLastKnownValue() {
+        StepVerifier.create(cache.load("category", "category:2", Mono.<String>error(unavailable)))
+                .expectErrorMatches(ex -> ex == unavailable)
+                .verify();
+    }
+}
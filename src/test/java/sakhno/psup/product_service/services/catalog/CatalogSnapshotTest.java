@@ -0,0 +1,178 @@
+package sakhno.psup.product_service.services.catalog;
+
+import org.junit.jupiter.api.Test;
+import sakhno.psup.product_service.dto.category.CategoryDto;
+import sakhno.psup.product_service.dto.category.CategorySimpleDto;
+import sakhno.psup.product_service.dto.subcategory.SubcategoryDto;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void lookupsAndChildListsAreBuiltFromCatalog() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(category(2L, "Кухонная мебель"), category(1L, "Мягкая мебель")),
+                List.of(subcategory(11L, 1L), subcategory(12L, 1L), subcategory(21L, 2L), subcategory(99L, 9L)));
+
+        assertEquals(List.of(1L, 2L), snapshot.getCategories().stream().map(CategoryDto::getId).toList());
+        assertEquals("Мягкая мебель", snapshot.getCategory(1L).orElseThrow().getName());
+        assertTrue(snapshot.getCategory(3L).isEmpty());
+        assertTrue(snapshot.getSubcategory(99L).isEmpty(), "подкатегория без категории отбрасывается");
+        assertEquals(List.of(11L, 12L), snapshot.getSubcategoriesByCategoryId(1L).orElseThrow().stream()
+                .map(SubcategoryDto::getId).toList());
+        assertTrue(snapshot.getSubcategoriesByCategoryId(3L).isEmpty());
+        assertSame(snapshot.getSubcategory(11L).orElseThrow().getCategory(),
+                snapshot.getSubcategory(12L).orElseThrow().getCategory());
+    }
+
+    @Test
+    void changesProduceNewSnapshotAndKeepOriginal() {
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(category(1L, "Мягкая мебель"), category(2L, "Кухонная мебель")),
+                List.of(subcategory(11L, 1L)));
+
+        CatalogSnapshot renamed = original.withCategory(category(1L, "Диваны"));
+        assertEquals("Диваны", renamed.getSubcategory(11L).orElseThrow().getCategory().getName());
+        assertEquals("Мягкая мебель", original.getSubcategory(11L).orElseThrow().getCategory().getName());
+
+        CatalogSnapshot moved = original.withSubcategory(subcategory(11L, 2L));
+        assertTrue(moved.getSubcategoriesByCategoryId(1L).orElseThrow().isEmpty());
+        assertEquals(1, moved.getSubcategoriesByCategoryId(2L).orElseThrow().size());
+
+        CatalogSnapshot removed = original.withoutCategory(1L);
+        assertTrue(removed.getCategory(1L).isEmpty());
+        assertTrue(removed.getSubcategory(11L).isEmpty());
+        assertTrue(original.withoutSubcategory(11L).getSubcategories().isEmpty());
+    }
+
+    @Test
+    void batchChangesReplaceExistingAndAddNewEntries() {
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(category(1L, "Мягкая мебель")), List.of(subcategory(11L, 1L)));
+
+        CatalogSnapshot changed = original
+                .withCategories(List.of(category(1L, "Диваны"), category(2L, "Кухонная мебель")))
+                .withSubcategories(List.of(subcategory(11L, 2L), subcategory(12L, 1L), subcategory(21L, 2L)));
+
+        assertEquals(List.of(1L, 2L), changed.getCategories().stream().map(CategoryDto::getId).toList());
+        assertEquals("Диваны", changed.getCategory(1L).orElseThrow().getName());
+        assertEquals(List.of(12L), changed.getSubcategoriesByCategoryId(1L).orElseThrow().stream()
+                .map(SubcategoryDto::getId).toList());
+        assertEquals(List.of(11L, 21L), changed.getSubcategoriesByCategoryId(2L).orElseThrow().stream()
+                .map(SubcategoryDto::getId).toList());
+        assertEquals(1, original.getSubcategories().size());
+    }
+
+    @Test
+    void mergedChangesMatchFullRebuild() {
+        Random random = new Random(42);
+        Map<Long, CategoryDto> categories = new TreeMap<>();
+        Map<Long, SubcategoryDto> subcategories = new TreeMap<>();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(), List.of());
+        for (int step = 0; step < 500; step++) {
+            CatalogChanges changes = new CatalogChanges();
+            for (int change = random.nextInt(4); change >= 0; change--) {
+                long id = random.nextInt(20) + 1;
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        CategoryDto category = category(id, "Категория " + id + "." + step);
+                        changes.putCategory(category);
+                        categories.put(id, category);
+                    }
+                    case 1 -> {
+                        changes.removeCategory(id);
+                        categories.remove(id);
+                        subcategories.values().removeIf(subcategory -> subcategory.getCategory().getId() == id);
+                    }
+                    case 2 -> {
+                        SubcategoryDto subcategory = subcategory(id * 100 + random.nextInt(5), random.nextInt(20) + 1L);
+                        changes.putSubcategory(subcategory);
+                        subcategories.put(subcategory.getId(), subcategory);
+                    }
+                    default -> {
+                        long subcategoryId = id * 100 + random.nextInt(5);
+                        changes.removeSubcategory(subcategoryId);
+                        subcategories.remove(subcategoryId);
+                    }
+                }
+            }
+            CatalogSnapshot previous = snapshot;
+            snapshot = snapshot.apply(changes);
+            CatalogSnapshot rebuilt = CatalogSnapshot.of(List.copyOf(categories.values()), List.copyOf(subcategories.values()));
+            subcategories.values().removeIf(subcategory -> !categories.containsKey(subcategory.getCategory().getId()));
+
+            assertEquals(describe(rebuilt), describe(snapshot));
+            for (CategoryDto category : snapshot.getCategories()) {
+                boolean untouched = !changes.categories().containsKey(category.getId())
+                        && changes.subcategories().isEmpty() && previous.getCategory(category.getId()).isPresent();
+                if (untouched) {
+                    assertSame(previous.getSubcategoriesByCategoryId(category.getId()).orElseThrow(),
+                            snapshot.getSubcategoriesByCategoryId(category.getId()).orElseThrow());
+                }
+            }
+        }
+    }
+
+    @Test
+    void longKeyMapKeepsEveryKeyAfterRemovals() {
+        List<Long> keys = LongStream.range(0, 2000)
+                .map(i -> i * 1024)
+                .boxed()
+                .toList();
+        LongKeyMap<Long> map = LongKeyMap.of(keys, Long::longValue, key -> key);
+        Map<Long, Long> changes = new HashMap<>();
+        keys.stream().filter(key -> key % 3 == 0).forEach(key -> changes.put(key, null));
+        changes.put(1L, 1L);
+
+        LongKeyMap<Long> changed = map.with(changes);
+
+        assertEquals(keys.size() - (changes.size() - 1) + 1, changed.size());
+        keys.forEach(key -> assertEquals(key % 3 == 0 ? null : key, changed.get(key)));
+        assertEquals(1L, changed.get(1L));
+        keys.forEach(key -> assertEquals(key, map.get(key)));
+    }
+
+    @Test
+    void longKeyMapFindsEveryKeyAfterCollisions() {
+        List<Long> keys = LongStream.range(0, 5000)
+                .map(i -> i * 1024)
+                .boxed()
+                .toList();
+        LongKeyMap<Long> map = LongKeyMap.of(keys, Long::longValue, key -> key);
+
+        assertEquals(keys.size(), map.size());
+        keys.forEach(key -> assertEquals(key, map.get(key)));
+        assertNull(map.get(1L));
+    }
+
+    private String describe(CatalogSnapshot snapshot) {
+        StringBuilder description = new StringBuilder();
+        snapshot.getCategories().forEach(category -> {
+            description.append(category.getId()).append('=').append(category.getName()).append(':');
+            snapshot.getSubcategoriesByCategoryId(category.getId()).orElseThrow().forEach(subcategory ->
+                    description.append(subcategory.getId()).append('/').append(subcategory.getCategory().getName()).append(','));
+            description.append(snapshot.getCategory(category.getId()).orElseThrow().getName()).append(';');
+        });
+        snapshot.getSubcategories().forEach(subcategory -> description.append(subcategory.getId()).append('>')
+                .append(snapshot.getSubcategory(subcategory.getId()).orElseThrow().getCategory().getName()).append(','));
+        return description.toString();
+    }
+
+    private CategoryDto category(Long id, String name) {
+        return new CategoryDto(id, name, "Описание категории", LocalDateTime.now(), null, 1L, null);
+    }
+
+    private SubcategoryDto subcategory(Long id, Long categoryId) {
+        return new SubcategoryDto(id, "Подкатегория " + id, "Описание подкатегории",
+                new CategorySimpleDto(categoryId, "Категория " + categoryId), LocalDateTime.now(), null, 1L, null);
+    }
+}
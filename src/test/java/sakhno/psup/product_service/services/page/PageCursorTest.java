@@ -0,0 +1,43 @@
+package sakhno.psup.product_service.services.page;
+
+import org.junit.jupiter.api.Test;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.page.PageSort;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void nextCursorPointsAtLastItemOfPage() {
+        List<String> rows = List.of("Буфеты", "Вешалки", "Гостиные");
+
+        PageDto<String> page = PageCursor.toPage(rows, 2, PageSort.NAME, String::length, name -> name);
+        PageCursor next = PageCursor.decode(page.getNextCursor(), PageSort.NAME);
+
+        assertEquals(List.of("Буфеты", "Вешалки"), page.getItems());
+        assertEquals("Вешалки", next.getLastName());
+        assertEquals(7L, next.getLastId());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        PageDto<String> page = PageCursor.toPage(List.of("Буфеты"), 2, PageSort.ID, String::length, name -> name);
+
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorOfAnotherSortOrMalformedCursorIsRejected() {
+        String idCursor = PageCursor.toPage(List.of("a", "b"), 1, PageSort.ID, String::length, name -> name)
+                .getNextCursor();
+
+        assertThrows(InvalidPageCursorException.class, () -> PageCursor.decode(idCursor, PageSort.NAME));
+        assertThrows(InvalidPageCursorException.class, () -> PageCursor.decode("не курсор", PageSort.ID));
+    }
+}
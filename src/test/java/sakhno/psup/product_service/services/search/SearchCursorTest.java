@@ -0,0 +1,51 @@
+package sakhno.psup.product_service.services.search;
+
+import org.junit.jupiter.api.Test;
+import sakhno.psup.product_service.dto.page.PageDto;
+import sakhno.psup.product_service.dto.search.SearchItemType;
+import sakhno.psup.product_service.dto.search.SearchResultDto;
+import sakhno.psup.product_service.exceptions.all.InvalidPageCursorException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCursorTest {
+
+    @Test
+    void nextCursorPointsAtLastItemOfPage() {
+        List<SearchResultDto> rows = List.of(
+                result(SearchItemType.CATEGORY, 1L, 0.0991f),
+                result(SearchItemType.SUBCATEGORY, 3L, 0.0607927f),
+                result(SearchItemType.PRODUCT, 2L, 0.0607927f));
+
+        PageDto<SearchResultDto> page = SearchCursor.toPage(rows, 2);
+        SearchCursor next = SearchCursor.decode(page.getNextCursor());
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(0.0607927f, next.getLastRank());
+        assertEquals(SearchItemType.SUBCATEGORY, next.getLastType());
+        assertEquals(3L, next.getLastId());
+    }
+
+    @Test
+    void lastPageHasNoCursorAndEmptyCursorIsFirstPage() {
+        PageDto<SearchResultDto> page = SearchCursor.toPage(List.of(result(SearchItemType.CATEGORY, 1L, 1.0f)), 2);
+
+        assertNull(page.getNextCursor());
+        assertTrue(SearchCursor.decode(null).isFirst());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(InvalidPageCursorException.class, () -> SearchCursor.decode("broken"));
+        assertThrows(InvalidPageCursorException.class, () -> SearchCursor.decode("TkFNRToyOtCa0YPRhdC90Y8"));
+    }
+
+    private SearchResultDto result(SearchItemType type, Long id, Float rank) {
+        return new SearchResultDto(type, id, "Мебель", null, rank);
+    }
+}